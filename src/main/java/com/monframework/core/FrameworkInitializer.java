@@ -0,0 +1,80 @@
+package com.monframework.core;
+
+import jakarta.servlet.MultipartConfigElement;
+import jakarta.servlet.ServletContainerInitializer;
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRegistration;
+import jakarta.servlet.annotation.MultipartConfig;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.monframework.core.util.Config.FrameworkConfig;
+import com.monframework.core.util.Mapper.RouteMapping;
+import com.monframework.core.util.Mapper.RouteTable;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Mode optionnel de routage natif (context-param framework.nativeRouting=true).
+ *
+ * Au démarrage, les routes purement littérales (sans {var}) sont enregistrées comme
+ * mappings exacts du conteneur, chacune vers une RouteServlet. Le mapper de Tomcat
+ * effectue alors le routage; seules les routes avec variables de chemin passent
+ * encore par le routeur de FrontServlet.
+ *
+ * Conséquence sur la précédence: un mapping exact du conteneur passe avant tout autre
+ * mapping, donc une route littérale l'emporte sur une route à variables de même URL.
+ *
+ * ServletContext.addServlet n'est autorisé que pendant l'initialisation du contexte,
+ * d'où l'utilisation d'un ServletContainerInitializer plutôt que FrontServlet.init().
+ */
+public class FrameworkInitializer implements ServletContainerInitializer {
+
+    private static final Logger LOG = Logger.get(FrameworkInitializer.class);
+
+    @Override
+    public void onStartup(Set<Class<?>> classes, ServletContext ctx) throws ServletException {
+        FrameworkConfig config = FrameworkConfig.from(ctx);
+        Logger.configure(config);
+        if (!config.getBoolean("framework.nativeRouting", false)) {
+            return;
+        }
+
+        List<RouteMapping> routeMappings = FrontServlet.collectRoutes(ctx);
+        // FrontServlet.init() réutilisera cette table au lieu de rescanner
+        RouteTable.install(ctx, routeMappings);
+
+        // Regrouper les routes littérales par URL (GET et POST peuvent partager une URL)
+        Map<String, List<RouteMapping>> literalRoutes = new LinkedHashMap<>();
+        for (RouteMapping rm : routeMappings) {
+            String url = rm.getFullUrl();
+            // "/" est le mapping par défaut et "*" serait interprété comme un joker
+            if (!rm.isLiteral() || "/".equals(url) || url.indexOf('*') >= 0) {
+                continue;
+            }
+            literalRoutes.computeIfAbsent(url, k -> new ArrayList<>()).add(rm);
+        }
+
+        MultipartConfigElement multipart = new MultipartConfigElement(FrontServlet.class.getAnnotation(MultipartConfig.class));
+        int index = 0;
+        for (Map.Entry<String, List<RouteMapping>> entry : literalRoutes.entrySet()) {
+            String servletName = "FrontServlet#" + (index++);
+            ServletRegistration.Dynamic registration = ctx.addServlet(servletName, new RouteServlet(entry.getKey(), entry.getValue()));
+            if (registration == null) {
+                LOG.warn("Servlet " + servletName + " déjà enregistrée, route ignorée: " + entry.getKey());
+                continue;
+            }
+            registration.setMultipartConfig(multipart);
+            registration.setAsyncSupported(true);
+            Set<String> conflicts = registration.addMapping(entry.getKey());
+            if (!conflicts.isEmpty()) {
+                LOG.warn("Mapping natif en conflit, la route reste gérée par FrontServlet: " + conflicts);
+            } else if (LOG.isDebugEnabled()) {
+                LOG.debug("Mapping natif: " + entry.getKey() + " -> " + servletName);
+            }
+        }
+    }
+}
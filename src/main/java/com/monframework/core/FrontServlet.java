@@ -1,5 +1,7 @@
 package com.monframework.core;
 
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.annotation.WebServlet;
@@ -8,19 +10,57 @@ import jakarta.servlet.http.HttpServlet;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.servlet.ServletContext;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.PrintWriter;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.nio.ByteBuffer;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+import com.monframework.core.util.AccessLog.AccessLogWriter;
+import com.monframework.core.util.AsyncIO.BufferPool;
+import com.monframework.core.util.AsyncIO.NonBlockingIO;
+import com.monframework.core.util.Config.FrameworkConfig;
+import com.monframework.core.util.Dispatch.VirtualThreadDispatcher;
+import com.monframework.core.util.FileUpload.ContentAddressedStore;
+import com.monframework.core.util.Finder.ClassFileInfo;
+import com.monframework.core.util.Finder.ClassFileScanner;
+import com.monframework.core.util.Finder.JarScanner;
+import com.monframework.core.util.Finder.ScanConfig;
+import com.monframework.core.util.Finder.ScanReport;
+import com.monframework.core.util.FileUpload.FileUploadHandler;
+import com.monframework.core.util.FileUpload.ResumableUploadHandler;
+import com.monframework.core.util.FileUpload.ResumableUploadStore;
+import com.monframework.core.util.FileUpload.UploadLimiter;
+import com.monframework.core.util.Mapper.RouteIndex;
 import com.monframework.core.util.Mapper.RouteMapping;
+import com.monframework.core.util.Mapper.RouteReloader;
+import com.monframework.core.util.Mapper.RouteTable;
 import com.monframework.core.util.Mapper.ModelView;
+import com.monframework.core.util.Mapper.ParmeterUtil.ParameterResolver;
+import com.monframework.core.util.Metrics.FrameworkEvents;
+import com.monframework.core.util.Metrics.MetricsRegistry;
+import com.monframework.core.util.Metrics.PhaseTimer;
+import com.monframework.core.util.Metrics.PrometheusWriter;
+import com.monframework.core.util.Metrics.RouteMetrics;
+import com.monframework.core.util.Metrics.SlowRequestWatchdog;
+import com.monframework.core.util.SessionStore.CookieSessionCodec;
+import com.monframework.core.util.SessionStore.MappedLogSessionStore;
+import com.monframework.core.util.SessionStore.SessionStore;
+import com.monframework.core.util.Logging.Logger;
 
 
 
-@WebServlet(name = "FrontServlet", urlPatterns = {"/"}, loadOnStartup = 1)
+@WebServlet(name = "FrontServlet", urlPatterns = {"/"}, loadOnStartup = 1, asyncSupported = true)
 @MultipartConfig(
     fileSizeThreshold = 1024 * 1024 * 2,  // 2MB
     maxFileSize = 1024 * 1024 * 10,        // 10MB
@@ -28,49 +68,358 @@ import com.monframework.core.util.Mapper.ModelView;
 )
 public class FrontServlet extends HttpServlet {
 
+    private static final Logger LOG = Logger.get(FrontServlet.class);
+
+    /** Attribut du ServletContext contenant le VirtualThreadDispatcher (mode virtual). */
+    static final String DISPATCHER_ATTRIBUTE = "framework.dispatcher";
+
+    /** Surveillance de WEB-INF/classes (framework.hotReload=true), sinon null. */
+    private RouteReloader routeReloader;
+
+    /** Chemin d'exposition des métriques (framework.metrics.path), null si désactivé. */
+    private String metricsPath;
+
+    /** Chemin d'exposition des piles des requêtes lentes (framework.slowRequest.path), null si désactivé. */
+    private String slowRequestsPath;
+
     @Override
     public void init() throws ServletException {
         super.init();
+        FrameworkConfig config = FrameworkConfig.from(getServletConfig());
+        Logger.configure(config);
+        if ("virtual".equalsIgnoreCase(config.get("framework.dispatchMode", "container"))) {
+            Duration pinningThreshold = Duration.ofMillis(config.getLong("framework.dispatch.pinningThresholdMs", 20));
+            VirtualThreadDispatcher dispatcher = VirtualThreadDispatcher.create(pinningThreshold);
+            if (dispatcher != null) {
+                getServletContext().setAttribute(DISPATCHER_ATTRIBUTE, dispatcher);
+                LOG.info("Dispatch des contrôleurs sur threads virtuels activé");
+            }
+        }
+        long maxInFlightUploads = config.getLong("framework.upload.maxInFlightBytes", 256L * 1024 * 1024);
+        if (maxInFlightUploads > 0) {
+            long maxRequestSize = FrontServlet.class.getAnnotation(MultipartConfig.class).maxRequestSize();
+            getServletContext().setAttribute(UploadLimiter.CONTEXT_ATTRIBUTE, new UploadLimiter(maxInFlightUploads, maxRequestSize));
+        }
+        Object tempDir = getServletContext().getAttribute(ServletContext.TEMPDIR);
+        Path workDir = tempDir instanceof File ? ((File) tempDir).toPath() : Paths.get(System.getProperty("java.io.tmpdir"));
+        String blobDir = config.get("framework.upload.blobStore.dir");
+        if (blobDir != null && !blobDir.isEmpty()) {
+            try {
+                getServletContext().setAttribute(ContentAddressedStore.CONTEXT_ATTRIBUTE,
+                        new ContentAddressedStore(Paths.get(blobDir), BufferPool.shared()));
+            } catch (IOException e) {
+                throw new ServletException("Impossible d'initialiser le store adressé par contenu", e);
+            }
+        }
+        String resumablePath = config.get("framework.upload.resumable.path");
+        if (resumablePath != null && !resumablePath.isEmpty()) {
+            try {
+                Path defaultDir = workDir.resolve("resumable-uploads");
+                ResumableUploadStore store = new ResumableUploadStore(
+                        Paths.get(config.get("framework.upload.resumable.dir", defaultDir.toString())),
+                        config.getLong("framework.upload.resumable.maxLength", 1024L * 1024 * 1024),
+                        config.getLong("framework.upload.resumable.expireHours", 24) * 3600 * 1000);
+                getServletContext().setAttribute(ResumableUploadHandler.CONTEXT_ATTRIBUTE,
+                        new ResumableUploadHandler(resumablePath, store));
+            } catch (IOException e) {
+                throw new ServletException("Impossible d'initialiser le stockage des uploads reprenables", e);
+            }
+        }
+        String sessionStore = config.get("framework.session.store");
+        if (sessionStore != null && !sessionStore.isEmpty()) {
+            getServletContext().setAttribute(SessionStore.CONTEXT_ATTRIBUTE, createSessionStore(sessionStore, config, workDir));
+        }
+        String cookieKeys = config.get("framework.session.cookieKeys");
+        if (cookieKeys != null && !cookieKeys.isEmpty()) {
+            try {
+                getServletContext().setAttribute(CookieSessionCodec.CONTEXT_ATTRIBUTE, CookieSessionCodec.fromConfig(cookieKeys,
+                        config.getBoolean("framework.session.cookieEncrypt", false),
+                        config.getInt("framework.session.cookieMaxBytes", 4000),
+                        config.getLong("framework.session.maxInactiveSeconds", 1800) * 1000));
+            } catch (IllegalArgumentException e) {
+                throw new ServletException("Configuration des sessions cookie invalide", e);
+            }
+        }
+        if (config.getBoolean("framework.accessLog", false)) {
+            try {
+                getServletContext().setAttribute(AccessLogWriter.CONTEXT_ATTRIBUTE, AccessLogWriter.start(
+                        Paths.get(config.get("framework.accessLog.dir", workDir.resolve("access-log").toString())),
+                        config.getLong("framework.accessLog.maxFileBytes", 64L * 1024 * 1024),
+                        config.getInt("framework.accessLog.maxFiles", 10),
+                        config.getInt("framework.accessLog.threadBufferRecords", 1024),
+                        config.getLong("framework.accessLog.flushMs", 200)));
+            } catch (IOException e) {
+                throw new ServletException("Impossible d'ouvrir le journal d'accès", e);
+            }
+        }
+        // Chronométrage des étapes: en-tête Server-Timing (et cumul par route si les métriques sont actives)
+        getServletContext().setAttribute(PhaseTimer.ENABLED_ATTRIBUTE, config.getBoolean("framework.serverTiming", false));
+        if (config.getBoolean("framework.metrics", true)) {
+            if (MetricsRegistry.from(getServletContext()) == null) {
+                getServletContext().setAttribute(MetricsRegistry.CONTEXT_ATTRIBUTE, new MetricsRegistry());
+            }
+            // exposition HTTP sur demande seulement (ex: framework.metrics.path=/__metrics)
+            String path = config.get("framework.metrics.path", "none");
+            metricsPath = path.isEmpty() || "none".equalsIgnoreCase(path) ? null : path;
+        }
+        long slowThreshold = config.getLong("framework.slowRequest.thresholdMs", 0);
+        if (slowThreshold > 0) {
+            getServletContext().setAttribute(SlowRequestWatchdog.CONTEXT_ATTRIBUTE, SlowRequestWatchdog.start(slowThreshold,
+                    config.getLong("framework.slowRequest.sampleMs", 20),
+                    config.getInt("framework.slowRequest.maxStacksPerRoute", 500)));
+            // exposition HTTP sur demande seulement (ex: framework.slowRequest.path=/__slow)
+            String path = config.get("framework.slowRequest.path", "none");
+            slowRequestsPath = path.isEmpty() || "none".equalsIgnoreCase(path) ? null : path;
+        }
+        if (config.getBoolean("framework.nonBlockingIO", false)) {
+            long maxBodyBytes = config.getLong("framework.nonBlockingIO.maxBodyBytes", 10L * 1024 * 1024);
+            getServletContext().setAttribute(NonBlockingIO.CONTEXT_ATTRIBUTE, new NonBlockingIO(BufferPool.shared(), maxBodyBytes,
+                    config.getLong("framework.nonBlockingIO.readTimeoutMs", 30000)));
+        }
+        // Les routes peuvent déjà avoir été collectées par FrameworkInitializer (mode routage natif)
+        if (RouteTable.from(getServletContext()) == null) {
+            try {
+                scanAndCollectRoutes(getServletContext());
+            } catch (Exception e) {
+                throw new ServletException("Erreur lors du scan des contrôleurs et routes", e);
+            }
+        }
+        if (config.getBoolean("framework.hotReload", false)) {
+            String classesDir = getServletContext().getRealPath("WEB-INF/classes");
+            if (classesDir == null) {
+                LOG.warn("Rechargement à chaud impossible, WEB-INF/classes n'est pas sur disque");
+            } else {
+                try {
+                    routeReloader = RouteReloader.start(Paths.get(classesDir), Thread.currentThread().getContextClassLoader(),
+                            RouteTable.from(getServletContext()), ScanConfig.from(config),
+                            config.getLong("framework.hotReload.debounceMs", 300));
+                } catch (IOException e) {
+                    throw new ServletException("Impossible de démarrer le rechargement à chaud des routes", e);
+                }
+            }
+        }
+        Object scanReport = getServletContext().getAttribute(ScanReport.CONTEXT_ATTRIBUTE);
+        if (scanReport != null) {
+            LOG.info(scanReport.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        if (routeReloader != null) {
+            try {
+                routeReloader.close();
+            } catch (IOException e) {
+                LOG.warn("Arrêt du rechargement à chaud: " + e.getMessage());
+            }
+            routeReloader = null;
+        }
+        Object dispatcher = getServletContext().getAttribute(DISPATCHER_ATTRIBUTE);
+        if (dispatcher instanceof VirtualThreadDispatcher) {
+            ((VirtualThreadDispatcher) dispatcher).shutdown();
+            getServletContext().removeAttribute(DISPATCHER_ATTRIBUTE);
+        }
+        Object sessionStore = getServletContext().getAttribute(SessionStore.CONTEXT_ATTRIBUTE);
+        if (sessionStore instanceof SessionStore) {
+            try {
+                ((SessionStore) sessionStore).close();
+            } catch (IOException e) {
+                LOG.warn("Fermeture du store de sessions: " + e.getMessage());
+            }
+            getServletContext().removeAttribute(SessionStore.CONTEXT_ATTRIBUTE);
+        }
+        SlowRequestWatchdog watchdog = SlowRequestWatchdog.from(getServletContext());
+        if (watchdog != null) {
+            watchdog.close();
+            getServletContext().removeAttribute(SlowRequestWatchdog.CONTEXT_ATTRIBUTE);
+        }
+        AccessLogWriter accessLog = AccessLogWriter.from(getServletContext());
+        if (accessLog != null) {
+            accessLog.close();
+            getServletContext().removeAttribute(AccessLogWriter.CONTEXT_ATTRIBUTE);
+        }
+        // en dernier: les étapes précédentes peuvent encore journaliser
+        Logger.shutdown();
+        super.destroy();
+    }
+
+    /**
+     * Crée le store de sessions hors conteneur: "mapped" pour le journal mappé local,
+     * sinon le nom d'une classe implémentant SessionStore (constructeur sans argument).
+     */
+    private static SessionStore createSessionStore(String kind, FrameworkConfig config, Path workDir) throws ServletException {
         try {
-            scanAndCollectRoutes(getServletContext());
+            if ("mapped".equalsIgnoreCase(kind)) {
+                Path file = Paths.get(config.get("framework.session.store.file", workDir.resolve("sessions").resolve("sessions.log").toString()));
+                return new MappedLogSessionStore(file,
+                        config.getLong("framework.session.maxInactiveSeconds", 1800) * 1000,
+                        config.getLong("framework.session.store.compactEverySeconds", 60));
+            }
+            Class<?> storeClass = Class.forName(kind, true, Thread.currentThread().getContextClassLoader());
+            return (SessionStore) storeClass.getDeclaredConstructor().newInstance();
         } catch (Exception e) {
-            throw new ServletException("Erreur lors du scan des contrôleurs et routes", e);
+            throw new ServletException("Impossible d'initialiser le store de sessions '" + kind + "'", e);
         }
     }
     
     private void scanAndCollectRoutes(ServletContext ctx) {
+        List<RouteMapping> routeMappings = collectRoutes(ctx);
+        // Publier la table dans le ServletContext
+        RouteTable.install(ctx, routeMappings);
+    }
+
+    /**
+     * Scanne WEB-INF/classes (ou lit son index de routes) et les jars de WEB-INF/lib,
+     * puis retourne les routes trouvées.
+     * Utilisé aussi par FrameworkInitializer, avant l'initialisation des servlets.
+     */
+    static List<RouteMapping> collectRoutes(ServletContext ctx) {
         try {
-            String real = ctx.getRealPath("WEB-INF/classes");
-            if (real == null) {
-                System.err.println("WARNING: WEB-INF/classes path is null - déploiement non explosé");
-                return;
+            FrameworkConfig config = FrameworkConfig.from(ctx);
+            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+            LOG.debug("Using ClassLoader: " + contextClassLoader.getClass().getName());
+            ScanReport report = new ScanReport();
+            int parallelism = config.getInt("framework.scan.parallelism", Runtime.getRuntime().availableProcessors());
+            ScanConfig scanConfig = ScanConfig.from(config);
+            LOG.debug("Périmètre du scan: " + scanConfig);
+            List<RouteMapping> routeMappings = new ArrayList<>();
+
+            // Index de WEB-INF/classes généré à la compilation (RouteIndexProcessor): pas de scan des classes
+            List<RouteMapping> indexed = null;
+            if (config.getBoolean("framework.routeIndex", true)) {
+                long t0 = System.nanoTime();
+                indexed = RouteIndex.load(ctx, contextClassLoader);
+                if (indexed != null) {
+                    report.phase("lecture de l'index " + RouteIndex.RESOURCE, System.nanoTime() - t0);
+                    LOG.info("Found " + indexed.size() + " route mappings in " + RouteIndex.RESOURCE);
+                    routeMappings.addAll(indexed);
+                }
             }
-            
-            System.out.println("[DEBUG] Scanning for controllers in: " + real);
-            Path classesRoot = Paths.get(real);
 
-            // Utiliser le ClassLoader du contexte de la servlet
-            ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
-            System.out.println("[DEBUG] Using ClassLoader: " + contextClassLoader.getClass().getName());
+            if (indexed == null) {
+                String real = ctx.getRealPath("WEB-INF/classes");
+                if (real != null) {
+                    LOG.debug("Scanning for controllers in: " + real);
+                    // Scanner et collecter les routes via RouteMapping (en parallèle)
+                    routeMappings.addAll(RouteMapping.scanFromClassesRoot(Paths.get(real), contextClassLoader, report, parallelism, scanConfig));
+                } else {
+                    // WAR non explosé: lecture des .class via les ressources du conteneur
+                    LOG.debug("WEB-INF/classes non disponible sur disque, lecture via getResourcePaths");
+                    long t0 = System.nanoTime();
+                    List<String> names = new ArrayList<>();
+                    collectResourceControllers(ctx, "/WEB-INF/classes/", "/WEB-INF/classes/", scanConfig, names, report);
+                    report.phase("lecture des ressources WEB-INF/classes", System.nanoTime() - t0);
+                    routeMappings.addAll(RouteMapping.scanClassNames(names, contextClassLoader, report));
+                }
+            }
 
-            // Scanner et collecter les routes via RouteMapping
-            List<RouteMapping> routeMappings = RouteMapping.scanFromClassesRoot(classesRoot, contextClassLoader);
-            
-            System.out.println("[DEBUG] Found " + routeMappings.size() + " route mappings");
-            for (RouteMapping rm : routeMappings) {
-                System.out.println("[DEBUG]   -> " + rm);
+            // jars de WEB-INF/lib: désactivé par défaut (bibliothèques tierces hors périmètre)
+            if (config.getBoolean("framework.scan.jars", false)) {
+                if (scanConfig.getBasePackages().isEmpty()) {
+                    LOG.warn("framework.scan.jars sans framework.scan.packages: toutes les classes de WEB-INF/lib seront examinées");
+                }
+                routeMappings.addAll(scanLibJars(ctx, scanConfig, contextClassLoader, report, parallelism));
             }
+            routeMappings.sort(RouteMapping.ROUTE_ORDER);
+            report.count("routes", routeMappings.size() - report.getCount("routes"));
+            ctx.setAttribute(ScanReport.CONTEXT_ATTRIBUTE, report);
             
-            // Stocker la liste dans le ServletContext
-            ctx.setAttribute("route.mappings", Collections.unmodifiableList(routeMappings));
+            LOG.info("Found " + routeMappings.size() + " route mappings");
+            if (LOG.isDebugEnabled()) {
+                for (RouteMapping rm : routeMappings) {
+                    LOG.debug("  -> " + rm);
+                }
+            }
+            return routeMappings;
             
         } catch (Exception e) {
-            System.err.println("ERROR during route scanning:");
-            e.printStackTrace();
+            LOG.error("Erreur pendant le scan des routes", e);
             throw new RuntimeException(e);
         }
     }
     
+    /**
+     * Recherche les contrôleurs dans les jars de WEB-INF/lib. Seules les entrées du périmètre
+     * du scan (ScanConfig) sont lues; les jars inchangés depuis le dernier démarrage sont
+     * servis par le cache de TEMPDIR.
+     */
+    private static List<RouteMapping> scanLibJars(ServletContext ctx, ScanConfig scanConfig, ClassLoader loader,
+                                                  ScanReport report, int parallelism) throws IOException {
+        Set<String> jars = ctx.getResourcePaths("/WEB-INF/lib/");
+        if (jars == null || jars.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Path cacheFile = null;
+        Object tempDir = ctx.getAttribute(ServletContext.TEMPDIR);
+        if (tempDir instanceof File) {
+            cacheFile = ((File) tempDir).toPath().resolve("framework-jar-scan.cache");
+        }
+
+        long t0 = System.nanoTime();
+        List<String> names = new ArrayList<>();
+        JarScanner scanner = new JarScanner(cacheFile, scanConfig, parallelism);
+        try {
+            for (String jar : new TreeSet<>(jars)) {
+                if (!jar.endsWith(".jar")) {
+                    continue;
+                }
+                String realJar = ctx.getRealPath(jar);
+                if (realJar != null) {
+                    names.addAll(scanner.scan(Paths.get(realJar), RouteMapping.CONTROLLER_DESCRIPTOR));
+                } else {
+                    try (InputStream in = ctx.getResourceAsStream(jar)) {
+                        if (in != null) {
+                            names.addAll(scanner.scan(in, RouteMapping.CONTROLLER_DESCRIPTOR));
+                        }
+                    }
+                }
+                report.count("jars", 1);
+            }
+        } finally {
+            scanner.close();
+        }
+        report.count("jars en cache", scanner.getCacheHits());
+        report.phase("scan de WEB-INF/lib", System.nanoTime() - t0);
+        return RouteMapping.scanClassNames(names, loader, report);
+    }
+
+    /**
+     * Parcours récursif d'un répertoire de ressources du conteneur (WAR non explosé).
+     * Les répertoires hors du périmètre du scan ne sont pas listés.
+     */
+    private static void collectResourceControllers(ServletContext ctx, String root, String dir, ScanConfig scanConfig,
+                                                   List<String> names, ScanReport report) throws IOException {
+        Set<String> children = ctx.getResourcePaths(dir);
+        if (children == null) {
+            return;
+        }
+        for (String child : new TreeSet<>(children)) {
+            String dotted = child.substring(root.length()).replace('/', '.');
+            if (child.endsWith("/")) {
+                if (scanConfig.visitPackage(dotted.substring(0, dotted.length() - 1))) {
+                    collectResourceControllers(ctx, root, child, scanConfig, names, report);
+                }
+            } else if (child.endsWith(".class") && scanConfig.accepts(dotted.substring(0, dotted.length() - ".class".length()))) {
+                report.count("fichiers .class", 1);
+                try (InputStream in = ctx.getResourceAsStream(child)) {
+                    if (in == null) {
+                        continue;
+                    }
+                    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                    byte[] buffer = new byte[8192];
+                    int n;
+                    while ((n = in.read(buffer)) != -1) {
+                        bytes.write(buffer, 0, n);
+                    }
+                    ClassFileInfo info = ClassFileScanner.parse(ByteBuffer.wrap(bytes.toByteArray()), RouteMapping.CONTROLLER_DESCRIPTOR);
+                    if (info != null && info.hasAnnotation(RouteMapping.CONTROLLER_DESCRIPTOR)) {
+                        names.add(info.getClassName());
+                    }
+                }
+            }
+        }
+    }
+
     @Override
     protected void doGet(HttpServletRequest request, HttpServletResponse response) 
             throws ServletException, IOException {
@@ -95,28 +444,39 @@ public class FrontServlet extends HttpServlet {
         
         String resourcePath = requestURI.substring(contextPath.length());
         
-        // Vérifier d'abord si c'est une ressource statique
-        try {
-            java.net.URL resource = getServletContext().getResource(resourcePath);
-            if (resource != null) {
-                RequestDispatcher defaultServlet = getServletContext().getNamedDispatcher("default");
-                if (defaultServlet != null) {
-                    defaultServlet.forward(request, response);
-                    return;
-                }
-            }
-        } catch (Exception e) {
-            // Continuer si ce n'est pas une ressource statique
+        // Exposition des métriques (format Prometheus)
+        if (metricsPath != null && metricsPath.equals(resourcePath)) {
+            serveMetrics(response);
+            return;
+        }
+        // Piles des requêtes lentes (format folded)
+        if (slowRequestsPath != null && slowRequestsPath.equals(resourcePath)) {
+            serveSlowRequests(response);
+            return;
+        }
+
+        // Protocole d'upload reprenable (POST/HEAD/PATCH/DELETE sous le chemin configuré)
+        Object resumable = getServletContext().getAttribute(ResumableUploadHandler.CONTEXT_ATTRIBUTE);
+        if (resumable instanceof ResumableUploadHandler && ((ResumableUploadHandler) resumable).handles(resourcePath)) {
+            ((ResumableUploadHandler) resumable).service(request, response, resourcePath);
+            return;
         }
         
-        // Récupérer la liste des routes depuis le ServletContext
-        @SuppressWarnings("unchecked")
-        List<RouteMapping> routeMappings = (List<RouteMapping>) getServletContext().getAttribute("route.mappings");
-        
-        if (routeMappings == null) {
-            routeMappings = Collections.emptyList();
+        // Vérifier d'abord si c'est une ressource statique
+        if (forwardStaticResource(getServletContext(), request, response, resourcePath)) {
+            return;
         }
         
+        AccessLogWriter accessLog = AccessLogWriter.from(getServletContext());
+        long requestStart = accessLog != null ? System.nanoTime() : 0L;
+        PhaseTimer timer = PhaseTimer.startIfEnabled(getServletContext(), request);
+        long routeStart = PhaseTimer.mark(timer);
+        Object routeEvent = FrameworkEvents.begin(FrameworkEvents.Kind.ROUTE_MATCH);
+
+        // Instantané de la table des routes (lecture sans verrou, stable pendant la requête)
+        RouteTable routeTable = RouteTable.from(getServletContext());
+        List<RouteMapping> routeMappings = routeTable != null ? routeTable.routes() : Collections.<RouteMapping>emptyList();
+        
         // Récupérer la méthode HTTP de la requête
         String requestMethod = request.getMethod(); // GET, POST, PUT, DELETE, etc.
         
@@ -127,8 +487,7 @@ public class FrontServlet extends HttpServlet {
             java.util.Map<String,String> vars = rm.match(resourcePath);
             if (vars != null) {
                 // L'URL correspond, vérifier la méthode HTTP
-                String routeMethod = rm.getHttpMethod();
-                if (routeMethod == null || routeMethod.isEmpty() || routeMethod.equalsIgnoreCase(requestMethod)) {
+                if (rm.acceptsMethod(requestMethod)) {
                     matchedRoute = rm;
                     pathVars = vars;
                     break;
@@ -136,26 +495,184 @@ public class FrontServlet extends HttpServlet {
             }
         }
         
+        PhaseTimer.record(timer, PhaseTimer.Phase.ROUTE, routeStart);
+        FrameworkEvents.commit(routeEvent, matchedRoute, resourcePath, 0);
+
         if (matchedRoute != null) {
             // Route trouvée ! Afficher les informations
-            showMatchedRoute(request, response, resourcePath, matchedRoute, pathVars);
+            dispatchRoute(getServletContext(), request, response, resourcePath, matchedRoute, pathVars);
         } else {
             // Aucune route trouvée, afficher la page par défaut
             showFrameworkPage(request, response, resourcePath, routeMappings);
+            if (accessLog != null) {
+                // pas de route: le chemin demandé tient lieu de route
+                accessLog.log(requestMethod, resourcePath, response.getStatus(), System.nanoTime() - requestStart,
+                        AccessLogWriter.responseBytes(request, response));
+            }
         }
     }
     
+    /**
+     * Confie la requête à la servlet "default" du conteneur si le chemin désigne une
+     * ressource statique de l'application.
+     *
+     * @return true si la requête a été transmise
+     */
+    static boolean forwardStaticResource(ServletContext ctx, HttpServletRequest request, HttpServletResponse response,
+                                         String resourcePath) throws ServletException, IOException {
+        java.net.URL resource;
+        try {
+            resource = ctx.getResource(resourcePath);
+        } catch (Exception e) {
+            // chemin invalide: ce n'est pas une ressource statique
+            return false;
+        }
+        if (resource == null) {
+            return false;
+        }
+        RequestDispatcher defaultServlet = ctx.getNamedDispatcher("default");
+        if (defaultServlet == null) {
+            return false;
+        }
+        defaultServlet.forward(request, response);
+        return true;
+    }
+
+    /**
+     * Exécute la route. Si les E/S non bloquantes sont actives, le corps de la requête
+     * est d'abord lu sans blocage; la route est ensuite exécutée sur un thread virtuel
+     * si ce mode est actif et que la route ne l'a pas exclu (@CpuBound), sinon
+     * directement sur le thread courant.
+     */
+    static void dispatchRoute(ServletContext ctx, HttpServletRequest request, HttpServletResponse response,
+                              String requestedPath, RouteMapping route, java.util.Map<String,String> pathVars)
+            throws IOException {
+        // Compteurs de la route, clôturés à la fin de la requête (y compris asynchrone)
+        MetricsRegistry registry = MetricsRegistry.from(ctx);
+        final RouteMetrics metrics = registry != null ? registry.forRoute(route) : null;
+        final AccessLogWriter accessLog = AccessLogWriter.from(ctx);
+        final long startNanos = metrics != null ? metrics.begin() : accessLog != null ? System.nanoTime() : 0L;
+        final PhaseTimer timer = PhaseTimer.startIfEnabled(ctx, request);
+
+        // Plafond global des uploads en cours
+        UploadLimiter limiter = (UploadLimiter) ctx.getAttribute(UploadLimiter.CONTEXT_ATTRIBUTE);
+        long reserved = 0;
+        if (limiter != null && FileUploadHandler.isMultipart(request)) {
+            reserved = limiter.reserve(request);
+            if (reserved < 0) {
+                response.setHeader("Retry-After", "1");
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE, "Trop d'uploads en cours");
+                if (metrics != null) {
+                    metrics.end(startNanos, true);
+                }
+                logAccess(accessLog, request, response, route, startNanos);
+                return;
+            }
+        }
+        try {
+            Object nio = ctx.getAttribute(NonBlockingIO.CONTEXT_ATTRIBUTE);
+            if (nio instanceof NonBlockingIO && ((NonBlockingIO) nio).shouldReadBody(request)) {
+                // la route s'exécute après la lecture du corps: son échec est compté à ce moment
+                ((NonBlockingIO) nio).readBodyThen(request, response, buffered -> {
+                    try {
+                        invokeRoute(ctx, buffered, response, requestedPath, route, pathVars);
+                    } catch (Exception e) {
+                        MetricsRegistry.markError(request);
+                        throw e;
+                    }
+                });
+                return;
+            }
+            invokeRoute(ctx, request, response, requestedPath, route, pathVars);
+        } catch (Throwable t) {
+            MetricsRegistry.markError(request);
+            throw t;
+        } finally {
+            final long toRelease = reserved;
+            runAtEndOfRequest(request, () -> {
+                if (limiter != null) {
+                    limiter.release(toRelease);
+                }
+                FileUploadHandler.releaseRequestResources(request);
+                if (metrics != null) {
+                    metrics.end(startNanos, MetricsRegistry.isError(request, response));
+                    if (timer != null) {
+                        metrics.recordPhases(timer);
+                    }
+                }
+                logAccess(accessLog, request, response, route, startNanos);
+            });
+        }
+    }
+
+    private static void logAccess(AccessLogWriter accessLog, HttpServletRequest request, HttpServletResponse response,
+                                  RouteMapping route, long startNanos) {
+        if (accessLog != null) {
+            accessLog.log(request.getMethod(), route.getFullUrl(), response.getStatus(), System.nanoTime() - startNanos,
+                    AccessLogWriter.responseBytes(request, response));
+        }
+    }
+
+    /**
+     * Exécute l'action maintenant, ou à la fin de la requête si elle est passée en mode asynchrone.
+     */
+    static void runAtEndOfRequest(HttpServletRequest request, Runnable action) {
+        if (!request.isAsyncStarted()) {
+            action.run();
+            return;
+        }
+        final AtomicBoolean done = new AtomicBoolean(false);
+        request.getAsyncContext().addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) action.run();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                if (done.compareAndSet(false, true)) action.run();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) { }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) { }
+        });
+    }
+
+    private static void invokeRoute(ServletContext ctx, HttpServletRequest request, HttpServletResponse response,
+                                    String requestedPath, RouteMapping route, java.util.Map<String,String> pathVars)
+            throws IOException {
+        Object attr = ctx.getAttribute(DISPATCHER_ATTRIBUTE);
+        if (attr instanceof VirtualThreadDispatcher) {
+            VirtualThreadDispatcher dispatcher = (VirtualThreadDispatcher) attr;
+            if (dispatcher.accepts(request, route)) {
+                dispatcher.dispatch(request, response,
+                        () -> showMatchedRoute(request, response, requestedPath, route, pathVars));
+                return;
+            }
+        }
+        showMatchedRoute(request, response, requestedPath, route, pathVars);
+    }
+
     /**
      * Utilise ModelView pour effectuer directement le forward.
      */
-    private void showMatchedRoute(HttpServletRequest request, HttpServletResponse response,
+    static void showMatchedRoute(HttpServletRequest request, HttpServletResponse response,
                                   String requestedPath, RouteMapping route, java.util.Map<String,String> pathVars)
             throws IOException {
+        // Inscription auprès du détecteur de requêtes lentes (thread qui exécute le contrôleur)
+        SlowRequestWatchdog watchdog = SlowRequestWatchdog.from(request.getServletContext());
+        SlowRequestWatchdog.InFlight inFlight = watchdog != null ? watchdog.begin(route) : null;
         try {
             // Toujours utiliser ModelView basé sur la route; le contrôleur retourne un String
             ModelView mv = new ModelView(route);
             mv.getView(request, response, pathVars);
+        } catch (ParameterResolver.RequestRejectedException e) {
+            response.sendError(e.getStatus(), e.getMessage());
         } catch (Exception e) {
+            MetricsRegistry.markError(request);
             response.setContentType("text/plain; charset=UTF-8");
             PrintWriter out = response.getWriter();
             out.println("Erreur lors de la résolution de la vue");
@@ -165,11 +682,49 @@ public class FrontServlet extends HttpServlet {
             out.println();
             out.println("Exception: " + e.getClass().getName());
             out.println("Message: " + e.getMessage());
-            System.err.println("Erreur lors de la résolution de la vue pour " + route.getMethodName() + ":");
-            e.printStackTrace();
+            LOG.error("Erreur lors de la résolution de la vue pour " + route.getMethodName(), e);
+        } finally {
+            if (inFlight != null) {
+                if (request.isAsyncStarted()) {
+                    // contrôleur asynchrone: la requête reste en cours jusqu'à la complétion
+                    watchdog.detach(inFlight);
+                    runAtEndOfRequest(request, () -> watchdog.end(inFlight));
+                } else {
+                    watchdog.end(inFlight);
+                }
+            }
         }
     }
     
+    private void serveSlowRequests(HttpServletResponse response) throws IOException {
+        SlowRequestWatchdog watchdog = SlowRequestWatchdog.from(getServletContext());
+        if (watchdog == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        response.setContentType("text/plain; charset=UTF-8");
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(watchdog.toFolded());
+    }
+
+    private void serveMetrics(HttpServletResponse response) throws IOException {
+        MetricsRegistry registry = MetricsRegistry.from(getServletContext());
+        if (registry == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        Object dispatcher = getServletContext().getAttribute(DISPATCHER_ATTRIBUTE);
+        Object limiter = getServletContext().getAttribute(UploadLimiter.CONTEXT_ATTRIBUTE);
+        String body = registry.toPrometheus(
+                dispatcher instanceof VirtualThreadDispatcher ? (VirtualThreadDispatcher) dispatcher : null,
+                limiter instanceof UploadLimiter ? (UploadLimiter) limiter : null,
+                AccessLogWriter.from(getServletContext()),
+                Boolean.TRUE.equals(getServletContext().getAttribute(PhaseTimer.ENABLED_ATTRIBUTE)));
+        response.setContentType(PrometheusWriter.CONTENT_TYPE);
+        response.setHeader("Cache-Control", "no-store");
+        response.getWriter().write(body);
+    }
+
     private void showFrameworkPage(HttpServletRequest request, HttpServletResponse response, 
                                  String requestedPath, List<RouteMapping> routeMappings) 
             throws IOException {
@@ -0,0 +1,101 @@
+package com.monframework.core;
+
+import jakarta.servlet.RequestDispatcher;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import com.monframework.core.util.Mapper.RouteMapping;
+import com.monframework.core.util.Mapper.RouteTable;
+
+/**
+ * Servlet légère enregistrée par FrameworkInitializer pour une URL littérale.
+ * Le mapper du conteneur (mapping exact) choisit directement cette servlet: aucune
+ * recherche de route n'est nécessaire. Comme dans FrontServlet, une ressource statique
+ * de même chemin reste servie en priorité par la servlet "default".
+ * Si aucune route ne correspond à la méthode HTTP, la requête est confiée à FrontServlet.
+ *
+ * Précédence: un mapping exact l'emporte toujours dans le conteneur, donc une route
+ * littérale passe avant une route à variables qui accepterait la même URL, quel que soit
+ * l'ordre des routes dans FrontServlet.
+ *
+ * Les routes de l'URL sont relues dans la {@link RouteTable} à chaque nouvelle version de
+ * la table (rechargement à chaud); la servlet elle-même reste enregistrée pour l'URL.
+ */
+public class RouteServlet extends HttpServlet {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+    private final transient List<RouteMapping> initialRoutes;
+    private transient volatile UrlRoutes current;
+
+    public RouteServlet(String url, List<RouteMapping> routes) {
+        this.url = url;
+        this.initialRoutes = routes;
+    }
+
+    /** Routes de l'URL, filtrées depuis un instantané donné de la table. */
+    private static final class UrlRoutes {
+        final List<RouteMapping> source;
+        final List<RouteMapping> routes;
+
+        UrlRoutes(List<RouteMapping> source, List<RouteMapping> routes) {
+            this.source = source;
+            this.routes = routes;
+        }
+    }
+
+    private List<RouteMapping> currentRoutes() {
+        RouteTable table = RouteTable.from(getServletContext());
+        if (table == null) {
+            return initialRoutes;
+        }
+        List<RouteMapping> snapshot = table.routes();
+        UrlRoutes cached = current;
+        if (cached == null || cached.source != snapshot) {
+            List<RouteMapping> routes = new ArrayList<>();
+            for (RouteMapping rm : snapshot) {
+                if (url.equals(rm.getFullUrl())) {
+                    routes.add(rm);
+                }
+            }
+            cached = new UrlRoutes(snapshot, routes);
+            current = cached;
+        }
+        return cached.routes;
+    }
+
+    @Override
+    protected void service(HttpServletRequest request, HttpServletResponse response)
+            throws ServletException, IOException {
+        request.setCharacterEncoding("UTF-8");
+        response.setCharacterEncoding("UTF-8");
+
+        String resourcePath = request.getRequestURI().substring(request.getContextPath().length());
+        if (FrontServlet.forwardStaticResource(getServletContext(), request, response, resourcePath)) {
+            return;
+        }
+
+        String requestMethod = request.getMethod();
+        for (RouteMapping rm : currentRoutes()) {
+            if (rm.acceptsMethod(requestMethod)) {
+                FrontServlet.dispatchRoute(getServletContext(), request, response, resourcePath, rm, Collections.<String, String>emptyMap());
+                return;
+            }
+        }
+
+        // Méthode non gérée pour cette URL: laisser le routeur du framework décider
+        RequestDispatcher front = getServletContext().getNamedDispatcher("FrontServlet");
+        if (front != null) {
+            front.forward(request, response);
+        } else {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+}
@@ -0,0 +1,361 @@
+package com.monframework.core.processor;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.NoSuchFileException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeMap;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.ArrayType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import com.monframework.core.util.Annotation.ControleurAnnotation;
+import com.monframework.core.util.Annotation.GetRequest;
+import com.monframework.core.util.Annotation.HandleURL;
+import com.monframework.core.util.Annotation.PostRequest;
+
+/**
+ * Processeur d'annotations qui produit, à la compilation de l'application:
+ * <ul>
+ *   <li>l'index des routes {@code META-INF/monframework/routes.idx}, lu par FrontServlet
+ *       au démarrage à la place du scan des classes;</li>
+ *   <li>une classe {@code com.monframework.generated.RouteDispatcher_<hash>} qui instancie
+ *       les contrôleurs et appelle leurs méthodes directement, sans réflexion.</li>
+ * </ul>
+ * Il n'est pas déclaré dans META-INF/services: l'application l'active explicitement, avec
+ * {@code javac -processor com.monframework.core.processor.RouteIndexProcessor} ou, avec Maven,
+ * dans la configuration du maven-compiler-plugin:
+ * <pre>
+ * &lt;annotationProcessorPaths&gt;
+ *   &lt;path&gt;
+ *     &lt;groupId&gt;com.monframework&lt;/groupId&gt;
+ *     &lt;artifactId&gt;mon-framework&lt;/artifactId&gt;
+ *     &lt;version&gt;1.0-SNAPSHOT&lt;/version&gt;
+ *   &lt;/path&gt;
+ * &lt;/annotationProcessorPaths&gt;
+ * </pre>
+ * Seul l'index produit dans WEB-INF/classes est lu au démarrage (voir RouteIndex).
+ *
+ * Format de l'index: une route par ligne, champs séparés par des tabulations
+ * (classe, valeur du contrôleur, URL, méthode Java, méthode HTTP ou *, dispatcher généré
+ * de la classe ou -).
+ *
+ * Compilation incrémentale: l'index existant est relu et seules les lignes des classes
+ * compilées cette fois sont remplacées. Les autres classes gardent le dispatcher de la
+ * compilation qui les a produites; un contrôleur supprimé depuis est ignoré au chargement.
+ */
+public class RouteIndexProcessor extends AbstractProcessor {
+
+    public static final String INDEX_RESOURCE = "META-INF/monframework/routes.idx";
+    public static final String DISPATCHER_PACKAGE = "com.monframework.generated";
+
+    /** Lignes de l'index triées par classe puis méthode, comme le scan à l'exécution. */
+    private final TreeMap<String, List<String>> routesByClass = new TreeMap<>();
+    /** Appels directs générés, par signature. */
+    private final TreeMap<String, String> invocations = new TreeMap<>();
+    private final Set<String> instantiable = new LinkedHashSet<>();
+    private final Set<Element> originating = new HashSet<>();
+    /** Classes de premier niveau compilées cette fois: leurs lignes de l'ancien index sont remplacées. */
+    private final Set<String> compiled = new HashSet<>();
+    /** Classes prises en charge par le dispatcher généré. */
+    private final Set<String> dispatched = new HashSet<>();
+    private String dispatcherName;
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        // appelé même sans contrôleur à compiler: une classe recompilée qui n'en est plus un
+        // doit disparaître de l'index
+        return Collections.singleton("*");
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        for (TypeElement type : ElementFilter.typesIn(roundEnv.getRootElements())) {
+            compiled.add(processingEnv.getElementUtils().getBinaryName(type).toString());
+        }
+        for (Element element : roundEnv.getElementsAnnotatedWith(ControleurAnnotation.class)) {
+            if (element.getKind() == ElementKind.CLASS) {
+                collect((TypeElement) element);
+            }
+        }
+        try {
+            // Le dispatcher est généré dès le premier tour pour être compilé avec l'application;
+            // les contrôleurs produits par d'autres processeurs aux tours suivants sont indexés
+            // mais appelés par réflexion.
+            if (dispatcherName == null && !routesByClass.isEmpty() && !roundEnv.processingOver()) {
+                dispatcherName = writeDispatcher();
+                dispatched.addAll(routesByClass.keySet());
+            }
+            if (roundEnv.processingOver() && !compiled.isEmpty()) {
+                writeIndex();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Impossible de générer l'index des routes: " + e.getMessage());
+        }
+        // les annotations restent visibles pour d'autres processeurs
+        return false;
+    }
+
+    private void collect(TypeElement controller) {
+        String className = processingEnv.getElementUtils().getBinaryName(controller).toString();
+        if (routesByClass.containsKey(className)) {
+            return;
+        }
+        originating.add(controller);
+        String controllerValue = controller.getAnnotation(ControleurAnnotation.class).value();
+        boolean accessible = controller.getModifiers().contains(Modifier.PUBLIC)
+                && !controller.getModifiers().contains(Modifier.ABSTRACT)
+                && (controller.getNestingKind().isNested() ? controller.getModifiers().contains(Modifier.STATIC) : true);
+        if (accessible && hasPublicNoArgConstructor(controller)) {
+            instantiable.add(className);
+        }
+
+        List<String> lines = new ArrayList<>();
+        for (ExecutableElement method : ElementFilter.methodsIn(controller.getEnclosedElements())) {
+            // même priorité qu'à l'exécution: @HandleURL, puis @PostRequest, puis @GetRequest
+            String url = null;
+            String httpMethod = null;
+            GetRequest get = method.getAnnotation(GetRequest.class);
+            if (get != null) {
+                url = get.value();
+                httpMethod = "GET";
+            }
+            PostRequest post = method.getAnnotation(PostRequest.class);
+            if (post != null) {
+                url = post.value();
+                httpMethod = "POST";
+            }
+            HandleURL handle = method.getAnnotation(HandleURL.class);
+            if (handle != null) {
+                url = handle.value();
+                if (handle.method() != null && !handle.method().isEmpty()) {
+                    httpMethod = handle.method().toUpperCase();
+                }
+            }
+            if (url == null) {
+                continue;
+            }
+            String methodName = method.getSimpleName().toString();
+            lines.add(className + "\t" + controllerValue + "\t" + url + "\t" + methodName + "\t"
+                    + (httpMethod == null ? "*" : httpMethod) + "\t");
+            if (accessible && method.getModifiers().contains(Modifier.PUBLIC)
+                    && !method.getModifiers().contains(Modifier.STATIC)) {
+                addInvocation(controller, className, method);
+            }
+        }
+        Collections.sort(lines);
+        routesByClass.put(className, lines);
+    }
+
+    private void addInvocation(TypeElement controller, String className, ExecutableElement method) {
+        StringBuilder signature = new StringBuilder(className).append('#').append(method.getSimpleName()).append('(');
+        StringBuilder call = new StringBuilder();
+        List<? extends VariableElement> params = method.getParameters();
+        for (int i = 0; i < params.size(); i++) {
+            TypeMirror type = processingEnv.getTypeUtils().erasure(params.get(i).asType());
+            if (i > 0) {
+                signature.append(',');
+                call.append(", ");
+            }
+            signature.append(runtimeName(type));
+            call.append('(').append(castType(type)).append(") args[").append(i).append(']');
+        }
+        signature.append(')');
+        String target = "((" + controller.getQualifiedName() + ") controller)." + method.getSimpleName() + "(" + call + ")";
+        String body = method.getReturnType().getKind() == TypeKind.VOID
+                ? target + ";\n                return null;"
+                : "return " + target + ";";
+        invocations.put(signature.toString(), body);
+    }
+
+    private static boolean hasPublicNoArgConstructor(TypeElement type) {
+        List<ExecutableElement> constructors = ElementFilter.constructorsIn(type.getEnclosedElements());
+        for (ExecutableElement constructor : constructors) {
+            if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Nom du type tel que retourné par Class.getName() à l'exécution.
+     */
+    private String runtimeName(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return type.getKind().name().toLowerCase();
+        }
+        if (type.getKind() == TypeKind.ARRAY) {
+            return "[" + descriptor(((ArrayType) type).getComponentType());
+        }
+        return processingEnv.getElementUtils()
+                .getBinaryName((TypeElement) processingEnv.getTypeUtils().asElement(type)).toString();
+    }
+
+    private String descriptor(TypeMirror type) {
+        switch (type.getKind()) {
+            case BOOLEAN: return "Z";
+            case BYTE: return "B";
+            case CHAR: return "C";
+            case SHORT: return "S";
+            case INT: return "I";
+            case LONG: return "J";
+            case FLOAT: return "F";
+            case DOUBLE: return "D";
+            case ARRAY: return "[" + descriptor(((ArrayType) type).getComponentType());
+            default: return "L" + runtimeName(type) + ";";
+        }
+    }
+
+    /**
+     * Type à utiliser dans le cast de l'argument (type enveloppe pour les primitifs).
+     */
+    private String castType(TypeMirror type) {
+        if (type.getKind().isPrimitive()) {
+            return processingEnv.getTypeUtils().boxedClass((javax.lang.model.type.PrimitiveType) type).getQualifiedName().toString();
+        }
+        return type.toString();
+    }
+
+    private String writeDispatcher() throws IOException {
+        String simpleName = "RouteDispatcher_" + Integer.toHexString(routesByClass.keySet().toString().hashCode());
+        String qualifiedName = DISPATCHER_PACKAGE + "." + simpleName;
+        try (Writer out = processingEnv.getFiler()
+                .createSourceFile(qualifiedName, originating.toArray(new Element[0])).openWriter()) {
+            out.write("package " + DISPATCHER_PACKAGE + ";\n\n");
+            out.write("/** Généré par RouteIndexProcessor - ne pas modifier. */\n");
+            out.write("@SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+            out.write("public final class " + simpleName + " implements com.monframework.core.util.Mapper.GeneratedDispatcher {\n\n");
+            out.write("    @Override\n");
+            out.write("    public Object newController(String className) {\n");
+            out.write("        switch (className) {\n");
+            for (String className : instantiable) {
+                out.write("            case \"" + className + "\":\n");
+                out.write("                return new " + canonical(className) + "();\n");
+            }
+            out.write("            default:\n");
+            out.write("                return null;\n");
+            out.write("        }\n");
+            out.write("    }\n\n");
+            out.write("    @Override\n");
+            out.write("    public Object invoke(String signature, Object controller, Object[] args) throws Exception {\n");
+            out.write("        switch (signature) {\n");
+            for (java.util.Map.Entry<String, String> e : invocations.entrySet()) {
+                out.write("            case \"" + e.getKey() + "\":\n");
+                out.write("                " + e.getValue() + "\n");
+            }
+            out.write("            default:\n");
+            out.write("                return NOT_HANDLED;\n");
+            out.write("        }\n");
+            out.write("    }\n");
+            out.write("}\n");
+        }
+        return qualifiedName;
+    }
+
+    private String canonical(String binaryName) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.'));
+        return type != null ? type.getQualifiedName().toString() : binaryName.replace('$', '.');
+    }
+
+    private void writeIndex() throws IOException {
+        TreeMap<String, List<String>> merged = readPreviousIndex();
+        if (merged == null) {
+            if (routesByClass.isEmpty()) {
+                return;
+            }
+            merged = new TreeMap<>();
+        }
+        merged.putAll(routesByClass);
+        FileObject resource = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE,
+                originating.toArray(new Element[0]));
+        try (Writer out = resource.openWriter()) {
+            for (java.util.Map.Entry<String, List<String>> e : merged.entrySet()) {
+                // les lignes relues portent déjà leur dispatcher
+                boolean current = routesByClass.containsKey(e.getKey());
+                String dispatcher = dispatcherName != null && dispatched.contains(e.getKey()) ? dispatcherName : "-";
+                for (String line : e.getValue()) {
+                    out.write(current ? line + dispatcher : line);
+                    out.write('\n');
+                }
+            }
+        }
+    }
+
+    /**
+     * Lignes de l'index précédent pour les classes non compilées cette fois, par classe.
+     * Une classe de la compilation courante n'y figure pas: ses routes viennent de routesByClass.
+     *
+     * @return null s'il n'y a pas d'index précédent
+     */
+    private TreeMap<String, List<String>> readPreviousIndex() {
+        TreeMap<String, List<String>> previous = new TreeMap<>();
+        FileObject existing;
+        try {
+            existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_RESOURCE);
+        } catch (IOException | IllegalArgumentException e) {
+            return null;
+        }
+        try (Reader reader = existing.openReader(true); BufferedReader in = new BufferedReader(reader)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String className = line.substring(0, Math.max(line.indexOf('\t'), 0));
+                if (line.split("\t", -1).length == 5) {
+                    line += "\t-"; // index d'une version précédente, sans dispatcher par classe
+                }
+                int nested = className.indexOf('$');
+                if (compiled.contains(nested < 0 ? className : className.substring(0, nested))
+                        || !stillController(className)) {
+                    continue;
+                }
+                previous.computeIfAbsent(className, k -> new ArrayList<>()).add(line);
+            }
+        } catch (FileNotFoundException | NoSuchFileException e) {
+            return null; // première compilation
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "Index des routes précédent illisible, seules les classes compilées sont indexées: " + e.getMessage());
+        }
+        return previous;
+    }
+
+    /**
+     * @return false si la classe est connue du compilateur mais n'est plus un contrôleur;
+     *         true si elle l'est encore, ou si elle est introuvable (vérifiée au chargement)
+     */
+    private boolean stillController(String className) {
+        TypeElement type = processingEnv.getElementUtils().getTypeElement(className.replace('$', '.'));
+        return type == null || type.getAnnotation(ControleurAnnotation.class) != null;
+    }
+}
@@ -0,0 +1,140 @@
+package com.monframework.core.util.AccessLog;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Format binaire du journal d'accès: un en-tête puis des enregistrements de taille fixe.
+ *
+ * En-tête (64 octets): magic, version, taille d'un enregistrement, date de création,
+ * nombre d'enregistrements écrits (mis à jour après chaque lot: seuls ceux-là sont valides).
+ *
+ * Enregistrement (128 octets):
+ *   0   long   début de la requête (epoch ms)
+ *   8   long   durée (ns)
+ *   16  long   octets de réponse (-1 si inconnu)
+ *   24  short  statut HTTP
+ *   26  byte   longueur de la méthode, puis la méthode (ASCII, 7 octets max)
+ *   34  byte   longueur de la route, puis la route (UTF-8, 93 octets max, tronquée)
+ */
+public final class AccessLogFormat {
+
+    public static final int MAGIC = 0x4657414C; // "FWAL"
+    public static final int VERSION = 1;
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 128;
+
+    static final int H_MAGIC = 0;
+    static final int H_VERSION = 4;
+    static final int H_RECORD_SIZE = 8;
+    static final int H_CREATED = 16;
+    static final int H_COUNT = 24;
+
+    private static final int R_START = 0;
+    private static final int R_DURATION = 8;
+    private static final int R_BYTES = 16;
+    private static final int R_STATUS = 24;
+    private static final int R_METHOD = 26;
+    private static final int METHOD_MAX = 7;
+    private static final int R_ROUTE = 34;
+    private static final int ROUTE_MAX = RECORD_SIZE - R_ROUTE - 1;
+
+    private AccessLogFormat() {
+    }
+
+    /**
+     * Écrit un enregistrement à la position absolue offset (sans allocation pour une route ASCII).
+     */
+    static void encode(ByteBuffer buffer, int offset, long startMillis, long durationNanos, long bytes,
+                       int status, String method, String route) {
+        buffer.putLong(offset + R_START, startMillis);
+        buffer.putLong(offset + R_DURATION, durationNanos);
+        buffer.putLong(offset + R_BYTES, bytes);
+        buffer.putShort(offset + R_STATUS, (short) status);
+        putAscii(buffer, offset + R_METHOD, method, METHOD_MAX);
+        putUtf8(buffer, offset + R_ROUTE, route, ROUTE_MAX);
+    }
+
+    private static void putAscii(ByteBuffer buffer, int offset, String value, int max) {
+        int length = Math.min(value.length(), max);
+        buffer.put(offset, (byte) length);
+        for (int i = 0; i < length; i++) {
+            char c = value.charAt(i);
+            buffer.put(offset + 1 + i, (byte) (c < 0x80 ? c : '?'));
+        }
+    }
+
+    private static void putUtf8(ByteBuffer buffer, int offset, String value, int max) {
+        int length = 0;
+        int n = value.length();
+        int i = 0;
+        while (i < n && length < max) {
+            char c = value.charAt(i);
+            if (c >= 0x80) {
+                break;
+            }
+            buffer.put(offset + 1 + length++, (byte) c);
+            i++;
+        }
+        if (i < n && length < max) {
+            // reste non ASCII: encodage complet, tronqué sans couper un caractère
+            byte[] rest = value.substring(i).getBytes(StandardCharsets.UTF_8);
+            int count = Math.min(rest.length, max - length);
+            while (count > 0 && count < rest.length && (rest[count] & 0xC0) == 0x80) {
+                count--;
+            }
+            for (int j = 0; j < count; j++) {
+                buffer.put(offset + 1 + length++, rest[j]);
+            }
+        }
+        buffer.put(offset, (byte) length);
+    }
+
+    /**
+     * Lit l'enregistrement à la position absolue offset.
+     */
+    public static Entry decode(ByteBuffer buffer, int offset) {
+        int methodLength = buffer.get(offset + R_METHOD) & 0xFF;
+        int routeLength = buffer.get(offset + R_ROUTE) & 0xFF;
+        return new Entry(buffer.getLong(offset + R_START), buffer.getLong(offset + R_DURATION),
+                buffer.getLong(offset + R_BYTES), buffer.getShort(offset + R_STATUS) & 0xFFFF,
+                string(buffer, offset + R_METHOD + 1, Math.min(methodLength, METHOD_MAX)),
+                string(buffer, offset + R_ROUTE + 1, Math.min(routeLength, ROUTE_MAX)));
+    }
+
+    private static String string(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buffer.get(offset + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Enregistrement décodé.
+     */
+    public static final class Entry {
+        private final long startMillis;
+        private final long durationNanos;
+        private final long bytes;
+        private final int status;
+        private final String method;
+        private final String route;
+
+        Entry(long startMillis, long durationNanos, long bytes, int status, String method, String route) {
+            this.startMillis = startMillis;
+            this.durationNanos = durationNanos;
+            this.bytes = bytes;
+            this.status = status;
+            this.method = method;
+            this.route = route;
+        }
+
+        public long getStartMillis() { return startMillis; }
+        public long getDurationNanos() { return durationNanos; }
+        public long getBytes() { return bytes; }
+        public int getStatus() { return status; }
+        public String getMethod() { return method; }
+        public String getRoute() { return route; }
+    }
+}
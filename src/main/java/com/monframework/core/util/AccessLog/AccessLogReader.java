@@ -0,0 +1,98 @@
+package com.monframework.core.util.AccessLog;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Conversion du journal d'accès binaire en texte, une ligne par requête:
+ * <pre>
+ * 2026-10-18T20:16:31.557Z GET /users/{id} 200 1.234ms 512
+ * </pre>
+ * (début, méthode, route, statut, durée, octets ou - si inconnu).
+ *
+ * Usage: {@code java -cp <classpath> com.monframework.core.util.AccessLog.AccessLogReader <fichier|répertoire>...}
+ * Un répertoire est lu fichier par fichier, du plus ancien au plus récent. Le fichier en
+ * cours d'écriture peut être lu: seuls les enregistrements déjà comptés dans l'en-tête sont rendus.
+ */
+public final class AccessLogReader {
+
+    private AccessLogReader() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: AccessLogReader <fichier|répertoire>...");
+            System.exit(2);
+        }
+        List<Path> files = new ArrayList<>();
+        for (String arg : args) {
+            Path path = Paths.get(arg);
+            if (Files.isDirectory(path)) {
+                files.addAll(AccessLogWriter.listFiles(path));
+            } else {
+                files.add(path);
+            }
+        }
+        Writer out = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 64 * 1024);
+        for (Path file : files) {
+            try {
+                write(file, out);
+            } catch (IOException e) {
+                out.flush();
+                System.err.println(file + ": " + e.getMessage());
+            }
+        }
+        out.flush();
+    }
+
+    /**
+     * Écrit en texte les enregistrements valides d'un fichier.
+     *
+     * @return le nombre d'enregistrements écrits
+     */
+    public static long write(Path file, Writer out) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (map.capacity() < AccessLogFormat.HEADER_SIZE
+                    || map.getInt(AccessLogFormat.H_MAGIC) != AccessLogFormat.MAGIC
+                    || map.getInt(AccessLogFormat.H_VERSION) != AccessLogFormat.VERSION
+                    || map.getInt(AccessLogFormat.H_RECORD_SIZE) != AccessLogFormat.RECORD_SIZE) {
+                throw new IOException("pas un journal d'accès (version " + AccessLogFormat.VERSION + ")");
+            }
+            long capacity = (map.capacity() - AccessLogFormat.HEADER_SIZE) / AccessLogFormat.RECORD_SIZE;
+            long count = Math.min(map.getLong(AccessLogFormat.H_COUNT), capacity);
+            StringBuilder line = new StringBuilder(160);
+            for (long i = 0; i < count; i++) {
+                AccessLogFormat.Entry entry = AccessLogFormat.decode(map,
+                        (int) (AccessLogFormat.HEADER_SIZE + i * AccessLogFormat.RECORD_SIZE));
+                line.setLength(0);
+                format(entry, line);
+                out.append(line);
+            }
+            return count;
+        }
+    }
+
+    static void format(AccessLogFormat.Entry entry, StringBuilder line) {
+        line.append(Instant.ofEpochMilli(entry.getStartMillis())).append(' ')
+            .append(entry.getMethod()).append(' ')
+            .append(entry.getRoute()).append(' ')
+            .append(entry.getStatus()).append(' ')
+            .append(String.format(Locale.ROOT, "%.3f", entry.getDurationNanos() / 1e6)).append("ms ")
+            .append(entry.getBytes() >= 0 ? Long.toString(entry.getBytes()) : "-")
+            .append('\n');
+    }
+}
@@ -0,0 +1,365 @@
+package com.monframework.core.util.AccessLog;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Journal d'accès binaire (context-param framework.accessLog=true).
+ *
+ * Le thread de la requête encode un enregistrement de taille fixe dans son propre anneau
+ * (ThreadBuffer), sans verrou ni E/S. Un thread de vidage copie périodiquement tous les
+ * anneaux dans un fichier mappé en mémoire, puis met à jour le nombre d'enregistrements
+ * de l'en-tête. Quand le fichier est plein, un nouveau est créé et les plus anciens
+ * au-delà de maxFiles sont supprimés. Anneau plein: l'enregistrement est compté puis
+ * abandonné, la requête n'attend jamais.
+ *
+ * Les threads virtuels, trop nombreux pour avoir chacun un anneau, se partagent quelques
+ * anneaux protégés par un drapeau (essai sans attente).
+ *
+ * Seule la liste du journal retient les anneaux: le ThreadLocal d'un thread du conteneur
+ * n'en garde qu'une référence faible (classe du JDK). Après {@link #close()}, la liste est
+ * vidée et les threads du pool ne retiennent plus rien du ClassLoader de l'application.
+ *
+ * Fichiers: {@code access-yyyyMMdd-HHmmss-SSS.bin}, lisibles avec {@link AccessLogReader}.
+ */
+public final class AccessLogWriter implements Closeable {
+
+    private static final Logger LOG = Logger.get(AccessLogWriter.class);
+
+    /** Attribut du ServletContext contenant le journal. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.accessLog";
+
+    /** Attribut de requête (Long): taille du corps écrit, quand elle est connue sans Content-Length. */
+    public static final String BYTES_ATTRIBUTE = "framework.accessLog.bytes";
+
+    static final String FILE_PREFIX = "access-";
+    static final String FILE_SUFFIX = ".bin";
+
+    private static final int SHARED_BUFFERS = 8;
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+    private static final int FILE_TIME_LENGTH = "yyyyMMdd-HHmmss-SSS".length();
+    private static final MethodHandle IS_VIRTUAL = isVirtualHandle();
+
+    private final Path dir;
+    private final int recordsPerFile;
+    private final int maxFiles;
+    private final int bufferRecords;
+    private final long flushNanos;
+
+    private final CopyOnWriteArrayList<ThreadBuffer> buffers = new CopyOnWriteArrayList<>();
+    private final ThreadLocal<WeakReference<ThreadBuffer>> localBuffer = new ThreadLocal<>();
+    private final ThreadBuffer[] shared;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread drainer;
+    private volatile boolean running = true;
+    private volatile long written;
+
+    // état du thread de vidage
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private int count;
+
+    /**
+     * @param dir           répertoire des fichiers (créé si absent)
+     * @param maxFileBytes  taille d'un fichier avant rotation
+     * @param maxFiles      nombre de fichiers conservés
+     * @param bufferRecords capacité de l'anneau de chaque thread
+     * @param flushMillis   période de vidage des anneaux
+     */
+    public static AccessLogWriter start(Path dir, long maxFileBytes, int maxFiles, int bufferRecords, long flushMillis)
+            throws IOException {
+        AccessLogWriter writer = new AccessLogWriter(dir, maxFileBytes, maxFiles, bufferRecords, flushMillis);
+        writer.openSegment();
+        writer.drainer.start();
+        return writer;
+    }
+
+    private AccessLogWriter(Path dir, long maxFileBytes, int maxFiles, int bufferRecords, long flushMillis) throws IOException {
+        this.dir = dir.toAbsolutePath();
+        long size = Math.min(Math.max(maxFileBytes, AccessLogFormat.HEADER_SIZE + AccessLogFormat.RECORD_SIZE), Integer.MAX_VALUE);
+        this.recordsPerFile = (int) ((size - AccessLogFormat.HEADER_SIZE) / AccessLogFormat.RECORD_SIZE);
+        this.maxFiles = Math.max(1, maxFiles);
+        this.bufferRecords = Math.max(16, bufferRecords);
+        this.flushNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushMillis));
+        this.shared = new ThreadBuffer[SHARED_BUFFERS];
+        for (int i = 0; i < SHARED_BUFFERS; i++) {
+            shared[i] = new ThreadBuffer(this.bufferRecords, null);
+            buffers.add(shared[i]);
+        }
+        Files.createDirectories(this.dir);
+        this.drainer = new Thread(this::drainLoop, "framework-access-log");
+        drainer.setDaemon(true);
+    }
+
+    /**
+     * @return le journal du contexte, ou null s'il est désactivé
+     */
+    public static AccessLogWriter from(ServletContext ctx) {
+        Object writer = ctx.getAttribute(CONTEXT_ATTRIBUTE);
+        return writer instanceof AccessLogWriter ? (AccessLogWriter) writer : null;
+    }
+
+    /**
+     * Enregistre une requête terminée. Ne bloque pas et ne fait aucune E/S.
+     */
+    public void log(String method, String route, int status, long durationNanos, long bytes) {
+        if (!running) {
+            dropped.increment();
+            return;
+        }
+        long startMillis = System.currentTimeMillis() - TimeUnit.NANOSECONDS.toMillis(durationNanos);
+        Thread current = Thread.currentThread();
+        if (!isVirtual(current)) {
+            if (!localBuffer().offer(startMillis, durationNanos, bytes, status, method, route)) {
+                dropped.increment();
+            }
+            return;
+        }
+        int start = (int) current.getId();
+        for (int i = 0; i < SHARED_BUFFERS; i++) {
+            ThreadBuffer buffer = shared[(start + i) & (SHARED_BUFFERS - 1)];
+            if (buffer.busy.compareAndSet(false, true)) {
+                try {
+                    if (buffer.offer(startMillis, durationNanos, bytes, status, method, route)) {
+                        return;
+                    }
+                } finally {
+                    buffer.busy.set(false);
+                }
+            }
+        }
+        dropped.increment();
+    }
+
+    /**
+     * Taille du corps de la réponse: attribut posé par le framework, sinon Content-Length, sinon -1.
+     */
+    public static long responseBytes(HttpServletRequest request, HttpServletResponse response) {
+        Object bytes = request.getAttribute(BYTES_ATTRIBUTE);
+        if (bytes instanceof Long) {
+            return (Long) bytes;
+        }
+        String length = response.getHeader("Content-Length");
+        if (length != null) {
+            try {
+                return Long.parseLong(length.trim());
+            } catch (NumberFormatException e) {
+                return -1;
+            }
+        }
+        return -1;
+    }
+
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public long getWrittenCount() {
+        return written;
+    }
+
+    /**
+     * Écrit les enregistrements en attente, ferme le fichier courant et libère les anneaux.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        // les références faibles restées dans les ThreadLocal des autres threads deviennent vides
+        buffers.clear();
+        localBuffer.remove();
+    }
+
+    private ThreadBuffer localBuffer() {
+        WeakReference<ThreadBuffer> ref = localBuffer.get();
+        ThreadBuffer buffer = ref != null ? ref.get() : null;
+        if (buffer == null) {
+            buffer = new ThreadBuffer(bufferRecords, Thread.currentThread());
+            buffers.add(buffer);
+            localBuffer.set(new WeakReference<>(buffer));
+        }
+        return buffer;
+    }
+
+    private void drainLoop() {
+        while (true) {
+            boolean stopping = !running;
+            try {
+                drainAll();
+            } catch (IOException | RuntimeException e) {
+                // les anneaux se remplissent puis abandonnent: nouvel essai au prochain tour
+                LOG.warn("Écriture du journal d'accès impossible: " + e.getMessage());
+            }
+            if (stopping) {
+                break;
+            }
+            LockSupport.parkNanos(this, flushNanos);
+        }
+        closeSegment();
+    }
+
+    private void drainAll() throws IOException {
+        if (map == null) {
+            openSegment();
+        }
+        int before = count;
+        for (ThreadBuffer buffer : buffers) {
+            while (!buffer.isEmpty()) {
+                if (count == recordsPerFile) {
+                    rotate();
+                }
+                map.position(AccessLogFormat.HEADER_SIZE + count * AccessLogFormat.RECORD_SIZE);
+                int drained = buffer.drainTo(map, recordsPerFile - count);
+                count += drained;
+                written += drained;
+            }
+            if (buffer.isOrphan() && buffer.isEmpty()) {
+                buffers.remove(buffer);
+            }
+        }
+        if (count != before) {
+            map.putLong(AccessLogFormat.H_COUNT, count);
+        }
+    }
+
+    private void rotate() throws IOException {
+        closeSegment();
+        openSegment();
+        pruneOldFiles();
+    }
+
+    private void openSegment() throws IOException {
+        String stamp = FILE_TIME.format(LocalDateTime.now());
+        Path file = dir.resolve(FILE_PREFIX + stamp + FILE_SUFFIX);
+        for (int i = 1; ; i++) {
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+                break;
+            } catch (FileAlreadyExistsException e) {
+                file = dir.resolve(FILE_PREFIX + stamp + "-" + i + FILE_SUFFIX);
+            }
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                AccessLogFormat.HEADER_SIZE + (long) recordsPerFile * AccessLogFormat.RECORD_SIZE);
+        map.putInt(AccessLogFormat.H_MAGIC, AccessLogFormat.MAGIC);
+        map.putInt(AccessLogFormat.H_VERSION, AccessLogFormat.VERSION);
+        map.putInt(AccessLogFormat.H_RECORD_SIZE, AccessLogFormat.RECORD_SIZE);
+        map.putLong(AccessLogFormat.H_CREATED, System.currentTimeMillis());
+        map.putLong(AccessLogFormat.H_COUNT, 0);
+        count = 0;
+    }
+
+    private void closeSegment() {
+        if (map == null) {
+            return;
+        }
+        try {
+            map.putLong(AccessLogFormat.H_COUNT, count);
+            map.force();
+            channel.close();
+        } catch (IOException | RuntimeException e) {
+            LOG.warn("Fermeture du journal d'accès: " + e.getMessage());
+        }
+        map = null;
+        channel = null;
+    }
+
+    private void pruneOldFiles() {
+        List<Path> files = listFiles(dir);
+        for (int i = 0; i < files.size() - maxFiles; i++) {
+            try {
+                Files.deleteIfExists(files.get(i));
+            } catch (IOException e) {
+                LOG.warn("Suppression de l'ancien journal d'accès " + files.get(i) + " impossible: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Fichiers du journal triés du plus ancien au plus récent: par horodatage, puis par
+     * numéro de collision (access-&lt;date&gt;.bin avant access-&lt;date&gt;-1.bin, que l'ordre
+     * alphabétique inverserait).
+     */
+    static List<Path> listFiles(Path dir) {
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, FILE_PREFIX + "*" + FILE_SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        } catch (IOException e) {
+            LOG.warn("Lecture du répertoire " + dir + " impossible: " + e.getMessage());
+        }
+        files.sort(Comparator.comparing(AccessLogWriter::fileStamp).thenComparingInt(AccessLogWriter::fileSequence));
+        return files;
+    }
+
+    private static String fileStamp(Path file) {
+        String name = file.getFileName().toString();
+        int end = Math.min(FILE_PREFIX.length() + FILE_TIME_LENGTH, name.length() - FILE_SUFFIX.length());
+        return name.substring(0, Math.max(end, 0));
+    }
+
+    private static int fileSequence(Path file) {
+        String name = file.getFileName().toString();
+        int start = FILE_PREFIX.length() + FILE_TIME_LENGTH;
+        int end = name.length() - FILE_SUFFIX.length();
+        if (start >= end || name.charAt(start) != '-') {
+            return 0;
+        }
+        try {
+            return Integer.parseInt(name.substring(start + 1, end));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+
+    private static boolean isVirtual(Thread thread) {
+        if (IS_VIRTUAL == null) {
+            return false;
+        }
+        try {
+            return (boolean) IS_VIRTUAL.invokeExact(thread);
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    private static MethodHandle isVirtualHandle() {
+        try {
+            return MethodHandles.publicLookup().findVirtual(Thread.class, "isVirtual", MethodType.methodType(boolean.class));
+        } catch (ReflectiveOperationException e) {
+            return null; // JDK < 21
+        }
+    }
+}
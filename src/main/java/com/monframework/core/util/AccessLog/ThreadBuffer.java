@@ -0,0 +1,90 @@
+package com.monframework.core.util.AccessLog;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Anneau d'enregistrements d'un thread: un producteur (le thread propriétaire), un
+ * consommateur (le thread de vidage). Le producteur écrit l'enregistrement puis publie
+ * tail; le consommateur copie jusqu'à tail puis libère les cases en avançant head.
+ * Aucun CAS ni verrou sur le chemin de la requête.
+ *
+ * Les anneaux partagés (threads virtuels) ajoutent un drapeau d'exclusion: un producteur
+ * qui ne l'obtient pas essaie un autre anneau au lieu d'attendre.
+ */
+final class ThreadBuffer {
+
+    private final ByteBuffer records;
+    private final int capacity;
+    private final AtomicLong head = new AtomicLong();
+    private final AtomicLong tail = new AtomicLong();
+    /** Dernière valeur de head vue par le producteur: évite de relire la ligne de cache du consommateur. */
+    private long headCache;
+    private final WeakReference<Thread> owner;
+    final AtomicBoolean busy = new AtomicBoolean();
+
+    /**
+     * @param owner thread propriétaire, null pour un anneau partagé
+     */
+    ThreadBuffer(int capacity, Thread owner) {
+        this.capacity = capacity;
+        this.records = ByteBuffer.allocate(capacity * AccessLogFormat.RECORD_SIZE);
+        this.owner = owner != null ? new WeakReference<>(owner) : null;
+    }
+
+    /**
+     * @return false si l'anneau est plein (enregistrement abandonné)
+     */
+    boolean offer(long startMillis, long durationNanos, long bytes, int status, String method, String route) {
+        long t = tail.get();
+        if (t - headCache >= capacity) {
+            headCache = head.get();
+            if (t - headCache >= capacity) {
+                return false;
+            }
+        }
+        AccessLogFormat.encode(records, (int) (t % capacity) * AccessLogFormat.RECORD_SIZE,
+                startMillis, durationNanos, bytes, status, method, route);
+        tail.lazySet(t + 1);
+        return true;
+    }
+
+    /**
+     * Copie au plus maxRecords enregistrements dans target (position courante).
+     *
+     * @return le nombre d'enregistrements copiés
+     */
+    int drainTo(ByteBuffer target, int maxRecords) {
+        long h = head.get();
+        long available = Math.min(tail.get() - h, maxRecords);
+        int copied = 0;
+        while (copied < available) {
+            int index = (int) ((h + copied) % capacity);
+            // copie contiguë jusqu'à la fin de l'anneau
+            int run = (int) Math.min(available - copied, capacity - index);
+            ByteBuffer slice = records.duplicate();
+            slice.limit((index + run) * AccessLogFormat.RECORD_SIZE).position(index * AccessLogFormat.RECORD_SIZE);
+            target.put(slice);
+            copied += run;
+        }
+        head.lazySet(h + copied);
+        return copied;
+    }
+
+    boolean isEmpty() {
+        return head.get() == tail.get();
+    }
+
+    /**
+     * @return true si le thread propriétaire est terminé (l'anneau peut être retiré une fois vide)
+     */
+    boolean isOrphan() {
+        if (owner == null) {
+            return false;
+        }
+        Thread thread = owner.get();
+        return thread == null || !thread.isAlive();
+    }
+}
@@ -0,0 +1,26 @@
+package com.monframework.core.util.Annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Délai maximal (en millisecondes) accordé à une méthode de contrôleur asynchrone,
+ * c'est-à-dire retournant un CompletableFuture / CompletionStage.
+ * À l'expiration, la réponse est terminée avec un code 503 et le future est annulé.
+ *
+ * Exemple:
+ * <pre>
+ * {@literal @}GetRequest("api/rapport")
+ * {@literal @}AsyncTimeout(5000)
+ * public CompletableFuture&lt;JsonResponseWrapper&gt; rapport() { ... }
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface AsyncTimeout {
+    long value();
+}
@@ -0,0 +1,18 @@
+package com.monframework.core.util.Annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Exclut une méthode (ou tout un contrôleur) du mode de dispatch sur threads virtuels
+ * (framework.dispatchMode=virtual). À utiliser pour les traitements dominés par le calcul:
+ * ils restent exécutés directement sur le thread du conteneur.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.TYPE})
+public @interface CpuBound {
+}
@@ -0,0 +1,30 @@
+package com.monframework.core.util.Annotation;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Limites appliquées par le parseur multipart du framework (paramètre MultipartStream)
+ * pour une route donnée. Une valeur négative signifie « pas de limite ».
+ * Sans cette annotation, les limites par défaut sont celles du MultipartConfig de
+ * FrontServlet (10 Mo par fichier, 50 Mo par requête).
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.METHOD)
+public @interface MultipartLimits {
+    /** Taille maximale d'une partie, en octets. */
+    long maxPartSize() default 1024 * 1024 * 10;
+
+    /** Taille maximale du corps complet, en octets. */
+    long maxRequestSize() default 1024 * 1024 * 50;
+
+    /** Nombre maximal de parties. */
+    int maxParts() default 100;
+
+    /** Taille maximale des en-têtes d'une partie, en octets. */
+    int maxHeaderSize() default 8 * 1024;
+}
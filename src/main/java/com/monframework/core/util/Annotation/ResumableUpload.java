@@ -0,0 +1,31 @@
+package com.monframework.core.util.Annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injecte (paramètre de type java.nio.file.Path) le fichier assemblé d'un upload
+ * reprenable terminé. L'identifiant de l'upload est lu dans le paramètre de requête
+ * (ou la variable de chemin) nommé par {@link #value()}.
+ *
+ * Le fichier est supprimé en fin de requête: le contrôleur doit le déplacer s'il veut le conserver.
+ *
+ * Exemple:
+ * <pre>
+ * {@literal @}PostRequest("videos/publier")
+ * public String publier({@literal @}ResumableUpload Path video) throws IOException {
+ *     Files.move(video, Paths.get("/data/videos", UUID.randomUUID() + ".mp4"));
+ *     return "ok";
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface ResumableUpload {
+    /**
+     * Nom du paramètre contenant l'identifiant de l'upload.
+     */
+    String value() default "uploadId";
+}
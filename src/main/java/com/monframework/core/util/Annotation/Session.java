@@ -28,8 +28,33 @@ import java.lang.annotation.Target;
  *     return "session-view";
  * }
  * </pre>
+ *
+ * Avec {@code @Session(mode = Session.Mode.SNAPSHOT)}, les attributs sont lus une seule fois
+ * et seules les clés modifiées sont réécrites dans la HttpSession en fin d'appel du contrôleur
+ * (utile pour les sessions répliquées ou persistées, où chaque setAttribute coûte une sérialisation).
+ *
+ * Les mises à jour concurrentes (requêtes AJAX simultanées) passent par les opérations atomiques:
+ * <pre>
+ * session.merge("compteur", 1, (a, b) -&gt; (Integer) a + (Integer) b);
+ * </pre>
+ *
+ * Le mode {@code COOKIE} nécessite {@code framework.session.cookieKeys} (voir CookieSessionCodec).
  */
 @Target(ElementType.PARAMETER)
 @Retention(RetentionPolicy.RUNTIME)
 public @interface Session {
+
+    Mode mode() default Mode.DIRECT;
+
+    enum Mode {
+        /** Chaque opération lit ou écrit directement la HttpSession. */
+        DIRECT,
+        /** Copie locale chargée au premier accès, réécriture des seules clés modifiées. */
+        SNAPSHOT,
+        /**
+         * Session entière dans un cookie signé (et chiffré si configuré), sans état serveur.
+         * Réservé aux petites sessions de types simples (String, nombres, Boolean, byte[]).
+         */
+        COOKIE
+    }
 }
@@ -0,0 +1,36 @@
+package com.monframework.core.util.Annotation;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injecte un fichier uploadé (multipart/form-data) sans le charger en mémoire.
+ * Types de paramètre supportés:
+ * <ul>
+ *   <li>{@code jakarta.servlet.http.Part}: la partie brute du conteneur</li>
+ *   <li>{@code java.io.InputStream}: flux de lecture du contenu</li>
+ *   <li>{@code java.nio.file.Path}: fichier temporaire (déplacé depuis le fichier déjà
+ *       écrit sur disque par le conteneur quand c'est possible), supprimé en fin de requête</li>
+ *   <li>{@code StoredBlob}: contenu enregistré dans le store adressé par contenu (SHA-256,
+ *       dédupliqué)</li>
+ * </ul>
+ *
+ * Exemple:
+ * <pre>
+ * {@literal @}PostRequest("upload")
+ * public String upload({@literal @}UploadedFile("document") Part document) throws IOException {
+ *     FileUploadHandler.saveTo(document, Paths.get("/data/docs", document.getSubmittedFileName()));
+ *     return "ok";
+ * }
+ * </pre>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.PARAMETER)
+public @interface UploadedFile {
+    /**
+     * Le nom du champ input file. Si vide, utilise le nom du paramètre de la méthode.
+     */
+    String value() default "";
+}
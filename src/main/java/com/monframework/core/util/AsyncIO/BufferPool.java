@@ -0,0 +1,55 @@
+package com.monframework.core.util.AsyncIO;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pool borné de tampons byte[] de taille fixe, partagé par les lectures de corps
+ * de requête afin d'éviter d'allouer un nouveau tampon à chaque requête.
+ * Un tampon rendu alors que le pool est plein est simplement abandonné au GC.
+ */
+public class BufferPool {
+
+    private static final BufferPool SHARED = new BufferPool(16 * 1024, 512);
+
+    private final int bufferSize;
+    private final int maxPooled;
+    private final ConcurrentLinkedQueue<byte[]> free = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pooled = new AtomicInteger();
+
+    public BufferPool(int bufferSize, int maxPooled) {
+        this.bufferSize = bufferSize;
+        this.maxPooled = maxPooled;
+    }
+
+    /**
+     * Pool partagé par défaut (tampons de 16 Ko, 512 tampons conservés au maximum).
+     */
+    public static BufferPool shared() {
+        return SHARED;
+    }
+
+    public int getBufferSize() {
+        return bufferSize;
+    }
+
+    public byte[] acquire() {
+        byte[] buffer = free.poll();
+        if (buffer != null) {
+            pooled.decrementAndGet();
+            return buffer;
+        }
+        return new byte[bufferSize];
+    }
+
+    public void release(byte[] buffer) {
+        if (buffer == null || buffer.length != bufferSize) {
+            return;
+        }
+        if (pooled.incrementAndGet() <= maxPooled) {
+            free.offer(buffer);
+        } else {
+            pooled.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.monframework.core.util.AsyncIO;
+
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Requête dont le corps a déjà été lu (sans blocage) dans des tampons du BufferPool.
+ * Le corps est relu depuis la mémoire via getInputStream()/getReader(), et les
+ * paramètres d'un formulaire application/x-www-form-urlencoded sont extraits du corps
+ * (le conteneur ne peut plus les lire lui-même une fois le flux consommé).
+ */
+public class BufferedBodyRequest extends HttpServletRequestWrapper {
+
+    private final BufferPool pool;
+    private List<byte[]> chunks = Collections.emptyList();
+    private long length;
+    private Map<String, String[]> parameters;
+
+    public BufferedBodyRequest(HttpServletRequest request, BufferPool pool) {
+        super(request);
+        this.pool = pool;
+    }
+
+    void setBody(List<byte[]> chunks, long length) {
+        this.chunks = chunks;
+        this.length = length;
+    }
+
+    /**
+     * Rend les tampons au pool. Appelé à la fin de la requête asynchrone.
+     */
+    void release() {
+        List<byte[]> toRelease = chunks;
+        chunks = Collections.emptyList();
+        for (byte[] chunk : toRelease) {
+            pool.release(chunk);
+        }
+    }
+
+    @Override
+    public int getContentLength() {
+        return length > Integer.MAX_VALUE ? -1 : (int) length;
+    }
+
+    @Override
+    public long getContentLengthLong() {
+        return length;
+    }
+
+    @Override
+    public ServletInputStream getInputStream() {
+        return new ChunkInputStream();
+    }
+
+    @Override
+    public BufferedReader getReader() throws IOException {
+        String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+        return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = getParameterMap().get(name);
+        return values == null || values.length == 0 ? null : values[0];
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return getParameterMap().get(name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(getParameterMap().keySet());
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        if (parameters == null) {
+            // paramètres de la query string (le conteneur ne lit plus le corps), puis ceux du corps
+            Map<String, String[]> merged = new LinkedHashMap<>(super.getParameterMap());
+            String contentType = getContentType();
+            if (contentType != null && contentType.toLowerCase().startsWith("application/x-www-form-urlencoded")) {
+                parseFormBody(merged);
+            }
+            parameters = Collections.unmodifiableMap(merged);
+        }
+        return parameters;
+    }
+
+    private void parseFormBody(Map<String, String[]> target) {
+        String encoding = getCharacterEncoding() != null ? getCharacterEncoding() : "UTF-8";
+        String body = new String(toByteArray(), StandardCharsets.ISO_8859_1);
+        for (String pair : body.split("&")) {
+            if (pair.isEmpty()) continue;
+            int eq = pair.indexOf('=');
+            try {
+                String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), encoding);
+                String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), encoding);
+                String[] existing = target.get(name);
+                if (existing == null) {
+                    target.put(name, new String[] { value });
+                } else {
+                    String[] values = Arrays.copyOf(existing, existing.length + 1);
+                    values[existing.length] = value;
+                    target.put(name, values);
+                }
+            } catch (UnsupportedEncodingException | IllegalArgumentException e) {
+                // paramètre mal encodé: ignoré, comme le fait le conteneur
+            }
+        }
+    }
+
+    private byte[] toByteArray() {
+        byte[] result = new byte[(int) length];
+        int pos = 0;
+        for (byte[] chunk : chunks) {
+            int n = (int) Math.min(chunk.length, length - pos);
+            System.arraycopy(chunk, 0, result, pos, n);
+            pos += n;
+        }
+        return result;
+    }
+
+    /**
+     * Flux de lecture sur les tampons déjà remplis.
+     */
+    private class ChunkInputStream extends ServletInputStream {
+        private final List<byte[]> source = new ArrayList<>(chunks);
+        private long position;
+
+        @Override
+        public int read() {
+            if (position >= length) return -1;
+            byte[] chunk = source.get((int) (position / pool.getBufferSize()));
+            int b = chunk[(int) (position % pool.getBufferSize())] & 0xFF;
+            position++;
+            return b;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (position >= length) return -1;
+            if (len == 0) return 0;
+            int chunkSize = pool.getBufferSize();
+            byte[] chunk = source.get((int) (position / chunkSize));
+            int inChunk = (int) (position % chunkSize);
+            int n = (int) Math.min(Math.min(len, chunkSize - inChunk), length - position);
+            System.arraycopy(chunk, inChunk, b, off, n);
+            position += n;
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return (int) Math.min(Integer.MAX_VALUE, length - position);
+        }
+
+        @Override
+        public boolean isFinished() {
+            return position >= length;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setReadListener(ReadListener listener) {
+            try {
+                if (!isFinished()) {
+                    listener.onDataAvailable();
+                }
+                listener.onAllDataRead();
+            } catch (IOException e) {
+                listener.onError(e);
+            }
+        }
+    }
+}
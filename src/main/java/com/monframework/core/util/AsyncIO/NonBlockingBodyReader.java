@@ -0,0 +1,129 @@
+package com.monframework.core.util.AsyncIO;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.monframework.core.util.Mapper.ModelView;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * ReadListener qui remplit des tampons du pool au rythme où les données arrivent,
+ * sans jamais bloquer un thread du conteneur. Le handler n'est invoqué qu'une fois
+ * le corps complet (onAllDataRead).
+ */
+class NonBlockingBodyReader implements ReadListener {
+
+    private static final Logger LOG = Logger.get(NonBlockingBodyReader.class);
+
+    private final ServletInputStream in;
+    private final BufferedBodyRequest request;
+    private final HttpServletResponse response;
+    private final AsyncContext asyncContext;
+    private final BufferPool pool;
+    private final long maxBodyBytes;
+    private final NonBlockingIO.BodyHandler handler;
+
+    private final List<byte[]> chunks = new ArrayList<>();
+    private byte[] current;
+    private int currentPos;
+    private long total;
+    private volatile boolean failed;
+    private volatile boolean bodyRead;
+
+    NonBlockingBodyReader(ServletInputStream in, BufferedBodyRequest request, HttpServletResponse response,
+                          AsyncContext asyncContext, BufferPool pool, long maxBodyBytes,
+                          NonBlockingIO.BodyHandler handler) {
+        this.in = in;
+        this.request = request;
+        this.response = response;
+        this.asyncContext = asyncContext;
+        this.pool = pool;
+        this.maxBodyBytes = maxBodyBytes;
+        this.handler = handler;
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+        if (failed) {
+            return;
+        }
+        while (in.isReady() && !in.isFinished()) {
+            if (current == null || currentPos == current.length) {
+                current = pool.acquire();
+                currentPos = 0;
+                chunks.add(current);
+            }
+            int n = in.read(current, currentPos, current.length - currentPos);
+            if (n < 0) {
+                break;
+            }
+            currentPos += n;
+            total += n;
+            if (total > maxBodyBytes) {
+                fail(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public void onAllDataRead() {
+        if (failed) {
+            return;
+        }
+        bodyRead = true;
+        request.setBody(chunks, total);
+        try {
+            handler.handle(request);
+        } catch (Exception e) {
+            LOG.error("Erreur lors du traitement d'une requête lue sans blocage", e);
+            if (!response.isCommitted()) {
+                response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+            }
+        } finally {
+            ModelView.completeAsyncIfIdle(request);
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        if (failed) {
+            return;
+        }
+        failed = true;
+        releaseChunks();
+        asyncContext.complete();
+    }
+
+    /**
+     * Expiration du contexte asynchrone: si le corps n'est pas arrivé en entier, répond 408.
+     */
+    void onReadTimeout() {
+        if (!failed && !bodyRead) {
+            fail(HttpServletResponse.SC_REQUEST_TIMEOUT);
+        }
+    }
+
+    private void fail(int status) {
+        failed = true;
+        releaseChunks();
+        try {
+            response.sendError(status);
+        } catch (IOException ignored) {
+            // la connexion est probablement fermée
+        }
+        asyncContext.complete();
+    }
+
+    private void releaseChunks() {
+        for (byte[] chunk : chunks) {
+            pool.release(chunk);
+        }
+        chunks.clear();
+    }
+}
@@ -0,0 +1,97 @@
+package com.monframework.core.util.AsyncIO;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Pipeline d'E/S non bloquantes (Servlet 3.1), activé par framework.nonBlockingIO=true.
+ *
+ * Le corps des requêtes (JSON, formulaires) est lu par un ReadListener dans des tampons
+ * du BufferPool: un client lent n'occupe plus de thread pendant l'envoi. Le contrôleur
+ * est invoqué une fois le corps complet. Les requêtes multipart restent gérées par le
+ * conteneur (request.getParts()).
+ *
+ * Un client qui cesse d'envoyer le corps reçoit 408 après readTimeoutMillis
+ * (framework.nonBlockingIO.readTimeoutMs) au lieu d'occuper le contexte asynchrone.
+ */
+public class NonBlockingIO {
+
+    /** Attribut du ServletContext contenant l'instance active. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.nio";
+
+    /** Traitement à exécuter une fois le corps entièrement lu. */
+    public interface BodyHandler {
+        void handle(HttpServletRequest request) throws Exception;
+    }
+
+    private final BufferPool pool;
+    private final long maxBodyBytes;
+    private final long readTimeoutMillis;
+
+    /**
+     * @param readTimeoutMillis délai de lecture du corps (0 = délai par défaut du conteneur)
+     */
+    public NonBlockingIO(BufferPool pool, long maxBodyBytes, long readTimeoutMillis) {
+        this.pool = pool;
+        this.maxBodyBytes = maxBodyBytes;
+        this.readTimeoutMillis = readTimeoutMillis;
+    }
+
+    /**
+     * Indique si le corps de la requête doit être lu de façon non bloquante.
+     */
+    public boolean shouldReadBody(HttpServletRequest request) {
+        if (!request.isAsyncSupported() || request.isAsyncStarted()) {
+            return false;
+        }
+        boolean hasBody = request.getContentLengthLong() > 0 || request.getHeader("Transfer-Encoding") != null;
+        if (!hasBody) {
+            return false;
+        }
+        String contentType = request.getContentType();
+        return contentType == null || !contentType.toLowerCase().startsWith("multipart/");
+    }
+
+    /**
+     * Passe en mode asynchrone, lit le corps sans blocage, puis appelle le handler
+     * avec une requête dont le corps est disponible en mémoire.
+     */
+    public void readBodyThen(HttpServletRequest request, HttpServletResponse response, BodyHandler handler) throws IOException {
+        if (request.getContentLengthLong() > maxBodyBytes) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        final BufferedBodyRequest buffered = new BufferedBodyRequest(request, pool);
+        AsyncContext asyncContext = request.startAsync(buffered, response);
+        if (readTimeoutMillis > 0) {
+            asyncContext.setTimeout(readTimeoutMillis);
+        }
+        ServletInputStream in = request.getInputStream();
+        final NonBlockingBodyReader reader =
+                new NonBlockingBodyReader(in, buffered, response, asyncContext, pool, maxBodyBytes, handler);
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onComplete(AsyncEvent event) {
+                buffered.release();
+            }
+
+            @Override
+            public void onTimeout(AsyncEvent event) {
+                // corps incomplet: 408; après la lecture, le délai concerne le contrôleur
+                reader.onReadTimeout();
+            }
+
+            @Override
+            public void onError(AsyncEvent event) { }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) { }
+        });
+        in.setReadListener(reader);
+    }
+}
@@ -0,0 +1,78 @@
+package com.monframework.core.util.AsyncIO;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import com.monframework.core.util.Mapper.ModelView;
+
+/**
+ * WriteListener qui écrit un corps de réponse au fur et à mesure que le canal
+ * devient inscriptible, puis termine la requête asynchrone.
+ */
+public class NonBlockingResponseWriter implements WriteListener {
+
+    /** En dessous de cette taille, une écriture directe est plus simple et aussi rapide. */
+    public static final int ASYNC_WRITE_THRESHOLD = 32 * 1024;
+
+    private static final int WRITE_CHUNK = 16 * 1024;
+
+    private final ServletOutputStream out;
+    private final AsyncContext asyncContext;
+    private final byte[] body;
+    private int position;
+
+    private NonBlockingResponseWriter(ServletOutputStream out, AsyncContext asyncContext, byte[] body) {
+        this.out = out;
+        this.asyncContext = asyncContext;
+        this.body = body;
+    }
+
+    /**
+     * Écrit le corps d'une requête asynchrone puis la termine.
+     * Les petits corps sont écrits directement; les gros via un WriteListener.
+     * Si le contrôleur a déjà obtenu le Writer de la réponse, le flux binaire n'est plus
+     * disponible: le corps (texte UTF-8) est alors écrit par ce Writer.
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, byte[] body) throws IOException {
+        AsyncContext asyncContext = request.getAsyncContext();
+        ServletOutputStream out;
+        try {
+            out = response.getOutputStream();
+        } catch (IllegalStateException writerAlreadyUsed) {
+            response.getWriter().write(new String(body, StandardCharsets.UTF_8));
+            asyncContext.complete();
+            return;
+        }
+        response.setContentLength(body.length);
+        if (body.length < ASYNC_WRITE_THRESHOLD) {
+            out.write(body);
+            asyncContext.complete();
+            return;
+        }
+        // la requête sera terminée par le listener, pas par l'appelant
+        request.setAttribute(ModelView.ASYNC_PENDING_ATTRIBUTE, Boolean.TRUE);
+        out.setWriteListener(new NonBlockingResponseWriter(out, asyncContext, body));
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (position < body.length && out.isReady()) {
+            int n = Math.min(WRITE_CHUNK, body.length - position);
+            out.write(body, position, n);
+            position += n;
+        }
+        if (position >= body.length && out.isReady()) {
+            asyncContext.complete();
+        }
+    }
+
+    @Override
+    public void onError(Throwable t) {
+        asyncContext.complete();
+    }
+}
@@ -0,0 +1,133 @@
+package com.monframework.core.util.Config;
+
+import jakarta.servlet.ServletConfig;
+import jakarta.servlet.ServletContext;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Accès centralisé aux options du framework.
+ * Une option est cherchée d'abord dans les init-params de la servlet (si disponible),
+ * puis dans les context-params du web.xml, enfin dans un fichier framework.properties
+ * (/WEB-INF/framework.properties, sinon à la racine du classpath).
+ *
+ * Exemple (web.xml):
+ * <pre>
+ * &lt;context-param&gt;
+ *     &lt;param-name&gt;framework.nativeRouting&lt;/param-name&gt;
+ *     &lt;param-value&gt;true&lt;/param-value&gt;
+ * &lt;/context-param&gt;
+ * </pre>
+ */
+public class FrameworkConfig {
+
+    private static final Logger LOG = Logger.get(FrameworkConfig.class);
+
+    /** Fichier d'options facultatif. */
+    public static final String PROPERTIES_FILE = "framework.properties";
+
+    /** Attribut du ServletContext gardant le contenu de framework.properties (lu une seule fois). */
+    private static final String PROPERTIES_ATTRIBUTE = "framework.properties";
+
+    private final ServletContext context;
+    private final ServletConfig servletConfig;
+
+    private FrameworkConfig(ServletContext context, ServletConfig servletConfig) {
+        this.context = context;
+        this.servletConfig = servletConfig;
+    }
+
+    /**
+     * Configuration basée uniquement sur les context-params (ex: depuis un ServletContainerInitializer).
+     */
+    public static FrameworkConfig from(ServletContext context) {
+        return new FrameworkConfig(context, null);
+    }
+
+    /**
+     * Configuration basée sur les init-params de la servlet puis sur les context-params.
+     */
+    public static FrameworkConfig from(ServletConfig servletConfig) {
+        return new FrameworkConfig(servletConfig.getServletContext(), servletConfig);
+    }
+
+    public String get(String name) {
+        String value = null;
+        if (servletConfig != null) {
+            value = servletConfig.getInitParameter(name);
+        }
+        if (value == null && context != null) {
+            value = context.getInitParameter(name);
+        }
+        if (value == null) {
+            value = fileProperties().getProperty(name);
+        }
+        if (value != null) {
+            value = value.trim();
+        }
+        return value;
+    }
+
+    public String get(String name, String defaultValue) {
+        String value = get(name);
+        return value == null || value.isEmpty() ? defaultValue : value;
+    }
+
+    public boolean getBoolean(String name, boolean defaultValue) {
+        String value = get(name);
+        return value == null || value.isEmpty() ? defaultValue : Boolean.parseBoolean(value);
+    }
+
+    public long getLong(String name, long defaultValue) {
+        String value = get(name);
+        if (value == null || value.isEmpty()) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            LOG.warn("Valeur invalide pour " + name + ": '" + value + "', utilisation de " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    public int getInt(String name, int defaultValue) {
+        long value = getLong(name, defaultValue);
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            LOG.warn("Valeur invalide pour " + name + ": '" + value + "', utilisation de " + defaultValue);
+            return defaultValue;
+        }
+        return (int) value;
+    }
+
+    private Properties fileProperties() {
+        if (context == null) {
+            return new Properties();
+        }
+        Object cached = context.getAttribute(PROPERTIES_ATTRIBUTE);
+        if (cached instanceof Properties) {
+            return (Properties) cached;
+        }
+        Properties props = new Properties();
+        InputStream in = context.getResourceAsStream("/WEB-INF/" + PROPERTIES_FILE);
+        if (in == null) {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            in = loader != null ? loader.getResourceAsStream(PROPERTIES_FILE) : null;
+        }
+        if (in != null) {
+            try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+                props.load(reader);
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.warn(PROPERTIES_FILE + " illisible: " + e.getMessage());
+            }
+        }
+        context.setAttribute(PROPERTIES_ATTRIBUTE, props);
+        return props;
+    }
+}
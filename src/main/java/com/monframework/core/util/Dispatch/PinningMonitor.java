@@ -0,0 +1,92 @@
+package com.monframework.core.util.Dispatch;
+
+import java.lang.reflect.Method;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Compte les épisodes où un thread virtuel reste épinglé sur son thread porteur
+ * (événement JFR jdk.VirtualThreadPinned, JDK 21+), par exemple un appel bloquant
+ * dans un bloc synchronized d'un contrôleur.
+ *
+ * L'API jdk.jfr.consumer est utilisée par réflexion pour que le framework reste
+ * compilable et exécutable en Java 8.
+ */
+public class PinningMonitor {
+
+    private static final Logger LOG = Logger.get(PinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final LongAdder pinnedCount = new LongAdder();
+    private final LongAdder pinnedNanos = new LongAdder();
+    private final AtomicBoolean warned = new AtomicBoolean(false);
+    private final Object stream;
+    private final Method durationGetter;
+
+    private PinningMonitor(Object stream, Method durationGetter) {
+        this.stream = stream;
+        this.durationGetter = durationGetter;
+    }
+
+    /**
+     * Démarre l'écoute des événements d'épinglage.
+     *
+     * @param threshold durée minimale d'un épinglage pour être comptabilisé
+     * @return le moniteur, ou null si JFR streaming n'est pas disponible
+     */
+    public static PinningMonitor start(Duration threshold) {
+        try {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Class<?> recordedEventClass = Class.forName("jdk.jfr.consumer.RecordedEvent");
+
+            Object stream = streamClass.getConstructor().newInstance();
+            Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+            settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, threshold);
+
+            PinningMonitor monitor = new PinningMonitor(stream, recordedEventClass.getMethod("getDuration"));
+            Consumer<Object> handler = monitor::onPinned;
+            streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, handler);
+            streamClass.getMethod("startAsync").invoke(stream);
+            return monitor;
+        } catch (Throwable t) {
+            LOG.warn("Suivi de l'épinglage des threads virtuels indisponible: " + t);
+            return null;
+        }
+    }
+
+    private void onPinned(Object event) {
+        pinnedCount.increment();
+        try {
+            Duration duration = (Duration) durationGetter.invoke(event);
+            pinnedNanos.add(duration.toNanos());
+        } catch (Exception ignored) {
+            // la durée est informative
+        }
+        if (warned.compareAndSet(false, true)) {
+            LOG.warn("Un thread virtuel a été épinglé pendant un appel bloquant"
+                    + " (synchronized ou code natif). Annoter la route avec @CpuBound ou remplacer synchronized par un Lock.");
+        }
+    }
+
+    public long getPinnedCount() {
+        return pinnedCount.sum();
+    }
+
+    public long getPinnedNanos() {
+        return pinnedNanos.sum();
+    }
+
+    public void close() {
+        try {
+            stream.getClass().getMethod("close").invoke(stream);
+        } catch (Exception ignored) {
+            // arrêt best-effort
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.monframework.core.util.Dispatch;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.monframework.core.util.Annotation.CpuBound;
+import com.monframework.core.util.Mapper.ModelView;
+import com.monframework.core.util.Mapper.RouteMapping;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Mode de dispatch optionnel (framework.dispatchMode=virtual): chaque invocation de
+ * contrôleur est confiée à un thread virtuel (un thread par tâche) via AsyncContext,
+ * ce qui libère le thread du conteneur pendant les appels bloquants.
+ *
+ * Nécessite un JDK 21+ à l'exécution; l'exécuteur est obtenu par réflexion pour que
+ * le framework reste compilé en Java 8. Les routes annotées {@link CpuBound} restent
+ * exécutées sur le thread du conteneur.
+ */
+public class VirtualThreadDispatcher {
+
+    private static final Logger LOG = Logger.get(VirtualThreadDispatcher.class);
+
+    /** Tâche de traitement d'une requête (typiquement FrontServlet.showMatchedRoute). */
+    public interface Handler {
+        void handle() throws Exception;
+    }
+
+    /** Marque posée pendant l'exécution sur thread virtuel (la requête ne doit pas être terminée ailleurs). */
+    private static final Object IN_PROGRESS = new Object();
+
+    private final ExecutorService executor;
+    private final PinningMonitor pinningMonitor;
+    private final LongAdder dispatched = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder active = new LongAdder();
+
+    private VirtualThreadDispatcher(ExecutorService executor, PinningMonitor pinningMonitor) {
+        this.executor = executor;
+        this.pinningMonitor = pinningMonitor;
+    }
+
+    /**
+     * Crée le dispatcher si la JVM supporte les threads virtuels.
+     *
+     * @param pinningThreshold seuil de l'événement JFR d'épinglage
+     * @return le dispatcher, ou null si les threads virtuels ne sont pas disponibles
+     */
+    public static VirtualThreadDispatcher create(Duration pinningThreshold) {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            return new VirtualThreadDispatcher(executor, PinningMonitor.start(pinningThreshold));
+        } catch (NoSuchMethodException e) {
+            LOG.warn("Threads virtuels indisponibles (JDK 21+ requis), dispatch sur les threads du conteneur");
+            return null;
+        } catch (Exception e) {
+            LOG.warn("Impossible de créer l'exécuteur de threads virtuels: " + e);
+            return null;
+        }
+    }
+
+    /**
+     * Indique si la route doit être exécutée sur un thread virtuel.
+     */
+    public boolean accepts(HttpServletRequest request, RouteMapping route) {
+        if (!request.isAsyncSupported() && !request.isAsyncStarted()) {
+            return false;
+        }
+        return !route.isCpuBound();
+    }
+
+    /**
+     * Passe la requête en mode asynchrone et exécute le handler sur un thread virtuel.
+     * La requête est terminée à la fin du handler, sauf si celui-ci a déjà dispatché
+     * vers une vue, terminé la réponse, ou délégué la réponse à un future.
+     */
+    public void dispatch(HttpServletRequest request, HttpServletResponse response, Handler handler) {
+        final AsyncContext asyncContext = request.isAsyncStarted()
+                ? request.getAsyncContext()
+                : request.startAsync(request, response);
+        final ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        request.setAttribute(ModelView.ASYNC_PENDING_ATTRIBUTE, IN_PROGRESS);
+        try {
+            executor.execute(() -> {
+                Thread current = Thread.currentThread();
+                ClassLoader previous = current.getContextClassLoader();
+                current.setContextClassLoader(loader);
+                active.increment();
+                try {
+                    handler.handle();
+                } catch (Exception e) {
+                    LOG.error("Erreur lors du traitement sur thread virtuel", e);
+                    if (!response.isCommitted()) {
+                        response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    }
+                } finally {
+                    active.decrement();
+                    current.setContextClassLoader(previous);
+                    // le handler a pu confier la fin de la réponse à un future ou un WriteListener
+                    if (request.getAttribute(ModelView.ASYNC_PENDING_ATTRIBUTE) == IN_PROGRESS) {
+                        request.removeAttribute(ModelView.ASYNC_PENDING_ATTRIBUTE);
+                    }
+                    ModelView.completeAsyncIfIdle(request);
+                }
+            });
+            dispatched.increment();
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            request.removeAttribute(ModelView.ASYNC_PENDING_ATTRIBUTE);
+            try {
+                response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            } catch (Exception ignored) {
+                // la réponse est peut-être déjà engagée
+            }
+            asyncContext.complete();
+        }
+    }
+
+    public long getDispatchedCount() {
+        return dispatched.sum();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    public long getActiveCount() {
+        return active.sum();
+    }
+
+    /** Nombre d'épinglages observés (-1 si le suivi JFR est indisponible). */
+    public long getPinnedCount() {
+        return pinningMonitor == null ? -1 : pinningMonitor.getPinnedCount();
+    }
+
+    /** Durée cumulée des épinglages en nanosecondes (-1 si indisponible). */
+    public long getPinnedNanos() {
+        return pinningMonitor == null ? -1 : pinningMonitor.getPinnedNanos();
+    }
+
+    public void shutdown() {
+        if (pinningMonitor != null) {
+            pinningMonitor.close();
+        }
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,46 @@
+package com.monframework.core.util.FileUpload;
+
+/**
+ * Recherche d'un délimiteur multipart par l'algorithme de Boyer-Moore-Horspool:
+ * la table de décalage permet de sauter jusqu'à la longueur du délimiteur à chaque
+ * comparaison ratée, au lieu d'avancer octet par octet.
+ */
+class BoundaryScanner {
+
+    private final byte[] pattern;
+    private final int[] shift = new int[256];
+
+    BoundaryScanner(byte[] pattern) {
+        this.pattern = pattern;
+        int m = pattern.length;
+        for (int i = 0; i < shift.length; i++) {
+            shift[i] = m;
+        }
+        for (int i = 0; i < m - 1; i++) {
+            shift[pattern[i] & 0xFF] = m - 1 - i;
+        }
+    }
+
+    int length() {
+        return pattern.length;
+    }
+
+    /**
+     * @return la position du délimiteur dans data[from, to), ou -1
+     */
+    int indexOf(byte[] data, int from, int to) {
+        int m = pattern.length;
+        int i = from;
+        while (i <= to - m) {
+            int j = m - 1;
+            while (j >= 0 && data[i + j] == pattern[j]) {
+                j--;
+            }
+            if (j < 0) {
+                return i;
+            }
+            i += shift[data[i + m - 1] & 0xFF];
+        }
+        return -1;
+    }
+}
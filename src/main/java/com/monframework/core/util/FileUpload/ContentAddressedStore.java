@@ -0,0 +1,214 @@
+package com.monframework.core.util.FileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+import com.monframework.core.util.AsyncIO.BufferPool;
+
+/**
+ * Stockage adressé par contenu des fichiers uploadés, avec déduplication.
+ *
+ * Le contenu est écrit dans un fichier temporaire pendant que son SHA-256 est calculé
+ * au fil de l'eau: pendant qu'un tampon est écrit (AsynchronousFileChannel), il est haché
+ * et le tampon suivant est lu depuis le client. Aucune seconde lecture n'est nécessaire.
+ * Le fichier est ensuite publié par lien physique vers {@code <racine>/ab/cd/<sha256>};
+ * si ce contenu existe déjà, le fichier temporaire est supprimé et le blob existant retourné.
+ *
+ * Activé seulement si le context-param framework.upload.blobStore.dir est renseigné.
+ */
+public class ContentAddressedStore {
+
+    /** Attribut du ServletContext contenant le store actif. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.blobStore";
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path root;
+    private final Path tmpDir;
+    private final BufferPool pool;
+
+    public ContentAddressedStore(Path root, BufferPool pool) throws IOException {
+        this.root = Files.createDirectories(root);
+        this.tmpDir = Files.createDirectories(root.resolve("tmp"));
+        this.pool = pool;
+    }
+
+    /**
+     * Stocke un contenu et retourne sa référence.
+     */
+    public StoredBlob store(InputStream in) throws IOException {
+        MessageDigest digest = newDigest();
+        Path temp = Files.createTempFile(tmpDir, "blob-", ".tmp");
+        long size = 0;
+        byte[][] buffers = { pool.acquire(), pool.acquire() };
+        PendingWrite[] pending = new PendingWrite[2];
+        boolean stored = false;
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(temp, StandardOpenOption.WRITE)) {
+            int i = 0;
+            int n;
+            while (true) {
+                // le tampon doit être entièrement écrit avant d'être réutilisé
+                if (pending[i] != null) {
+                    pending[i].await();
+                    pending[i] = null;
+                }
+                n = readFully(in, buffers[i]);
+                if (n <= 0) {
+                    break;
+                }
+                pending[i] = new PendingWrite(channel, ByteBuffer.wrap(buffers[i], 0, n), size);
+                digest.update(buffers[i], 0, n); // pendant l'écriture
+                size += n;
+                i ^= 1;
+            }
+            for (int k = 0; k < pending.length; k++) {
+                if (pending[k] != null) {
+                    pending[k].await();
+                    pending[k] = null;
+                }
+            }
+            channel.force(false);
+            StoredBlob blob = commit(temp, toHex(digest.digest()), size);
+            stored = true;
+            return blob;
+        } finally {
+            // en cas d'erreur, ne pas rendre au pool un tampon encore utilisé par une écriture
+            for (PendingWrite write : pending) {
+                if (write != null) write.cancel();
+            }
+            pool.release(buffers[0]);
+            pool.release(buffers[1]);
+            if (!stored) {
+                Files.deleteIfExists(temp);
+            }
+        }
+    }
+
+    /**
+     * @return le blob correspondant à l'empreinte, ou null s'il n'existe pas
+     */
+    public StoredBlob find(String sha256) throws IOException {
+        if (sha256 == null || !sha256.matches("^[0-9a-f]{64}$")) {
+            return null;
+        }
+        Path path = blobPath(sha256);
+        return Files.exists(path) ? new StoredBlob(sha256, Files.size(path), path, true) : null;
+    }
+
+    private StoredBlob commit(Path temp, String hex, long size) throws IOException {
+        Path target = blobPath(hex);
+        if (Files.exists(target)) {
+            Files.delete(temp);
+            return new StoredBlob(hex, size, target, true);
+        }
+        Files.createDirectories(target.getParent());
+        try {
+            // un lien échoue si la cible existe, contrairement à ATOMIC_MOVE qui la remplace sous POSIX
+            Files.createLink(target, temp);
+            Files.delete(temp);
+        } catch (FileAlreadyExistsException e) {
+            // même contenu stocké en parallèle par une autre requête
+            Files.deleteIfExists(temp);
+            return new StoredBlob(hex, size, target, true);
+        } catch (UnsupportedOperationException e) {
+            return moveWithoutLink(temp, target, hex, size);
+        }
+        return new StoredBlob(hex, size, target, false);
+    }
+
+    /**
+     * Système de fichiers sans liens physiques: déplacement sans remplacement (la fenêtre
+     * entre le test et le déplacement n'écrase qu'un contenu identique).
+     */
+    private StoredBlob moveWithoutLink(Path temp, Path target, String hex, long size) throws IOException {
+        try {
+            Files.move(temp, target);
+        } catch (FileAlreadyExistsException e) {
+            Files.deleteIfExists(temp);
+            return new StoredBlob(hex, size, target, true);
+        }
+        return new StoredBlob(hex, size, target, false);
+    }
+
+    private Path blobPath(String hex) {
+        return root.resolve(hex.substring(0, 2)).resolve(hex.substring(2, 4)).resolve(hex);
+    }
+
+    private static int readFully(InputStream in, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int n = in.read(buffer, total, buffer.length - total);
+            if (n == -1) break;
+            total += n;
+        }
+        return total;
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] out = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+
+    /**
+     * Écriture asynchrone d'un tampon à une position donnée, complétée si nécessaire
+     * (une écriture peut être partielle).
+     */
+    private static class PendingWrite {
+        private final AsynchronousFileChannel channel;
+        private final ByteBuffer buffer;
+        private final long position;
+        private final Future<Integer> future;
+
+        PendingWrite(AsynchronousFileChannel channel, ByteBuffer buffer, long position) {
+            this.channel = channel;
+            this.buffer = buffer;
+            this.position = position;
+            this.future = channel.write(buffer, position);
+        }
+
+        void await() throws IOException {
+            try {
+                future.get();
+                // buffer.position() = octets déjà écrits depuis le début du tampon
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer, position + buffer.position()).get();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Écriture interrompue", e);
+            } catch (ExecutionException e) {
+                throw new IOException("Erreur d'écriture du blob", e.getCause());
+            }
+        }
+
+        void cancel() {
+            try {
+                future.get();
+            } catch (Exception ignored) {
+                // le fichier temporaire est supprimé de toute façon
+            }
+        }
+    }
+}
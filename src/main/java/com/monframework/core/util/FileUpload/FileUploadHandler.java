@@ -1,18 +1,35 @@
 package com.monframework.core.util.FileUpload;
 
+import jakarta.servlet.ServletContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.Part;
-import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
+import com.monframework.core.util.Logging.Logger;
+
 /**
  * Classe utilitaire pour gérer l'extraction des fichiers uploadés
  * depuis une requête HTTP multipart/form-data.
  */
 public class FileUploadHandler {
+
+    private static final Logger LOG = Logger.get(FileUploadHandler.class);
+
+    /** Attribut de requête listant les fichiers temporaires et flux à libérer. */
+    private static final String RESOURCES_ATTRIBUTE = "framework.upload.resources";
     
     /**
      * Extrait tous les fichiers uploadés d'une requête et les retourne
@@ -26,8 +43,7 @@ public class FileUploadHandler {
         
         try {
             // Vérifier si la requête contient des données multipart
-            String contentType = request.getContentType();
-            if (contentType != null && contentType.toLowerCase().contains("multipart/form-data")) {
+            if (isMultipart(request)) {
                 Collection<Part> parts = request.getParts();
                 
                 for (Part part : parts) {
@@ -41,8 +57,7 @@ public class FileUploadHandler {
                 }
             }
         } catch (Exception e) {
-            System.err.println("Erreur lors de l'extraction des fichiers uploadés: " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Erreur lors de l'extraction des fichiers uploadés: " + e.getMessage(), e);
         }
         
         return filesMap;
@@ -50,23 +65,132 @@ public class FileUploadHandler {
     
     /**
      * Lit le contenu d'une Part et le retourne sous forme de tableau de bytes.
+     * Le tableau est alloué à la taille exacte de la partie (pas de copie intermédiaire).
      * 
      * @param part La partie de la requête multipart
      * @return Le contenu en bytes
      * @throws Exception si une erreur survient lors de la lecture
      */
     private static byte[] readPartContent(Part part) throws Exception {
-        try (InputStream inputStream = part.getInputStream();
-             ByteArrayOutputStream outputStream = new ByteArrayOutputStream()) {
-            
-            byte[] buffer = new byte[8192];
-            int bytesRead;
-            while ((bytesRead = inputStream.read(buffer)) != -1) {
-                outputStream.write(buffer, 0, bytesRead);
+        long size = part.getSize();
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new IOException("Fichier trop volumineux pour être chargé en mémoire: " + size + " octets");
+        }
+        byte[] content = new byte[(int) size];
+        try (InputStream inputStream = part.getInputStream()) {
+            int offset = 0;
+            while (offset < content.length) {
+                int bytesRead = inputStream.read(content, offset, content.length - offset);
+                if (bytesRead == -1) {
+                    break;
+                }
+                offset += bytesRead;
             }
-            
-            return outputStream.toByteArray();
+            return offset == content.length ? content : Arrays.copyOf(content, offset);
+        }
+    }
+
+    /**
+     * Indique si la requête est de type multipart/form-data.
+     */
+    public static boolean isMultipart(HttpServletRequest request) {
+        String contentType = request.getContentType();
+        return contentType != null && contentType.toLowerCase().contains("multipart/form-data");
+    }
+
+    /**
+     * Enregistre une partie uploadée dans le fichier cible sans la charger en mémoire.
+     * Part.write permet au conteneur de simplement déplacer le fichier temporaire
+     * quand la partie a déjà été écrite sur disque; si Part.write échoue, le contenu est
+     * copié en flux (REPLACE_EXISTING: toTempFile a déjà créé le fichier cible).
+     *
+     * @param part La partie à enregistrer
+     * @param target Le fichier de destination (remplacé s'il existe)
+     */
+    public static void saveTo(Part part, Path target) throws IOException {
+        Path absolute = target.toAbsolutePath();
+        try {
+            part.write(absolute.toString());
+            return;
+        } catch (IOException | RuntimeException e) {
+            // repli sur une copie en flux
+        }
+        try (InputStream in = part.getInputStream()) {
+            Files.copy(in, absolute, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Enregistre une partie dans un fichier temporaire supprimé en fin de requête
+     * (voir {@link #releaseRequestResources(HttpServletRequest)}).
+     */
+    public static Path toTempFile(HttpServletRequest request, Part part) throws IOException {
+        Object tempDir = request.getServletContext().getAttribute(ServletContext.TEMPDIR);
+        Path dir = tempDir instanceof File ? ((File) tempDir).toPath() : Paths.get(System.getProperty("java.io.tmpdir"));
+        Path temp = Files.createTempFile(dir, "upload-", ".tmp");
+        registerRequestResource(request, temp);
+        saveTo(part, temp);
+        return temp;
+    }
+
+    /**
+     * Stocke une partie dans le store adressé par contenu (SHA-256 calculé pendant l'écriture,
+     * déduplication des contenus identiques) et retourne sa référence.
+     */
+    public static StoredBlob storeContentAddressed(HttpServletRequest request, Part part) throws IOException {
+        Object store = request.getServletContext().getAttribute(ContentAddressedStore.CONTEXT_ATTRIBUTE);
+        if (!(store instanceof ContentAddressedStore)) {
+            throw new IOException("Store adressé par contenu non activé (framework.upload.blobStore.dir)");
+        }
+        try (InputStream in = part.getInputStream()) {
+            return ((ContentAddressedStore) store).store(in);
+        }
+    }
+
+    /**
+     * Ouvre un flux sur une partie; le flux est fermé en fin de requête s'il ne l'a pas été.
+     */
+    public static InputStream openStream(HttpServletRequest request, Part part) throws IOException {
+        InputStream in = part.getInputStream();
+        registerRequestResource(request, in);
+        return in;
+    }
+
+    /**
+     * Supprime les fichiers temporaires et ferme les flux créés pour la requête.
+     * Appelé par le framework à la fin de chaque requête.
+     */
+    public static void releaseRequestResources(HttpServletRequest request) {
+        @SuppressWarnings("unchecked")
+        List<Object> resources = (List<Object>) request.getAttribute(RESOURCES_ATTRIBUTE);
+        if (resources == null) {
+            return;
+        }
+        request.removeAttribute(RESOURCES_ATTRIBUTE);
+        for (Object resource : resources) {
+            try {
+                if (resource instanceof Path) {
+                    Files.deleteIfExists((Path) resource);
+                } else if (resource instanceof Closeable) {
+                    ((Closeable) resource).close();
+                }
+            } catch (IOException e) {
+                LOG.warn("Erreur lors de la libération de " + resource + ": " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Enregistre un fichier (supprimé) ou un flux (fermé) à libérer en fin de requête.
+     */
+    public static void registerRequestResource(HttpServletRequest request, Object resource) {
+        @SuppressWarnings("unchecked")
+        List<Object> resources = (List<Object>) request.getAttribute(RESOURCES_ATTRIBUTE);
+        if (resources == null) {
+            resources = new ArrayList<>();
+            request.setAttribute(RESOURCES_ATTRIBUTE, resources);
         }
+        resources.add(resource);
     }
     
     /**
@@ -78,16 +202,14 @@ public class FileUploadHandler {
      */
     public static byte[] extractSingleFile(HttpServletRequest request, String fieldName) {
         try {
-            String contentType = request.getContentType();
-            if (contentType != null && contentType.toLowerCase().contains("multipart/form-data")) {
+            if (isMultipart(request)) {
                 Part part = request.getPart(fieldName);
                 if (part != null && part.getSubmittedFileName() != null) {
                     return readPartContent(part);
                 }
             }
         } catch (Exception e) {
-            System.err.println("Erreur lors de l'extraction du fichier '" + fieldName + "': " + e.getMessage());
-            e.printStackTrace();
+            LOG.error("Erreur lors de l'extraction du fichier '" + fieldName + "': " + e.getMessage(), e);
         }
         return null;
     }
@@ -106,7 +228,7 @@ public class FileUploadHandler {
                 return part.getSubmittedFileName();
             }
         } catch (Exception e) {
-            System.err.println("Erreur lors de la récupération du nom de fichier: " + e.getMessage());
+            LOG.warn("Erreur lors de la récupération du nom de fichier: " + e.getMessage());
         }
         return null;
     }
@@ -0,0 +1,14 @@
+package com.monframework.core.util.FileUpload;
+
+import java.io.IOException;
+
+/**
+ * Erreur de format ou dépassement de limite lors du parsing d'un corps multipart.
+ */
+public class MultipartException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    public MultipartException(String message) {
+        super(message);
+    }
+}
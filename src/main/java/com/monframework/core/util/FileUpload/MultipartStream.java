@@ -0,0 +1,417 @@
+package com.monframework.core.util.FileUpload;
+
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.monframework.core.util.Annotation.MultipartLimits;
+import com.monframework.core.util.AsyncIO.BufferPool;
+
+/**
+ * Parseur multipart/form-data en flux, alternative à request.getParts().
+ *
+ * Le corps est lu une seule fois depuis request.getInputStream() dans un tampon du
+ * BufferPool; les délimiteurs sont trouvés par Boyer-Moore-Horspool. Chaque partie est
+ * exposée comme un flux pendant qu'elle arrive: rien n'est mis en mémoire ni écrit sur
+ * disque avant que le contrôleur ne le demande. Les limites sont celles de la route
+ * ({@link MultipartLimits}) et non celles du MultipartConfig de FrontServlet.
+ *
+ * Le corps ne peut être lu qu'une fois: si le conteneur l'a déjà analysé (request.getParts(),
+ * getPart() ou getParameter() sur une requête multipart, FrontServlet ayant un MultipartConfig),
+ * {@link #open} refuse avec une MultipartException au lieu de rendre un flux vide.
+ *
+ * Les parties doivent être lues dans l'ordre; appeler {@link #next()} ignore le reste
+ * de la partie courante.
+ *
+ * Exemple:
+ * <pre>
+ * {@literal @}PostRequest("import")
+ * {@literal @}MultipartLimits(maxPartSize = 500L * 1024 * 1024, maxRequestSize = 500L * 1024 * 1024)
+ * public String importer(MultipartStream multipart) throws IOException {
+ *     MultipartStream.StreamingPart part;
+ *     while ((part = multipart.next()) != null) {
+ *         if (part.isFile()) part.transferTo(Paths.get("/data/imports", part.getSubmittedFileName()));
+ *     }
+ *     return "ok";
+ * }
+ * </pre>
+ */
+public class MultipartStream implements Closeable {
+
+    private final InputStream in;
+    private final BoundaryScanner scanner;
+    private final BufferPool pool;
+    private final long maxPartSize;
+    private final long maxRequestSize;
+    private final int maxParts;
+    private final int maxHeaderSize;
+
+    private byte[] buffer;
+    private int head;
+    private int tail;
+    private boolean eof;
+    private long totalRead;
+    private int partCount;
+    private boolean started;
+    private boolean finished;
+    private StreamingPart current;
+
+    MultipartStream(InputStream in, String boundary, BufferPool pool, long maxPartSize, long maxRequestSize,
+                    int maxParts, int maxHeaderSize) throws MultipartException {
+        this.in = in;
+        this.scanner = new BoundaryScanner(("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1));
+        this.pool = pool;
+        this.maxPartSize = maxPartSize;
+        this.maxRequestSize = maxRequestSize;
+        this.maxParts = maxParts;
+        this.maxHeaderSize = maxHeaderSize;
+        this.buffer = pool.acquire();
+        if (buffer.length < 4 * scanner.length()) {
+            pool.release(buffer);
+            throw new MultipartException("Délimiteur multipart trop long");
+        }
+        // Le premier délimiteur n'est pas précédé de CRLF: on le simule pour une recherche uniforme
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    /**
+     * Ouvre le parseur sur le corps de la requête. Le flux est libéré automatiquement
+     * en fin de requête.
+     *
+     * @param limits limites de la route, ou null pour les limites par défaut
+     */
+    public static MultipartStream open(HttpServletRequest request, MultipartLimits limits) throws IOException {
+        String contentType = request.getContentType();
+        String boundary = contentType == null ? null : headerParam(contentType, "boundary");
+        if (!FileUploadHandler.isMultipart(request) || boundary == null || boundary.isEmpty()) {
+            throw new MultipartException("La requête n'est pas de type multipart/form-data");
+        }
+        long maxPartSize = limits != null ? limits.maxPartSize() : 1024L * 1024 * 10;
+        long maxRequestSize = limits != null ? limits.maxRequestSize() : 1024L * 1024 * 50;
+        int maxParts = limits != null ? limits.maxParts() : 100;
+        int maxHeaderSize = limits != null ? limits.maxHeaderSize() : 8 * 1024;
+        if (maxRequestSize >= 0 && request.getContentLengthLong() > maxRequestSize) {
+            throw new MultipartException("Requête trop volumineuse: " + request.getContentLengthLong() + " octets");
+        }
+        ServletInputStream in = request.getInputStream();
+        if (request.getContentLengthLong() != 0 && isConsumed(in)) {
+            throw new MultipartException("Corps multipart déjà lu par le conteneur (getParts/getPart/getParameter): "
+                    + "MultipartStream doit être le seul accès au corps de la requête");
+        }
+        MultipartStream stream = new MultipartStream(in, boundary, BufferPool.shared(),
+                maxPartSize, maxRequestSize, maxParts, maxHeaderSize);
+        FileUploadHandler.registerRequestResource(request, stream);
+        return stream;
+    }
+
+    private static boolean isConsumed(ServletInputStream in) {
+        try {
+            return in.isFinished();
+        } catch (IllegalStateException | UnsupportedOperationException e) {
+            return false; // conteneur qui ne le sait pas hors mode asynchrone
+        }
+    }
+
+    /**
+     * Passe à la partie suivante.
+     *
+     * @return la partie, ou null s'il n'y en a plus
+     */
+    public StreamingPart next() throws IOException {
+        if (buffer == null) {
+            throw new IOException("MultipartStream fermé");
+        }
+        if (current != null) {
+            current.skipRemaining();
+            current = null;
+        }
+        if (!started) {
+            skipPreamble();
+            started = true;
+        }
+        if (finished) {
+            return null;
+        }
+        if (maxParts >= 0 && ++partCount > maxParts) {
+            throw new MultipartException("Nombre de parties supérieur à " + maxParts);
+        }
+        current = new StreamingPart(readHeaders());
+        return current;
+    }
+
+    @Override
+    public void close() {
+        finished = true;
+        if (buffer != null) {
+            pool.release(buffer);
+            buffer = null;
+        }
+    }
+
+    private void skipPreamble() throws IOException {
+        while (true) {
+            int idx = scanner.indexOf(buffer, head, tail);
+            if (idx >= 0) {
+                head = idx + scanner.length();
+                afterDelimiter();
+                return;
+            }
+            if (eof) {
+                throw new MultipartException("Aucun délimiteur multipart trouvé");
+            }
+            head = Math.max(head, tail - (scanner.length() - 1));
+            fill();
+        }
+    }
+
+    /**
+     * Après un délimiteur: "--" termine le corps, sinon CRLF précède les en-têtes.
+     */
+    private void afterDelimiter() throws IOException {
+        ensure(2);
+        if (buffer[head] == '-' && buffer[head + 1] == '-') {
+            head += 2;
+            finished = true;
+            return;
+        }
+        // bourrage de transport autorisé par la RFC 2046
+        while (true) {
+            ensure(1);
+            if (buffer[head] != ' ' && buffer[head] != '\t') break;
+            head++;
+        }
+        ensure(2);
+        if (buffer[head] != '\r' || buffer[head + 1] != '\n') {
+            throw new MultipartException("Délimiteur multipart mal formé");
+        }
+        head += 2;
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new LinkedHashMap<>();
+        int headerBytes = 0;
+        while (true) {
+            int before = head;
+            String line = readLine();
+            headerBytes += head - before;
+            if (headerBytes > maxHeaderSize) {
+                throw new MultipartException("En-têtes de partie supérieurs à " + maxHeaderSize + " octets");
+            }
+            if (line.isEmpty()) {
+                return headers;
+            }
+            int colon = line.indexOf(':');
+            if (colon > 0) {
+                headers.put(line.substring(0, colon).trim().toLowerCase(), line.substring(colon + 1).trim());
+            }
+        }
+    }
+
+    private String readLine() throws IOException {
+        int scanned = 0; // octets déjà examinés depuis head
+        while (true) {
+            for (int i = head + scanned; i < tail - 1; i++) {
+                if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                    String line = new String(buffer, head, i - head, StandardCharsets.UTF_8);
+                    head = i + 2;
+                    return line;
+                }
+            }
+            scanned = Math.max(0, tail - head - 1);
+            if (tail - head >= Math.min(maxHeaderSize, buffer.length - 1)) {
+                throw new MultipartException("En-tête de partie trop long");
+            }
+            if (eof) {
+                throw new MultipartException("Corps multipart tronqué dans les en-têtes");
+            }
+            fill();
+        }
+    }
+
+    /**
+     * Lit ou ignore (b == null) des données de la partie courante.
+     *
+     * @return le nombre d'octets, ou -1 à la fin de la partie
+     */
+    private int readPart(StreamingPart part, byte[] b, int off, int len) throws IOException {
+        if (part.done) {
+            return -1;
+        }
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            int idx = scanner.indexOf(buffer, head, tail);
+            int available = idx >= 0 ? idx - head : Math.max(0, tail - head - (scanner.length() - 1));
+            if (available > 0) {
+                int n = Math.min(len, available);
+                if (b != null) {
+                    System.arraycopy(buffer, head, b, off, n);
+                }
+                head += n;
+                part.size += n;
+                if (maxPartSize >= 0 && part.size > maxPartSize) {
+                    throw new MultipartException("Partie '" + part.getName() + "' supérieure à " + maxPartSize + " octets");
+                }
+                return n;
+            }
+            if (idx >= 0) {
+                head = idx + scanner.length();
+                part.done = true;
+                afterDelimiter();
+                return -1;
+            }
+            if (eof) {
+                throw new MultipartException("Corps multipart tronqué");
+            }
+            fill();
+        }
+    }
+
+    private void ensure(int n) throws IOException {
+        while (tail - head < n) {
+            if (eof) {
+                throw new MultipartException("Corps multipart tronqué");
+            }
+            fill();
+        }
+    }
+
+    private void fill() throws IOException {
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int n = in.read(buffer, tail, buffer.length - tail);
+        if (n < 0) {
+            eof = true;
+            return;
+        }
+        tail += n;
+        totalRead += n;
+        if (maxRequestSize >= 0 && totalRead > maxRequestSize) {
+            throw new MultipartException("Requête supérieure à " + maxRequestSize + " octets");
+        }
+    }
+
+    /**
+     * Extrait un paramètre d'un en-tête (ex: name="fichier" dans Content-Disposition).
+     */
+    static String headerParam(String header, String param) {
+        for (String segment : header.split(";")) {
+            String s = segment.trim();
+            if (s.length() > param.length() && s.regionMatches(true, 0, param + "=", 0, param.length() + 1)) {
+                String value = s.substring(param.length() + 1).trim();
+                if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                    value = value.substring(1, value.length() - 1).replace("\\\"", "\"");
+                }
+                return value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Partie en cours de réception.
+     */
+    public class StreamingPart {
+        private final Map<String, String> headers;
+        private final InputStream stream = new PartInputStream();
+        private long size;
+        private boolean done;
+
+        StreamingPart(Map<String, String> headers) {
+            this.headers = headers;
+        }
+
+        /** Nom du champ du formulaire. */
+        public String getName() {
+            String disposition = headers.get("content-disposition");
+            return disposition == null ? null : headerParam(disposition, "name");
+        }
+
+        /** Nom du fichier envoyé, ou null pour un champ texte. */
+        public String getSubmittedFileName() {
+            String disposition = headers.get("content-disposition");
+            return disposition == null ? null : headerParam(disposition, "filename");
+        }
+
+        public boolean isFile() {
+            return getSubmittedFileName() != null;
+        }
+
+        public String getContentType() {
+            return headers.get("content-type");
+        }
+
+        public String getHeader(String name) {
+            return headers.get(name.toLowerCase());
+        }
+
+        public Map<String, String> getHeaders() {
+            return Collections.unmodifiableMap(headers);
+        }
+
+        /** Octets déjà lus de cette partie. */
+        public long getBytesRead() {
+            return size;
+        }
+
+        /** Flux du contenu; se termine au délimiteur suivant. */
+        public InputStream getInputStream() {
+            return stream;
+        }
+
+        /** Lit entièrement un champ texte (UTF-8). */
+        public String getString() throws IOException {
+            java.io.ByteArrayOutputStream out = new java.io.ByteArrayOutputStream();
+            byte[] chunk = new byte[1024];
+            int n;
+            while ((n = stream.read(chunk)) != -1) {
+                out.write(chunk, 0, n);
+            }
+            return new String(out.toByteArray(), StandardCharsets.UTF_8);
+        }
+
+        /** Écrit le reste de la partie dans un fichier, en flux. */
+        public long transferTo(Path target) throws IOException {
+            return Files.copy(stream, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+
+        void skipRemaining() throws IOException {
+            while (readPart(this, null, 0, Integer.MAX_VALUE) != -1) {
+                // on avance jusqu'au délimiteur
+            }
+        }
+
+        private class PartInputStream extends InputStream {
+            private final byte[] one = new byte[1];
+
+            @Override
+            public int read() throws IOException {
+                int n = read(one, 0, 1);
+                return n == -1 ? -1 : one[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+                if (current != StreamingPart.this) {
+                    return -1;
+                }
+                return readPart(StreamingPart.this, b, off, len);
+            }
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.monframework.core.util.FileUpload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Protocole d'upload reprenable, inspiré de tus (https://tus.io), servi par FrontServlet
+ * sous un chemin configurable (framework.upload.resumable.path).
+ *
+ * <ul>
+ *   <li>{@code POST <base>} avec {@code Upload-Length} (et {@code Upload-Metadata: filename <base64>})
+ *       crée la session: 201 + {@code Location: <base>/<id>}</li>
+ *   <li>{@code HEAD <base>/<id>}: progression via {@code Upload-Offset} / {@code Upload-Length}</li>
+ *   <li>{@code PATCH <base>/<id>} avec {@code Upload-Offset} et un corps
+ *       {@code application/offset+octet-stream}: ajoute un fragment, 204 + nouvel offset
+ *       (409 si l'offset ne correspond pas)</li>
+ *   <li>{@code DELETE <base>/<id>}: abandonne l'upload</li>
+ * </ul>
+ *
+ * Une fois l'upload complet, le client appelle la route du contrôleur avec l'identifiant;
+ * le contrôleur reçoit le fichier assemblé via un paramètre {@code @ResumableUpload Path}.
+ */
+public class ResumableUploadHandler {
+
+    /** Attribut du ServletContext contenant le handler actif. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.resumableUploads";
+
+    private static final String TUS_VERSION = "1.0.0";
+
+    private final String basePath;
+    private final ResumableUploadStore store;
+
+    public ResumableUploadHandler(String basePath, ResumableUploadStore store) {
+        this.basePath = basePath.endsWith("/") ? basePath.substring(0, basePath.length() - 1) : basePath;
+        this.store = store;
+    }
+
+    public ResumableUploadStore getStore() {
+        return store;
+    }
+
+    public boolean handles(String resourcePath) {
+        return resourcePath.equals(basePath) || resourcePath.startsWith(basePath + "/");
+    }
+
+    public void service(HttpServletRequest request, HttpServletResponse response, String resourcePath) throws IOException {
+        response.setHeader("Tus-Resumable", TUS_VERSION);
+        String method = request.getMethod();
+        String id = resourcePath.length() > basePath.length() + 1 ? resourcePath.substring(basePath.length() + 1) : null;
+
+        if (id == null) {
+            if ("POST".equals(method)) {
+                create(request, response);
+            } else if ("OPTIONS".equals(method)) {
+                response.setHeader("Tus-Version", TUS_VERSION);
+                response.setHeader("Tus-Max-Size", Long.toString(store.getMaxLength()));
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            } else {
+                response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+            }
+            return;
+        }
+
+        ResumableUploadStore.UploadInfo info = store.info(id);
+        if (info == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if ("HEAD".equals(method)) {
+            response.setHeader("Cache-Control", "no-store");
+            writeProgress(response, info.getOffset(), info.getLength());
+            response.setStatus(HttpServletResponse.SC_OK);
+        } else if ("PATCH".equals(method)) {
+            append(request, response, info);
+        } else if ("DELETE".equals(method)) {
+            try {
+                store.delete(id);
+                response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+            } catch (IllegalStateException e) {
+                response.sendError(HttpServletResponse.SC_CONFLICT, e.getMessage());
+            }
+        } else {
+            response.sendError(HttpServletResponse.SC_METHOD_NOT_ALLOWED);
+        }
+    }
+
+    private void create(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        long length = parseLong(request.getHeader("Upload-Length"));
+        if (length < 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "En-tête Upload-Length manquant ou invalide");
+            return;
+        }
+        if (length > store.getMaxLength()) {
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        }
+        String id = store.create(length, metadataValue(request.getHeader("Upload-Metadata"), "filename"));
+        response.setHeader("Location", request.getContextPath() + basePath + "/" + id);
+        writeProgress(response, 0, length);
+        response.setStatus(HttpServletResponse.SC_CREATED);
+    }
+
+    private void append(HttpServletRequest request, HttpServletResponse response,
+                        ResumableUploadStore.UploadInfo info) throws IOException {
+        String contentType = request.getContentType();
+        if (contentType == null || !contentType.toLowerCase().startsWith("application/offset+octet-stream")) {
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            return;
+        }
+        long offset = parseLong(request.getHeader("Upload-Offset"));
+        if (offset < 0) {
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST, "En-tête Upload-Offset manquant ou invalide");
+            return;
+        }
+        try {
+            long newOffset = store.append(info.getId(), offset, request.getInputStream());
+            writeProgress(response, newOffset, info.getLength());
+            response.setStatus(HttpServletResponse.SC_NO_CONTENT);
+        } catch (IllegalStateException e) {
+            writeProgress(response, info.getOffset(), info.getLength());
+            response.sendError(HttpServletResponse.SC_CONFLICT, e.getMessage());
+        }
+    }
+
+    private static void writeProgress(HttpServletResponse response, long offset, long length) {
+        response.setHeader("Upload-Offset", Long.toString(offset));
+        response.setHeader("Upload-Length", Long.toString(length));
+    }
+
+    private static long parseLong(String value) {
+        if (value == null) return -1;
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Upload-Metadata: liste "clé valeurBase64" séparée par des virgules.
+     */
+    private static String metadataValue(String header, String key) {
+        if (header == null) return null;
+        for (String pair : header.split(",")) {
+            String[] kv = pair.trim().split(" ", 2);
+            if (kv.length == 2 && kv[0].equals(key)) {
+                try {
+                    String value = new String(Base64.getDecoder().decode(kv[1].trim()), StandardCharsets.UTF_8);
+                    // seul le nom de fichier est conservé, jamais un chemin
+                    return value.replaceAll(".*[/\\\\]", "");
+                } catch (IllegalArgumentException e) {
+                    return null;
+                }
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,253 @@
+package com.monframework.core.util.FileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.SecureRandom;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+import com.monframework.core.util.AsyncIO.BufferPool;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Stockage local, sur fichiers, des uploads reprenables.
+ *
+ * Chaque upload est représenté par deux fichiers dans le répertoire de stockage:
+ * {@code <id>.bin} (les données, écrites par positions via FileChannel) et
+ * {@code <id>.info} (longueur attendue, offset atteint, nom du fichier).
+ * L'état survit à un redémarrage du serveur.
+ */
+public class ResumableUploadStore {
+
+    private static final Logger LOG = Logger.get(ResumableUploadStore.class);
+
+    private static final Pattern ID_PATTERN = Pattern.compile("^[0-9a-f]{32}$");
+
+    private final Path directory;
+    private final long maxLength;
+    private final long expireMillis;
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Boolean> busy = new ConcurrentHashMap<>();
+
+    /**
+     * État d'un upload.
+     */
+    public static class UploadInfo {
+        private final String id;
+        private final long length;
+        private final long offset;
+        private final String fileName;
+
+        UploadInfo(String id, long length, long offset, String fileName) {
+            this.id = id;
+            this.length = length;
+            this.offset = offset;
+            this.fileName = fileName;
+        }
+
+        public String getId() { return id; }
+        public long getLength() { return length; }
+        public long getOffset() { return offset; }
+        public String getFileName() { return fileName; }
+        public boolean isComplete() { return offset >= length; }
+    }
+
+    public ResumableUploadStore(Path directory, long maxLength, long expireMillis) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.maxLength = maxLength;
+        this.expireMillis = expireMillis;
+    }
+
+    public long getMaxLength() {
+        return maxLength;
+    }
+
+    /**
+     * Crée une session d'upload.
+     *
+     * @param length taille totale annoncée par le client
+     * @param fileName nom du fichier (optionnel)
+     * @return l'identifiant de l'upload
+     */
+    public String create(long length, String fileName) throws IOException {
+        if (length < 0 || length > maxLength) {
+            throw new IllegalArgumentException("Taille d'upload invalide: " + length);
+        }
+        purgeExpired();
+        byte[] bytes = new byte[16];
+        random.nextBytes(bytes);
+        StringBuilder id = new StringBuilder();
+        for (byte b : bytes) {
+            id.append(String.format("%02x", b & 0xFF));
+        }
+        Files.createFile(dataFile(id.toString()));
+        writeInfo(new UploadInfo(id.toString(), length, 0, fileName));
+        return id.toString();
+    }
+
+    /**
+     * @return l'état de l'upload, ou null s'il n'existe pas
+     */
+    public UploadInfo info(String id) throws IOException {
+        if (!isValidId(id)) {
+            return null;
+        }
+        Path infoFile = infoFile(id);
+        if (!Files.exists(infoFile)) {
+            return null;
+        }
+        Properties props = new Properties();
+        try (Reader reader = Files.newBufferedReader(infoFile, StandardCharsets.UTF_8)) {
+            props.load(reader);
+        }
+        long offset = Long.parseLong(props.getProperty("offset", "0"));
+        // après un arrêt brutal, seules les données réellement écrites comptent
+        offset = Math.min(offset, Files.size(dataFile(id)));
+        return new UploadInfo(id, Long.parseLong(props.getProperty("length")), offset, props.getProperty("fileName"));
+    }
+
+    /**
+     * Ajoute un fragment à partir de l'offset donné.
+     *
+     * @return le nouvel offset
+     * @throws IllegalStateException si l'offset ne correspond pas, ou si un autre fragment est en cours d'écriture
+     */
+    public long append(String id, long offset, InputStream in) throws IOException {
+        if (busy.putIfAbsent(id, Boolean.TRUE) != null) {
+            throw new IllegalStateException("Un fragment est déjà en cours d'écriture pour " + id);
+        }
+        try {
+            UploadInfo info = info(id);
+            if (info == null) {
+                throw new IOException("Upload inconnu: " + id);
+            }
+            if (info.getOffset() != offset) {
+                throw new IllegalStateException("Offset attendu " + info.getOffset() + ", reçu " + offset);
+            }
+            long position = offset;
+            byte[] chunk = BufferPool.shared().acquire();
+            try (FileChannel channel = FileChannel.open(dataFile(id), StandardOpenOption.WRITE)) {
+                int n;
+                while (position < info.getLength()
+                        && (n = in.read(chunk, 0, (int) Math.min(chunk.length, info.getLength() - position))) != -1) {
+                    ByteBuffer src = ByteBuffer.wrap(chunk, 0, n);
+                    while (src.hasRemaining()) {
+                        position += channel.write(src, position);
+                    }
+                }
+                channel.force(false);
+            } finally {
+                BufferPool.shared().release(chunk);
+                // l'offset est enregistré même si le client a coupé en cours de fragment
+                writeInfo(new UploadInfo(id, info.getLength(), position, info.getFileName()));
+            }
+            return position;
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Finalise un upload complet: l'état est supprimé et le fichier assemblé retourné.
+     * Le fichier appartient ensuite à l'appelant.
+     *
+     * Prend le même verrou que {@link #append}: un fragment ne peut pas s'écrire dans un
+     * fichier déjà remis à l'appelant.
+     *
+     * @return le fichier assemblé, ou null si l'upload n'existe pas, n'est pas complet ou
+     *         reçoit encore un fragment
+     */
+    public Path finish(String id) throws IOException {
+        if (!isValidId(id) || busy.putIfAbsent(id, Boolean.TRUE) != null) {
+            return null;
+        }
+        try {
+            UploadInfo info = info(id);
+            if (info == null || !info.isComplete()) {
+                return null;
+            }
+            Files.deleteIfExists(infoFile(id));
+            return dataFile(id);
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Supprime un upload. Prend le même verrou que {@link #append} et {@link #finish}.
+     *
+     * @throws IllegalStateException si un fragment est en cours d'écriture ou si l'upload est en cours de finalisation
+     */
+    public void delete(String id) throws IOException {
+        if (!isValidId(id)) {
+            return;
+        }
+        if (busy.putIfAbsent(id, Boolean.TRUE) != null) {
+            throw new IllegalStateException("Upload " + id + " en cours d'écriture");
+        }
+        try {
+            Files.deleteIfExists(infoFile(id));
+            Files.deleteIfExists(dataFile(id));
+        } finally {
+            busy.remove(id);
+        }
+    }
+
+    /**
+     * Supprime les uploads non terminés et abandonnés depuis plus longtemps que le délai d'expiration.
+     */
+    public void purgeExpired() {
+        long limit = System.currentTimeMillis() - expireMillis;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*.info")) {
+            for (Path infoFile : files) {
+                if (Files.getLastModifiedTime(infoFile).toMillis() < limit) {
+                    String name = infoFile.getFileName().toString();
+                    try {
+                        delete(name.substring(0, name.length() - ".info".length()));
+                    } catch (IllegalStateException e) {
+                        // fragment en cours: l'upload n'est plus abandonné
+                    }
+                }
+            }
+        } catch (IOException e) {
+            LOG.warn("Purge des uploads expirés impossible: " + e.getMessage());
+        }
+    }
+
+    private void writeInfo(UploadInfo info) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("length", Long.toString(info.getLength()));
+        props.setProperty("offset", Long.toString(info.getOffset()));
+        if (info.getFileName() != null) {
+            props.setProperty("fileName", info.getFileName());
+        }
+        Path tmp = directory.resolve(info.getId() + ".info.tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        Files.move(tmp, infoFile(info.getId()), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static boolean isValidId(String id) {
+        return id != null && ID_PATTERN.matcher(id).matches();
+    }
+
+    private Path dataFile(String id) {
+        return directory.resolve(id + ".bin");
+    }
+
+    private Path infoFile(String id) {
+        return directory.resolve(id + ".info");
+    }
+}
@@ -0,0 +1,43 @@
+package com.monframework.core.util.FileUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Référence vers un contenu stocké dans le ContentAddressedStore, identifié par son SHA-256.
+ */
+public class StoredBlob {
+    private final String digest;
+    private final long size;
+    private final Path path;
+    private final boolean deduplicated;
+
+    StoredBlob(String digest, long size, Path path, boolean deduplicated) {
+        this.digest = digest;
+        this.size = size;
+        this.path = path;
+        this.deduplicated = deduplicated;
+    }
+
+    /** Empreinte SHA-256 en hexadécimal (minuscules). */
+    public String getDigest() { return digest; }
+
+    public long getSize() { return size; }
+
+    /** Emplacement du contenu dans le store (à ne pas modifier ni supprimer). */
+    public Path getPath() { return path; }
+
+    /** true si le contenu existait déjà: aucune nouvelle copie n'a été conservée. */
+    public boolean isDeduplicated() { return deduplicated; }
+
+    public InputStream openStream() throws IOException {
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public String toString() {
+        return "StoredBlob{sha256=" + digest + ", size=" + size + (deduplicated ? ", deduplicated" : "") + "}";
+    }
+}
@@ -0,0 +1,58 @@
+package com.monframework.core.util.FileUpload;
+
+import jakarta.servlet.http.HttpServletRequest;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Plafond global sur le volume d'uploads en cours de traitement.
+ * Chaque requête multipart réserve sa taille (Content-Length, ou la taille maximale
+ * de requête si elle est inconnue) et la libère à la fin de la requête.
+ */
+public class UploadLimiter {
+
+    /** Attribut du ServletContext contenant le limiteur actif. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.uploadLimiter";
+
+    private final long maxInFlightBytes;
+    private final long unknownLengthReservation;
+    private final AtomicLong inFlight = new AtomicLong();
+
+    public UploadLimiter(long maxInFlightBytes, long unknownLengthReservation) {
+        this.maxInFlightBytes = maxInFlightBytes;
+        this.unknownLengthReservation = unknownLengthReservation;
+    }
+
+    /**
+     * Réserve le volume de la requête.
+     *
+     * @return le nombre d'octets réservés (à rendre via release), ou -1 si le plafond serait dépassé
+     */
+    public long reserve(HttpServletRequest request) {
+        long length = request.getContentLengthLong();
+        long bytes = length > 0 ? length : unknownLengthReservation;
+        while (true) {
+            long current = inFlight.get();
+            // une requête seule est toujours admise (sa taille est déjà bornée par le MultipartConfig)
+            if (current + bytes > maxInFlightBytes && current > 0) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(current, current + bytes)) {
+                return bytes;
+            }
+        }
+    }
+
+    public void release(long bytes) {
+        if (bytes > 0) {
+            inFlight.addAndGet(-bytes);
+        }
+    }
+
+    public long getInFlightBytes() {
+        return inFlight.get();
+    }
+
+    public long getMaxInFlightBytes() {
+        return maxInFlightBytes;
+    }
+}
@@ -0,0 +1,31 @@
+package com.monframework.core.util.Finder;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * Informations lues directement dans un fichier .class, sans charger la classe.
+ */
+public class ClassFileInfo {
+    private final String className;
+    private final Set<String> annotationDescriptors;
+
+    ClassFileInfo(String className, Set<String> annotationDescriptors) {
+        this.className = className;
+        this.annotationDescriptors = annotationDescriptors;
+    }
+
+    /** Nom binaire de la classe (ex: com.exemple.MonControleur, com.exemple.A$B). */
+    public String getClassName() {
+        return className;
+    }
+
+    /** Descripteurs des annotations visibles à l'exécution portées par la classe (ex: Lcom/exemple/Ann;). */
+    public Set<String> getAnnotationDescriptors() {
+        return Collections.unmodifiableSet(annotationDescriptors);
+    }
+
+    public boolean hasAnnotation(String descriptor) {
+        return annotationDescriptors.contains(descriptor);
+    }
+}
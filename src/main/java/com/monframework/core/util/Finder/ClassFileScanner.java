@@ -0,0 +1,228 @@
+package com.monframework.core.util.Finder;
+
+import java.io.IOException;
+import java.lang.annotation.Annotation;
+import java.nio.ByteBuffer;
+import java.nio.BufferUnderflowException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Lecture du format .class (constant pool et attribut RuntimeVisibleAnnotations)
+ * pour savoir si une classe porte une annotation, sans la charger ni la lier.
+ *
+ * Le fichier est mappé en mémoire et seules les entrées utiles du constant pool sont
+ * décodées. Si le descripteur recherché n'apparaît pas dans le constant pool, la lecture
+ * s'arrête là: c'est le cas de la très grande majorité des classes d'une application.
+ */
+public final class ClassFileScanner {
+
+    private static final int MAGIC = 0xCAFEBABE;
+
+    private ClassFileScanner() {
+    }
+
+    /**
+     * @return le descripteur JVM d'une annotation (ex: Lcom/exemple/Ann;)
+     */
+    public static String descriptorOf(Class<? extends Annotation> annotationType) {
+        return "L" + annotationType.getName().replace('.', '/') + ";";
+    }
+
+    /**
+     * Lit un fichier .class et retourne ses informations si la classe porte l'annotation
+     * demandée, sinon null.
+     */
+    public static ClassFileInfo readIfAnnotated(Path classFile, String annotationDescriptor) throws IOException {
+        try (FileChannel channel = FileChannel.open(classFile, StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            ClassFileInfo info = parse(buffer, annotationDescriptor);
+            return info != null && info.hasAnnotation(annotationDescriptor) ? info : null;
+        }
+    }
+
+    /**
+     * Lit un fichier .class complet (nom et annotations de classe).
+     */
+    public static ClassFileInfo read(Path classFile) throws IOException {
+        try (FileChannel channel = FileChannel.open(classFile, StandardOpenOption.READ)) {
+            return parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), null);
+        }
+    }
+
+    /**
+     * Analyse le contenu d'un fichier .class.
+     *
+     * @param requiredDescriptor si non null, retourne null dès que le constant pool
+     *                           montre que ce descripteur ne peut pas être présent
+     */
+    public static ClassFileInfo parse(ByteBuffer buffer, String requiredDescriptor) throws IOException {
+        try {
+            return doParse(buffer.duplicate(), requiredDescriptor);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw new IOException("Fichier .class invalide", e);
+        }
+    }
+
+    private static ClassFileInfo doParse(ByteBuffer in, String requiredDescriptor) throws IOException {
+        if (in.getInt() != MAGIC) {
+            throw new IOException("Fichier .class invalide (magic)");
+        }
+        in.getShort(); // minor
+        in.getShort(); // major
+        int count = in.getShort() & 0xFFFF;
+        // positions des entrées Utf8 (et index Utf8 des entrées Class)
+        int[] offsets = new int[count];
+        byte[] tags = new byte[count];
+        byte[] required = requiredDescriptor != null ? requiredDescriptor.getBytes(StandardCharsets.UTF_8) : null;
+        boolean requiredSeen = required == null;
+        for (int i = 1; i < count; i++) {
+            byte tag = in.get();
+            tags[i] = tag;
+            offsets[i] = in.position();
+            switch (tag) {
+                case 1: { // Utf8
+                    int length = in.getShort() & 0xFFFF;
+                    if (!requiredSeen && length == required.length && equalsAt(in, in.position(), required)) {
+                        requiredSeen = true;
+                    }
+                    in.position(in.position() + length);
+                    break;
+                }
+                case 7: case 8: case 16: case 19: case 20: // Class, String, MethodType, Module, Package
+                    in.position(in.position() + 2);
+                    break;
+                case 15: // MethodHandle
+                    in.position(in.position() + 3);
+                    break;
+                case 3: case 4: case 9: case 10: case 11: case 12: case 17: case 18:
+                    in.position(in.position() + 4);
+                    break;
+                case 5: case 6: // Long, Double: occupent deux entrées
+                    in.position(in.position() + 8);
+                    i++;
+                    break;
+                default:
+                    throw new IOException("Tag de constant pool inconnu: " + tag);
+            }
+        }
+        if (!requiredSeen) {
+            return null;
+        }
+
+        in.getShort(); // access_flags
+        int thisClass = in.getShort() & 0xFFFF;
+        String className = utf8(in, offsets, in.getShort(offsets[thisClass]) & 0xFFFF).replace('/', '.');
+        in.getShort(); // super_class
+        int interfaces = in.getShort() & 0xFFFF;
+        in.position(in.position() + interfaces * 2);
+        skipMembers(in); // champs
+        skipMembers(in); // méthodes
+
+        Set<String> annotations = Collections.emptySet();
+        int attributes = in.getShort() & 0xFFFF;
+        for (int a = 0; a < attributes; a++) {
+            int nameIndex = in.getShort() & 0xFFFF;
+            int length = in.getInt();
+            int end = in.position() + length;
+            if (tags[nameIndex] == 1 && "RuntimeVisibleAnnotations".equals(utf8(in, offsets, nameIndex))) {
+                annotations = new HashSet<>();
+                int n = in.getShort() & 0xFFFF;
+                for (int k = 0; k < n; k++) {
+                    annotations.add(utf8(in, offsets, in.getShort() & 0xFFFF));
+                    skipAnnotationBody(in);
+                }
+            }
+            in.position(end);
+        }
+        return new ClassFileInfo(className, annotations);
+    }
+
+    private static void skipMembers(ByteBuffer in) {
+        int count = in.getShort() & 0xFFFF;
+        for (int i = 0; i < count; i++) {
+            in.position(in.position() + 6); // access_flags, name, descriptor
+            int attributes = in.getShort() & 0xFFFF;
+            for (int a = 0; a < attributes; a++) {
+                in.getShort();
+                int length = in.getInt();
+                in.position(in.position() + length);
+            }
+        }
+    }
+
+    /**
+     * Saute les paires élément/valeur d'une annotation (type déjà lu).
+     */
+    private static void skipAnnotationBody(ByteBuffer in) throws IOException {
+        int pairs = in.getShort() & 0xFFFF;
+        for (int i = 0; i < pairs; i++) {
+            in.getShort(); // nom de l'élément
+            skipElementValue(in);
+        }
+    }
+
+    private static void skipElementValue(ByteBuffer in) throws IOException {
+        char tag = (char) in.get();
+        switch (tag) {
+            case 'B': case 'C': case 'D': case 'F': case 'I': case 'J': case 'S': case 'Z': case 's': case 'c':
+                in.getShort();
+                break;
+            case 'e':
+                in.getInt();
+                break;
+            case '@':
+                in.getShort();
+                skipAnnotationBody(in);
+                break;
+            case '[': {
+                int n = in.getShort() & 0xFFFF;
+                for (int i = 0; i < n; i++) {
+                    skipElementValue(in);
+                }
+                break;
+            }
+            default:
+                throw new IOException("Valeur d'annotation inconnue: " + tag);
+        }
+    }
+
+    private static boolean equalsAt(ByteBuffer in, int position, byte[] expected) {
+        for (int i = 0; i < expected.length; i++) {
+            if (in.get(position + i) != expected[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Décode une entrée Utf8 (UTF-8 modifié de la JVM) sans déplacer la position courante.
+     */
+    private static String utf8(ByteBuffer in, int[] offsets, int index) {
+        int position = offsets[index];
+        int length = in.getShort(position) & 0xFFFF;
+        position += 2;
+        char[] out = new char[length];
+        int n = 0;
+        int end = position + length;
+        while (position < end) {
+            int b = in.get(position++) & 0xFF;
+            if (b < 0x80) {
+                out[n++] = (char) b;
+            } else if ((b & 0xE0) == 0xC0) {
+                out[n++] = (char) (((b & 0x1F) << 6) | (in.get(position++) & 0x3F));
+            } else {
+                int b2 = in.get(position++) & 0x3F;
+                int b3 = in.get(position++) & 0x3F;
+                out[n++] = (char) (((b & 0x0F) << 12) | (b2 << 6) | b3);
+            }
+        }
+        return new String(out, 0, n);
+    }
+}
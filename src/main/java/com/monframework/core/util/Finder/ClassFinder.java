@@ -3,26 +3,30 @@ package com.monframework.core.util.Finder;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 import com.monframework.core.util.Annotation.ControleurAnnotation;
+import com.monframework.core.util.Logging.Logger;
 
 /**
  * Utilitaire pour lister des fichiers .class et rechercher des classes par simpleName.
  */
 public class ClassFinder {
 
+    private static final Logger LOG = Logger.get(ClassFinder.class);
+
     public static List<Path> listClassFiles(Path root) throws IOException {
-        try (Stream<Path> s = Files.walk(root)) {
-            return s.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".class"))
-                    .collect(Collectors.toList());
-        }
+        return ScanConfig.ALL.listClassFiles(root);
+    }
+
+    /**
+     * Liste les .class du périmètre de scanConfig, sans parcourir les répertoires écartés.
+     */
+    public static List<Path> listClassFiles(Path root, ScanConfig scanConfig) throws IOException {
+        return scanConfig.listClassFiles(root);
     }
 
     public static List<String> findByFileNameSimpleName(Path root, String simpleName) throws IOException {
@@ -52,7 +56,7 @@ public class ClassFinder {
                         result.add(className);
                     }
                 } catch (Throwable t) {
-                    System.err.println("Warning: unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
+                    LOG.warn("Unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
                 }
             }
         }
@@ -67,8 +71,16 @@ public class ClassFinder {
      * Version avec ClassLoader explicite - préférable pour les environnements Servlet
      */
     public static List<String> findClassesAnnotatedWithControleur(Path root, ClassLoader contextClassLoader) throws IOException {
+        return findClassesAnnotatedWithControleur(root, contextClassLoader, ScanConfig.ALL);
+    }
+
+    /**
+     * Version limitée au périmètre de scanConfig (packages de base, globs, profondeur).
+     */
+    public static List<String> findClassesAnnotatedWithControleur(Path root, ClassLoader contextClassLoader,
+                                                                  ScanConfig scanConfig) throws IOException {
         List<String> result = new ArrayList<>();
-        List<Path> classFiles = listClassFiles(root);
+        List<Path> classFiles = listClassFiles(root, scanConfig);
 
         // Utiliser le ClassLoader fourni, ou le context ClassLoader, ou créer un nouveau URLClassLoader
         ClassLoader loader = contextClassLoader;
@@ -87,14 +99,17 @@ public class ClassFinder {
             shouldCloseLoader = true;
         }
 
+        String descriptor = ClassFileScanner.descriptorOf(ControleurAnnotation.class);
         try {
             for (Path p : classFiles) {
-                Path rel = root.relativize(p);
-                String className = toClassName(rel);
-                
-                System.out.println("[DEBUG] Loading class: '" + className + "' from path: " + p);
-                
+                String className = toClassName(root.relativize(p));
                 try {
+                    // Filtrer sur le bytecode: seules les classes annotées sont chargées
+                    ClassFileInfo info = ClassFileScanner.readIfAnnotated(p, descriptor);
+                    if (info == null) {
+                        continue;
+                    }
+                    className = info.getClassName();
                     Class<?> cls = Class.forName(className, false, loader);
                     if (cls.isAnnotationPresent(ControleurAnnotation.class)) {
                         ControleurAnnotation ann = cls.getAnnotation(ControleurAnnotation.class);
@@ -104,11 +119,12 @@ public class ClassFinder {
                         } else {
                             result.add(className + " (value=" + val + ")");
                         }
-                        System.out.println("[DEBUG] Found controller: " + className + " with value: " + val);
+                        if (LOG.isDebugEnabled()) {
+                            LOG.debug("Found controller: " + className + " with value: " + val);
+                        }
                     }
                 } catch (Throwable t) {
-                    System.err.println("Warning: unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
-                    t.printStackTrace();
+                    LOG.warn("Unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
                 }
             }
         } finally {
@@ -245,11 +261,10 @@ public class ClassFinder {
             normalized.substring(0, normalized.length() - 6) : normalized;
         String finalName = removeCommonBuildAndOutputPrefixes(withoutExtension);
         
-        System.out.println("[DEBUG] Class name conversion:");
-        System.out.println("  Original: " + original);
-        System.out.println("  Normalized: " + normalized);
-        System.out.println("  Without extension: " + withoutExtension);
-        System.out.println("  Final: " + finalName);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug("Class name conversion: original=" + original + ", normalized=" + normalized
+                    + ", without extension=" + withoutExtension + ", final=" + finalName);
+        }
         
         return finalName;
     }
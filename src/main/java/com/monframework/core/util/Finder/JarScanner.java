@@ -0,0 +1,213 @@
+package com.monframework.core.util.Finder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.jar.JarInputStream;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Recherche des classes annotées dans des jars (WEB-INF/lib), sans les charger.
+ *
+ * Le répertoire central de chaque jar est lu une fois par ZipFile, les entrées sont
+ * filtrées par le {@link ScanConfig} avant toute décompression, puis analysées en
+ * parallèle par {@link ClassFileScanner}.
+ *
+ * Activé par framework.scan.jars=true; limiter alors le périmètre avec
+ * framework.scan.packages, sinon toutes les classes de tous les jars sont examinées.
+ *
+ * Un cache persistant associe à chaque jar son empreinte (CRC des entrées du répertoire
+ * central et date de modification) et la liste des classes trouvées: au redéploiement,
+ * un jar inchangé n'est pas décompressé.
+ */
+public class JarScanner {
+
+    private static final Logger LOG = Logger.get(JarScanner.class);
+
+    private static final String CACHE_VERSION = "1";
+
+    private final Path cacheFile;
+    private final ScanConfig scanConfig;
+    private final ForkJoinPool pool;
+    private final Properties cache = new Properties();
+    private boolean cacheChanged;
+    private int cacheHits;
+
+    /**
+     * @param cacheFile   fichier de cache (null = pas de cache)
+     * @param scanConfig  périmètre du scan (packages de base, globs, profondeur)
+     * @param parallelism nombre de threads pour l'analyse des entrées
+     */
+    public JarScanner(Path cacheFile, ScanConfig scanConfig, int parallelism) {
+        this.cacheFile = cacheFile == null ? null : cacheFile.toAbsolutePath();
+        this.scanConfig = scanConfig;
+        this.pool = new ForkJoinPool(Math.max(1, parallelism));
+        if (cacheFile != null && Files.isRegularFile(cacheFile)) {
+            try (InputStream in = Files.newInputStream(cacheFile)) {
+                cache.load(in);
+                if (!CACHE_VERSION.equals(cache.getProperty("cache.version"))) {
+                    cache.clear();
+                }
+            } catch (IOException | IllegalArgumentException e) {
+                LOG.warn("Cache de scan des jars illisible, ignoré: " + e.getMessage());
+                cache.clear();
+            }
+        }
+    }
+
+    /**
+     * @return les noms des classes du jar portant l'annotation, triés
+     */
+    public List<String> scan(Path jar, String annotationDescriptor) throws IOException {
+        try (ZipFile zip = new ZipFile(jar.toFile())) {
+            List<ZipEntry> candidates = new ArrayList<>();
+            CRC32 fingerprint = new CRC32();
+            Enumeration<? extends ZipEntry> entries = zip.entries();
+            while (entries.hasMoreElements()) {
+                ZipEntry entry = entries.nextElement();
+                String name = entry.getName();
+                if (!accepts(name)) {
+                    continue;
+                }
+                candidates.add(entry);
+                fingerprint.update(name.getBytes(StandardCharsets.UTF_8));
+                long crc = entry.getCrc();
+                for (int i = 0; i < 8; i++) {
+                    fingerprint.update((int) (crc >>> (i * 8)));
+                }
+            }
+            String key = jar.toAbsolutePath().toString();
+            String stamp = Files.getLastModifiedTime(jar).toMillis() + ":" + Long.toHexString(fingerprint.getValue())
+                    + ":" + annotationDescriptor + ":" + scanConfig;
+            String cached = cache.getProperty(key);
+            if (cached != null && cached.startsWith(stamp + "|")) {
+                cacheHits++;
+                return split(cached.substring(stamp.length() + 1));
+            }
+
+            List<String> found = inPool(() -> candidates.parallelStream()
+                    .map(entry -> {
+                        try (InputStream in = zip.getInputStream(entry)) {
+                            ClassFileInfo info = ClassFileScanner.parse(ByteBuffer.wrap(readAll(in, entry.getSize())), annotationDescriptor);
+                            return info != null && info.hasAnnotation(annotationDescriptor) ? info.getClassName() : null;
+                        } catch (IOException e) {
+                            LOG.warn("Unable to read " + entry.getName() + " in " + jar + " : " + e.getMessage());
+                            return null;
+                        }
+                    })
+                    .filter(name -> name != null)
+                    .sorted()
+                    .collect(Collectors.toList()));
+            cache.setProperty(key, stamp + "|" + String.join(",", found));
+            cacheChanged = true;
+            return found;
+        }
+    }
+
+    /**
+     * Variante pour un jar non accessible sur disque (WAR non explosé): lecture en flux, sans cache.
+     */
+    public List<String> scan(InputStream jarStream, String annotationDescriptor) throws IOException {
+        List<String> found = new ArrayList<>();
+        try (JarInputStream in = new JarInputStream(jarStream)) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                String name = entry.getName();
+                if (!accepts(name)) {
+                    continue;
+                }
+                ClassFileInfo info = ClassFileScanner.parse(ByteBuffer.wrap(readAll(in, entry.getSize())), annotationDescriptor);
+                if (info != null && info.hasAnnotation(annotationDescriptor)) {
+                    found.add(info.getClassName());
+                }
+            }
+        }
+        Collections.sort(found);
+        return found;
+    }
+
+    /**
+     * Écrit le cache s'il a changé et libère les threads d'analyse.
+     */
+    public void close() {
+        pool.shutdown();
+        if (cacheFile == null || !cacheChanged) {
+            return;
+        }
+        try {
+            Files.createDirectories(cacheFile.getParent());
+            Path tmp = cacheFile.resolveSibling(cacheFile.getFileName() + ".tmp");
+            cache.setProperty("cache.version", CACHE_VERSION);
+            try (OutputStream out = Files.newOutputStream(tmp)) {
+                cache.store(out, "Cache du scan des contrôleurs dans WEB-INF/lib");
+            }
+            Files.move(tmp, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOG.warn("Écriture du cache de scan des jars impossible: " + e.getMessage());
+        }
+    }
+
+    public int getCacheHits() {
+        return cacheHits;
+    }
+
+    /**
+     * Filtre sur le nom d'entrée, avant décompression.
+     */
+    private boolean accepts(String entryName) {
+        if (!entryName.endsWith(".class") || entryName.startsWith("META-INF/")) {
+            return false;
+        }
+        String className = entryName.substring(0, entryName.length() - ".class".length()).replace('/', '.');
+        return scanConfig.accepts(className);
+    }
+
+    private <T> T inPool(java.util.concurrent.Callable<T> task) throws IOException {
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Scan interrompu", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Erreur pendant le scan du jar", e.getCause());
+        }
+    }
+
+    private static List<String> split(String names) {
+        List<String> list = new ArrayList<>();
+        for (String name : names.split(",")) {
+            if (!name.isEmpty()) {
+                list.add(name);
+            }
+        }
+        return list;
+    }
+
+    static byte[] readAll(InputStream in, long sizeHint) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(sizeHint > 0 ? (int) sizeHint : 4096);
+        byte[] buffer = new byte[8192];
+        int n;
+        while ((n = in.read(buffer)) != -1) {
+            out.write(buffer, 0, n);
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,227 @@
+package com.monframework.core.util.Finder;
+
+import java.io.IOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import com.monframework.core.util.Config.FrameworkConfig;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Périmètre du scan des contrôleurs.
+ *
+ * Options (init-param, context-param ou framework.properties):
+ * <ul>
+ *   <li>framework.scan.packages: packages de base, séparés par des virgules (vide = tout)</li>
+ *   <li>framework.scan.include: globs de noms de classes à retenir (ex: com.acme.**.web.*)</li>
+ *   <li>framework.scan.exclude: globs de noms de classes à ignorer (ex: com.acme.dto.**)</li>
+ *   <li>framework.scan.maxDepth: profondeur maximale de sous-packages sous un package de base</li>
+ *   <li>framework.scan.jars: scanner aussi les jars de WEB-INF/lib (false par défaut)</li>
+ * </ul>
+ * Dans les globs, * couvre un segment du nom, ** plusieurs segments et ? un caractère.
+ *
+ * Les répertoires hors des packages de base, trop profonds ou exclus par un glob
+ * terminé par .** sont écartés avant d'être parcourus.
+ */
+public final class ScanConfig {
+
+    private static final Logger LOG = Logger.get(ScanConfig.class);
+
+    /** Aucun filtrage. */
+    public static final ScanConfig ALL = new ScanConfig(Collections.<String>emptyList(),
+            Collections.<String>emptyList(), Collections.<String>emptyList(), -1);
+
+    private final List<String> basePackages;
+    private final List<String> includeGlobs;
+    private final List<String> excludeGlobs;
+    private final List<Pattern> includes = new ArrayList<>();
+    private final List<Pattern> excludes = new ArrayList<>();
+    private final List<Pattern> excludedSubtrees = new ArrayList<>();
+    private final int maxDepth;
+
+    /**
+     * @param maxDepth profondeur maximale sous un package de base (ou sous la racine), négatif = illimitée
+     */
+    public ScanConfig(List<String> basePackages, List<String> includes, List<String> excludes, int maxDepth) {
+        this.basePackages = new ArrayList<>(basePackages);
+        this.includeGlobs = new ArrayList<>(includes);
+        this.excludeGlobs = new ArrayList<>(excludes);
+        this.maxDepth = maxDepth;
+        for (String glob : includes) {
+            this.includes.add(globToPattern(glob));
+        }
+        for (String glob : excludes) {
+            this.excludes.add(globToPattern(glob));
+            if (glob.endsWith(".**")) {
+                this.excludedSubtrees.add(globToPattern(glob.substring(0, glob.length() - 3)));
+            }
+        }
+    }
+
+    public static ScanConfig from(FrameworkConfig config) {
+        return new ScanConfig(split(config.get("framework.scan.packages")),
+                split(config.get("framework.scan.include")),
+                split(config.get("framework.scan.exclude")),
+                config.getInt("framework.scan.maxDepth", -1));
+    }
+
+    public List<String> getBasePackages() {
+        return Collections.unmodifiableList(basePackages);
+    }
+
+    /**
+     * Indique si le contenu d'un package (nom pointé, "" pour la racine) peut contenir des classes retenues.
+     */
+    public boolean visitPackage(String pkg) {
+        for (Pattern subtree : excludedSubtrees) {
+            if (!pkg.isEmpty() && subtree.matcher(pkg).matches()) {
+                return false;
+            }
+        }
+        if (basePackages.isEmpty()) {
+            return maxDepth < 0 || depth(pkg) <= maxDepth;
+        }
+        for (String base : basePackages) {
+            if (isWithin(pkg, base)) {
+                return maxDepth < 0 || depth(pkg) - depth(base) <= maxDepth;
+            }
+            if (isWithin(base, pkg)) {
+                // ancêtre d'un package de base: à traverser
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si une classe (nom pleinement qualifié) fait partie du scan.
+     */
+    public boolean accepts(String className) {
+        int dot = className.lastIndexOf('.');
+        String pkg = dot < 0 ? "" : className.substring(0, dot);
+        if (!basePackages.isEmpty() && !inBasePackage(pkg)) {
+            return false;
+        }
+        if (!visitPackage(pkg)) {
+            return false;
+        }
+        if (!includes.isEmpty() && !matchesAny(includes, className)) {
+            return false;
+        }
+        return !matchesAny(excludes, className);
+    }
+
+    /**
+     * Liste les .class retenus sous une racine de classes (WEB-INF/classes), en écartant
+     * les sous-arborescences hors périmètre sans les parcourir.
+     */
+    public List<Path> listClassFiles(Path root) throws IOException {
+        List<Path> files = new ArrayList<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                return visitPackage(toDottedName(root.relativize(dir))) ? FileVisitResult.CONTINUE : FileVisitResult.SKIP_SUBTREE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                String name = file.getFileName().toString();
+                if (attrs.isRegularFile() && name.endsWith(".class")) {
+                    String relative = toDottedName(root.relativize(file));
+                    if (accepts(relative.substring(0, relative.length() - ".class".length()))) {
+                        files.add(file);
+                    }
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                LOG.warn("Unable to read " + file + " : " + e.getMessage());
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return files;
+    }
+
+    @Override
+    public String toString() {
+        return "packages=" + basePackages + " include=" + includeGlobs + " exclude=" + excludeGlobs + " maxDepth=" + maxDepth;
+    }
+
+    private boolean inBasePackage(String pkg) {
+        for (String base : basePackages) {
+            if (isWithin(pkg, base)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isWithin(String pkg, String parent) {
+        return parent.isEmpty() || pkg.equals(parent) || pkg.startsWith(parent + ".");
+    }
+
+    private static int depth(String pkg) {
+        if (pkg.isEmpty()) {
+            return 0;
+        }
+        int depth = 1;
+        for (int i = 0; i < pkg.length(); i++) {
+            if (pkg.charAt(i) == '.') {
+                depth++;
+            }
+        }
+        return depth;
+    }
+
+    private static boolean matchesAny(List<Pattern> patterns, String className) {
+        for (Pattern pattern : patterns) {
+            if (pattern.matcher(className).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String toDottedName(Path relative) {
+        return relative.toString().replace('\\', '.').replace('/', '.');
+    }
+
+    static Pattern globToPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                regex.append(".*");
+                i++;
+            } else if (c == '*') {
+                regex.append("[^.]*");
+            } else if (c == '?') {
+                regex.append("[^.]");
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static List<String> split(String value) {
+        List<String> list = new ArrayList<>();
+        if (value != null) {
+            for (String item : value.split(",")) {
+                if (!item.trim().isEmpty()) {
+                    list.add(item.trim());
+                }
+            }
+        }
+        return list;
+    }
+}
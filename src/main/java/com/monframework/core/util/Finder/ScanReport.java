@@ -0,0 +1,74 @@
+package com.monframework.core.util.Finder;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Mesures du scan des contrôleurs: durée de chaque phase et compteurs.
+ *
+ * Les phases exécutées en parallèle sont mesurées deux fois: temps écoulé (mur) et
+ * temps cumulé sur l'ensemble des threads, ce qui montre le gain de la parallélisation.
+ */
+public class ScanReport {
+
+    /** Attribut du ServletContext contenant le rapport du dernier scan. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.scanReport";
+
+    private final Map<String, Long> wallNanos = new LinkedHashMap<>();
+    private final Map<String, LongAdder> cumulativeNanos = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private volatile int parallelism = 1;
+
+    /** Enregistre la durée écoulée d'une phase (appelé par le thread qui orchestre le scan). */
+    public synchronized void phase(String name, long nanos) {
+        wallNanos.merge(name, nanos, Long::sum);
+    }
+
+    /** Ajoute du temps de travail à une phase exécutée sur plusieurs threads. */
+    public void work(String name, long nanos) {
+        cumulativeNanos.computeIfAbsent(name, k -> new LongAdder()).add(nanos);
+    }
+
+    public void count(String name, long delta) {
+        counters.computeIfAbsent(name, k -> new LongAdder()).add(delta);
+    }
+
+    public long getCount(String name) {
+        LongAdder adder = counters.get(name);
+        return adder == null ? 0 : adder.sum();
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    public synchronized long getTotalNanos() {
+        long total = 0;
+        for (long nanos : wallNanos.values()) {
+            total += nanos;
+        }
+        return total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        StringBuilder sb = new StringBuilder("Scan des contrôleurs: ");
+        sb.append(millis(getTotalNanos())).append(" ms sur ").append(parallelism).append(" thread(s)");
+        for (Map.Entry<String, Long> e : wallNanos.entrySet()) {
+            sb.append("\n  ").append(e.getKey()).append(": ").append(millis(e.getValue())).append(" ms");
+        }
+        for (Map.Entry<String, LongAdder> e : cumulativeNanos.entrySet()) {
+            sb.append("\n  ").append(e.getKey()).append(" (cumulé): ").append(millis(e.getValue().sum())).append(" ms");
+        }
+        for (Map.Entry<String, LongAdder> e : counters.entrySet()) {
+            sb.append("\n  ").append(e.getKey()).append(": ").append(e.getValue().sum());
+        }
+        return sb.toString();
+    }
+
+    private static String millis(long nanos) {
+        return String.format("%.1f", nanos / 1_000_000.0);
+    }
+}
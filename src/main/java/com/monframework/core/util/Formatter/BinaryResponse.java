@@ -0,0 +1,17 @@
+package com.monframework.core.util.Formatter;
+
+/**
+ * Réponse binaire retournée par un contrôleur ({@link FileResponse}, {@link ByteBufferResponse}).
+ * Le contenu est écrit tel quel, avec Content-Length connu d'avance et support des requêtes Range.
+ */
+public interface BinaryResponse {
+
+    /** Type MIME du contenu. */
+    String getContentType();
+
+    /** Nom proposé au client (Content-Disposition), ou null. */
+    String getFileName();
+
+    /** true pour proposer un téléchargement plutôt qu'un affichage dans le navigateur. */
+    boolean isAttachment();
+}
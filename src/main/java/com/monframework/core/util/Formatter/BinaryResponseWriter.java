@@ -0,0 +1,335 @@
+package com.monframework.core.util.Formatter;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import com.monframework.core.util.AsyncIO.BufferPool;
+
+/**
+ * Écrit une {@link BinaryResponse} dans la réponse HTTP.
+ *
+ * Content-Length est toujours fixé avant l'écriture (pas d'encodage chunked).
+ * Les requêtes Range sont supportées: une plage donne une réponse 206 simple,
+ * plusieurs plages une réponse multipart/byteranges. Pour un fichier, le sendfile
+ * de Tomcat (zéro copie) est utilisé quand le connecteur l'annonce; sinon
+ * FileChannel.transferTo vers le flux de la réponse, qui recopie par un tampon du tas.
+ */
+public final class BinaryResponseWriter {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    /** Au-delà, l'en-tête Range est ignoré et le contenu complet est envoyé. */
+    private static final int MAX_RANGES = 16;
+
+    private BinaryResponseWriter() {
+    }
+
+    /**
+     * Écrit la réponse binaire; si la requête est asynchrone, elle est terminée ensuite.
+     */
+    public static void write(HttpServletRequest request, HttpServletResponse response, BinaryResponse body) throws IOException {
+        boolean async = request.isAsyncStarted();
+        if (body instanceof FileResponse) {
+            writeFile(request, response, (FileResponse) body, async);
+        } else if (body instanceof ByteBufferResponse) {
+            writeBuffer(request, response, (ByteBufferResponse) body);
+        } else {
+            throw new IOException("Type de réponse binaire non supporté: " + body.getClass().getName());
+        }
+        if (async) {
+            request.getAsyncContext().complete();
+        }
+    }
+
+    private static void writeFile(HttpServletRequest request, HttpServletResponse response, FileResponse body, boolean async) throws IOException {
+        final Path path = body.getPath();
+        if (path == null || !Files.isRegularFile(path)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        long length = Files.size(path);
+        long lastModified = Files.getLastModifiedTime(path).toMillis();
+        String etag = "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+        response.setHeader("ETag", etag);
+        response.setDateHeader("Last-Modified", lastModified);
+
+        List<long[]> ranges = ifRangeMatches(request, etag, lastModified)
+                ? parseRanges(request.getHeader("Range"), length)
+                : null;
+
+        // Une seule plage (ou le fichier entier): le conteneur peut l'envoyer lui-même
+        if (!async && (ranges == null || ranges.size() == 1)
+                && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            long[] range = ranges == null ? new long[] { 0, length } : ranges.get(0);
+            if (!prepare(request, response, body, length, ranges)) {
+                return;
+            }
+            request.setAttribute(SENDFILE_FILENAME, path.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, range[0]);
+            request.setAttribute(SENDFILE_END, range[1]);
+            return;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            writeRanges(request, response, body, length, ranges, (out, start, count) -> {
+                WritableByteChannel target = Channels.newChannel(out);
+                long position = start;
+                long remaining = count;
+                while (remaining > 0) {
+                    long n = channel.transferTo(position, remaining, target);
+                    if (n <= 0) {
+                        throw new IOException("Fichier tronqué pendant l'envoi: " + path);
+                    }
+                    position += n;
+                    remaining -= n;
+                }
+            });
+        }
+    }
+
+    private static void writeBuffer(HttpServletRequest request, HttpServletResponse response, ByteBufferResponse body) throws IOException {
+        final ByteBuffer data = body.getData();
+        long length = data.remaining();
+        // sans validateur, un If-Range ne peut pas être vérifié: contenu complet
+        List<long[]> ranges = request.getHeader("If-Range") == null
+                ? parseRanges(request.getHeader("Range"), length)
+                : null;
+        final int base = data.position();
+        writeRanges(request, response, body, length, ranges, (out, start, count) -> {
+            if (data.hasArray()) {
+                out.write(data.array(), data.arrayOffset() + base + (int) start, (int) count);
+                return;
+            }
+            // buffer direct ou mappé: recopie par blocs dans un tampon du pool
+            ByteBuffer slice = data.duplicate();
+            slice.position(base + (int) start);
+            slice.limit(base + (int) (start + count));
+            BufferPool pool = BufferPool.shared();
+            byte[] chunk = pool.acquire();
+            try {
+                while (slice.hasRemaining()) {
+                    int n = Math.min(chunk.length, slice.remaining());
+                    slice.get(chunk, 0, n);
+                    out.write(chunk, 0, n);
+                }
+            } finally {
+                pool.release(chunk);
+            }
+        });
+    }
+
+    /**
+     * Fixe les en-têtes communs, le statut et la longueur d'une réponse entière ou à plage unique.
+     *
+     * @return false si aucun corps ne doit être écrit (HEAD ou plage non satisfaisable)
+     */
+    private static boolean prepare(HttpServletRequest request, HttpServletResponse response, BinaryResponse body,
+                                   long length, List<long[]> ranges) throws IOException {
+        writeCommonHeaders(response, body);
+        if (ranges != null && ranges.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader("Content-Range", "bytes */" + length);
+            response.setContentLength(0);
+            return false;
+        }
+        if (ranges == null) {
+            response.setContentType(body.getContentType());
+            response.setContentLengthLong(length);
+        } else {
+            long[] range = ranges.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(body.getContentType());
+            response.setHeader("Content-Range", "bytes " + range[0] + "-" + (range[1] - 1) + "/" + length);
+            response.setContentLengthLong(range[1] - range[0]);
+        }
+        return !"HEAD".equals(request.getMethod());
+    }
+
+    private static void writeRanges(HttpServletRequest request, HttpServletResponse response, BinaryResponse body,
+                                    long length, List<long[]> ranges, RangeSource source) throws IOException {
+        if (ranges == null || ranges.size() <= 1) {
+            if (!prepare(request, response, body, length, ranges)) {
+                return;
+            }
+            long[] range = ranges == null ? new long[] { 0, length } : ranges.get(0);
+            OutputStream out = response.getOutputStream();
+            source.write(out, range[0], range[1] - range[0]);
+            out.flush();
+            return;
+        }
+
+        // multipart/byteranges: la longueur totale est calculée avant d'écrire
+        writeCommonHeaders(response, body);
+        String boundary = "BYTERANGES_" + Long.toHexString(ThreadLocalRandom.current().nextLong());
+        byte[][] partHeaders = new byte[ranges.size()][];
+        long total = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            String header = "\r\n--" + boundary + "\r\n"
+                    + "Content-Type: " + body.getContentType() + "\r\n"
+                    + "Content-Range: bytes " + range[0] + "-" + (range[1] - 1) + "/" + length + "\r\n\r\n";
+            partHeaders[i] = header.getBytes(StandardCharsets.ISO_8859_1);
+            total += partHeaders[i].length + (range[1] - range[0]);
+        }
+        byte[] trailer = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.ISO_8859_1);
+        total += trailer.length;
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(total);
+        if ("HEAD".equals(request.getMethod())) {
+            return;
+        }
+        OutputStream out = response.getOutputStream();
+        for (int i = 0; i < ranges.size(); i++) {
+            long[] range = ranges.get(i);
+            out.write(partHeaders[i]);
+            source.write(out, range[0], range[1] - range[0]);
+        }
+        out.write(trailer);
+        out.flush();
+    }
+
+    private static void writeCommonHeaders(HttpServletResponse response, BinaryResponse body) {
+        response.setHeader("Accept-Ranges", "bytes");
+        if (body.isAttachment() || body.getFileName() != null) {
+            response.setHeader("Content-Disposition", contentDisposition(body));
+        }
+    }
+
+    /**
+     * Analyse un en-tête {@code Range: bytes=...}.
+     *
+     * @return null si l'en-tête est absent ou invalide (contenu complet), une liste vide
+     *         si aucune plage n'est satisfaisable, sinon les plages [début, fin) triées et fusionnées
+     */
+    static List<long[]> parseRanges(String header, long length) {
+        if (header == null || !header.startsWith("bytes=")) {
+            return null;
+        }
+        String[] specs = header.substring("bytes=".length()).split(",");
+        if (specs.length > MAX_RANGES) {
+            return null;
+        }
+        List<long[]> ranges = new ArrayList<>();
+        try {
+            for (String spec : specs) {
+                spec = spec.trim();
+                int dash = spec.indexOf('-');
+                if (dash < 0) {
+                    return null;
+                }
+                long start;
+                long end;
+                if (dash == 0) {
+                    // suffixe: les N derniers octets
+                    long suffix = Long.parseLong(spec.substring(1));
+                    if (suffix <= 0) {
+                        continue;
+                    }
+                    start = Math.max(0, length - suffix);
+                    end = length;
+                } else {
+                    start = Long.parseLong(spec.substring(0, dash));
+                    String last = spec.substring(dash + 1);
+                    if (last.isEmpty()) {
+                        end = length;
+                    } else {
+                        long lastByte = Long.parseLong(last);
+                        if (lastByte < start) {
+                            return null;
+                        }
+                        end = Math.min(lastByte + 1, length);
+                    }
+                }
+                if (start < 0 || start >= length) {
+                    continue;
+                }
+                ranges.add(new long[] { start, end });
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (ranges.size() <= 1) {
+            return ranges;
+        }
+        // plages qui se chevauchent ou se touchent: fusionnées
+        ranges.sort((a, b) -> Long.compare(a[0], b[0]));
+        List<long[]> merged = new ArrayList<>();
+        long[] current = ranges.get(0);
+        for (int i = 1; i < ranges.size(); i++) {
+            long[] next = ranges.get(i);
+            if (next[0] <= current[1]) {
+                current[1] = Math.max(current[1], next[1]);
+            } else {
+                merged.add(current);
+                current = next;
+            }
+        }
+        merged.add(current);
+        return merged;
+    }
+
+    /**
+     * Un If-Range ne vaut que si le validateur correspond encore au fichier servi.
+     */
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader("If-Range");
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            long date = request.getDateHeader("If-Range");
+            return date >= 0 && lastModified / 1000 == date / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static String contentDisposition(BinaryResponse body) {
+        String type = body.isAttachment() ? "attachment" : "inline";
+        String name = body.getFileName();
+        if (name == null) {
+            return type;
+        }
+        StringBuilder ascii = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            ascii.append(c < 0x20 || c > 0x7E || c == '"' || c == '\\' ? '_' : c);
+        }
+        try {
+            String encoded = URLEncoder.encode(name, "UTF-8").replace("+", "%20");
+            return type + "; filename=\"" + ascii + "\"; filename*=UTF-8''" + encoded;
+        } catch (UnsupportedEncodingException e) {
+            return type + "; filename=\"" + ascii + "\"";
+        }
+    }
+
+    /**
+     * Écrit une portion [start, start + count) du contenu dans le flux de réponse.
+     */
+    private interface RangeSource {
+        void write(OutputStream out, long start, long count) throws IOException;
+    }
+}
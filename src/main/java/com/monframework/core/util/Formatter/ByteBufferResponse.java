@@ -0,0 +1,71 @@
+package com.monframework.core.util.Formatter;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Réponse contenant des données binaires déjà en mémoire (tableau, ByteBuffer direct
+ * ou fichier mappé). Le contenu entre position et limit est envoyé sans recopie
+ * lorsque le buffer est adossé à un tableau.
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @GetRequest("avatar/{id}")
+ * public ByteBufferResponse avatar(int id) {
+ *     return ByteBufferResponse.of(avatarService.png(id), "image/png");
+ * }
+ * </pre>
+ */
+public class ByteBufferResponse implements BinaryResponse {
+    private final ByteBuffer data;
+    private final String contentType;
+    private final String fileName;
+    private final boolean attachment;
+
+    private ByteBufferResponse(ByteBuffer data, String contentType, String fileName, boolean attachment) {
+        this.data = data;
+        this.contentType = contentType != null ? contentType : "application/octet-stream";
+        this.fileName = fileName;
+        this.attachment = attachment;
+    }
+
+    public static ByteBufferResponse of(ByteBuffer data, String contentType) {
+        return new ByteBufferResponse(data, contentType, null, false);
+    }
+
+    public static ByteBufferResponse of(byte[] data, String contentType) {
+        return new ByteBufferResponse(ByteBuffer.wrap(data), contentType, null, false);
+    }
+
+    /**
+     * Téléchargement des données sous le nom donné.
+     */
+    public static ByteBufferResponse attachment(ByteBuffer data, String contentType, String fileName) {
+        return new ByteBufferResponse(data, contentType, fileName, true);
+    }
+
+    public static ByteBufferResponse attachment(byte[] data, String contentType, String fileName) {
+        return new ByteBufferResponse(ByteBuffer.wrap(data), contentType, fileName, true);
+    }
+
+    /**
+     * @return une vue indépendante des données (la position du buffer d'origine n'est pas modifiée)
+     */
+    public ByteBuffer getData() {
+        return data.duplicate();
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public boolean isAttachment() {
+        return attachment;
+    }
+}
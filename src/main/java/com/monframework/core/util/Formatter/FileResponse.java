@@ -0,0 +1,88 @@
+package com.monframework.core.util.Formatter;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Réponse contenant un fichier du disque, envoyé par le sendfile de Tomcat (sans copie
+ * par la JVM) quand le connecteur l'annonce, sinon lu par blocs vers le flux de la
+ * réponse: le fichier n'est jamais chargé entièrement en mémoire.
+ *
+ * Exemple d'utilisation:
+ * <pre>
+ * @GetRequest("docs/rapport")
+ * public FileResponse rapport() {
+ *     return FileResponse.attachment(Paths.get("/data/rapport.pdf"), "rapport-2024.pdf");
+ * }
+ * </pre>
+ */
+public class FileResponse implements BinaryResponse {
+    private final Path path;
+    private final String contentType;
+    private final String fileName;
+    private final boolean attachment;
+
+    private FileResponse(Path path, String contentType, String fileName, boolean attachment) {
+        this.path = path;
+        this.contentType = contentType;
+        this.fileName = fileName;
+        this.attachment = attachment;
+    }
+
+    /**
+     * Affichage du fichier dans le navigateur; le type MIME est deviné depuis l'extension.
+     */
+    public static FileResponse of(Path path) {
+        return new FileResponse(path, probeContentType(path), null, false);
+    }
+
+    /**
+     * Affichage du fichier dans le navigateur avec un type MIME explicite.
+     */
+    public static FileResponse of(Path path, String contentType) {
+        return new FileResponse(path, contentType, null, false);
+    }
+
+    /**
+     * Téléchargement du fichier sous le nom donné.
+     */
+    public static FileResponse attachment(Path path, String fileName) {
+        return new FileResponse(path, probeContentType(path), fileName, true);
+    }
+
+    /**
+     * Téléchargement du fichier sous le nom donné avec un type MIME explicite.
+     */
+    public static FileResponse attachment(Path path, String fileName, String contentType) {
+        return new FileResponse(path, contentType, fileName, true);
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public String getFileName() {
+        return fileName;
+    }
+
+    @Override
+    public boolean isAttachment() {
+        return attachment;
+    }
+
+    private static String probeContentType(Path path) {
+        try {
+            String type = Files.probeContentType(path);
+            return type != null ? type : "application/octet-stream";
+        } catch (IOException e) {
+            return "application/octet-stream";
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package com.monframework.core.util.Logging;
+
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Thread d'écriture des logs: vide la file par lots et écrit chaque lot en un seul appel
+ * sur System.out (DEBUG, INFO) ou System.err (WARN, ERROR).
+ *
+ * Le thread appelant ne fait qu'un CAS dans la file, plus un unpark si l'écrivain dort.
+ * File pleine (rafale d'erreurs): le message est compté puis abandonné, et le nombre de
+ * messages perdus est signalé au lot suivant. Une même trace de pile (type et premières
+ * frames) n'est écrite en entier qu'une fois par minute.
+ */
+final class AsyncLogWriter implements Runnable {
+
+    private static final int BATCH_SIZE = 512;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+    private static final long TRACE_REPEAT_MILLIS = TimeUnit.MINUTES.toMillis(1);
+    private static final int TRACE_FRAMES = 6;
+    private static final int MAX_TRACKED_TRACES = 256;
+    private static final DateTimeFormatter TIME_FORMAT =
+            DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss.SSS").withZone(ZoneId.systemDefault());
+
+    private final LogRing ring;
+    private final LongAdder dropped = new LongAdder();
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile boolean sleeping;
+
+    /** Dernière écriture complète de chaque trace (thread d'écriture uniquement). */
+    private final Map<String, Long> tracesPrinted = new LinkedHashMap<String, Long>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > MAX_TRACKED_TRACES;
+        }
+    };
+    private long droppedReported;
+
+    AsyncLogWriter(int capacity) {
+        this.ring = new LogRing(capacity);
+        this.thread = new Thread(this, "framework-log");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Dépose un message sans jamais bloquer.
+     *
+     * @return false si l'écrivain est arrêté (l'appelant écrit alors lui-même)
+     */
+    boolean submit(LogRecord record) {
+        if (!running) {
+            return false;
+        }
+        if (!ring.offer(record)) {
+            dropped.increment();
+        }
+        if (sleeping) {
+            LockSupport.unpark(thread);
+        }
+        return true;
+    }
+
+    long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    /**
+     * Arrête le thread après avoir écrit les messages en attente (attente bornée).
+     */
+    void shutdown() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void run() {
+        StringBuilder out = new StringBuilder(8192);
+        StringBuilder err = new StringBuilder(8192);
+        while (true) {
+            boolean stopping = !running;
+            int count = 0;
+            LogRecord record;
+            while (count < BATCH_SIZE && (record = ring.poll()) != null) {
+                format(record, record.level.compareTo(Level.WARN) >= 0 ? err : out);
+                count++;
+            }
+            reportDropped(err);
+            flush(out, System.out);
+            flush(err, System.err);
+            if (count == BATCH_SIZE) {
+                continue;
+            }
+            if (stopping) {
+                return;
+            }
+            // un message publié pendant l'endormissement peut manquer le unpark:
+            // il est alors écrit au réveil suivant, au plus tard après IDLE_PARK_NANOS
+            sleeping = true;
+            if (ring.isEmpty() && running) {
+                LockSupport.parkNanos(this, IDLE_PARK_NANOS);
+            }
+            sleeping = false;
+        }
+    }
+
+    private void reportDropped(StringBuilder err) {
+        long total = dropped.sum();
+        if (total != droppedReported) {
+            formatLine(err, System.currentTimeMillis(), Level.WARN, Thread.currentThread().getName(), "Logger",
+                    (total - droppedReported) + " message(s) de log perdu(s), file d'écriture pleine");
+            droppedReported = total;
+        }
+    }
+
+    private static void flush(StringBuilder buffer, PrintStream stream) {
+        if (buffer.length() > 0) {
+            stream.print(buffer);
+            stream.flush();
+            buffer.setLength(0);
+        }
+    }
+
+    /**
+     * Écriture immédiate sur le thread appelant (mode synchrone, ou écrivain arrêté).
+     */
+    static void writeDirect(LogRecord record) {
+        StringBuilder sb = new StringBuilder(128);
+        formatLine(sb, record.timeMillis, record.level, record.thread, record.logger, record.message);
+        if (record.error != null) {
+            StringWriter trace = new StringWriter();
+            record.error.printStackTrace(new PrintWriter(trace));
+            sb.append(trace.getBuffer());
+        }
+        PrintStream stream = record.level.compareTo(Level.WARN) >= 0 ? System.err : System.out;
+        stream.print(sb);
+        stream.flush();
+    }
+
+    private void format(LogRecord record, StringBuilder sb) {
+        int mark = sb.length();
+        try {
+            formatLine(sb, record.timeMillis, record.level, record.thread, record.logger, record.message);
+            if (record.error != null) {
+                appendTrace(sb, record.error, record.timeMillis);
+            }
+        } catch (RuntimeException e) {
+            // toString ou getStackTrace défaillant: le thread d'écriture doit survivre
+            sb.setLength(mark);
+            formatLine(sb, record.timeMillis, record.level, record.thread, record.logger,
+                    record.message + " (mise en forme impossible: " + e.getClass().getName() + ")");
+        }
+    }
+
+    private static void formatLine(StringBuilder sb, long timeMillis, Level level, String thread, String logger, String message) {
+        TIME_FORMAT.formatTo(Instant.ofEpochMilli(timeMillis), sb);
+        sb.append(" [").append(level.name()).append("] [").append(thread).append("] ")
+          .append(logger).append(" - ").append(message).append('\n');
+    }
+
+    private void appendTrace(StringBuilder sb, Throwable error, long timeMillis) {
+        String key = traceKey(error);
+        Long last = tracesPrinted.get(key);
+        if (last != null && timeMillis - last < TRACE_REPEAT_MILLIS) {
+            sb.append("    ").append(error).append(" (trace identique déjà écrite)\n");
+            return;
+        }
+        tracesPrinted.put(key, timeMillis);
+        StringWriter trace = new StringWriter();
+        error.printStackTrace(new PrintWriter(trace));
+        sb.append(trace.getBuffer());
+    }
+
+    private static String traceKey(Throwable error) {
+        StringBuilder key = new StringBuilder(error.getClass().getName());
+        StackTraceElement[] frames = error.getStackTrace();
+        for (int i = 0; i < Math.min(TRACE_FRAMES, frames.length); i++) {
+            key.append('|').append(frames[i]);
+        }
+        return key.toString();
+    }
+}
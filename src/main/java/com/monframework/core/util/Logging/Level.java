@@ -0,0 +1,33 @@
+package com.monframework.core.util.Logging;
+
+import java.util.Locale;
+
+/**
+ * Niveaux de log, du plus bavard au plus grave. OFF coupe tout.
+ */
+public enum Level {
+    DEBUG,
+    INFO,
+    WARN,
+    ERROR,
+    OFF;
+
+    /**
+     * @return le niveau correspondant (insensible à la casse, WARNING accepté), ou defaultLevel
+     */
+    public static Level parse(String value, Level defaultLevel) {
+        if (value == null || value.trim().isEmpty()) {
+            return defaultLevel;
+        }
+        String name = value.trim().toUpperCase(Locale.ROOT);
+        if ("WARNING".equals(name)) {
+            return WARN;
+        }
+        for (Level level : values()) {
+            if (level.name().equals(name)) {
+                return level;
+            }
+        }
+        return defaultLevel;
+    }
+}
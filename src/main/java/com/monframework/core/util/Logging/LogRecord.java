@@ -0,0 +1,24 @@
+package com.monframework.core.util.Logging;
+
+/**
+ * Message en attente d'écriture. Tout est capturé sur le thread appelant (horodatage,
+ * nom du thread); la mise en forme et la trace de pile sont faites par le thread d'écriture.
+ */
+final class LogRecord {
+
+    final long timeMillis;
+    final Level level;
+    final String logger;
+    final String thread;
+    final String message;
+    final Throwable error;
+
+    LogRecord(Level level, String logger, String message, Throwable error) {
+        this.timeMillis = System.currentTimeMillis();
+        this.level = level;
+        this.logger = logger;
+        this.thread = Thread.currentThread().getName();
+        this.message = message;
+        this.error = error;
+    }
+}
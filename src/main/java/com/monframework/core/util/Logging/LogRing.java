@@ -0,0 +1,78 @@
+package com.monframework.core.util.Logging;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * File bornée sans verrou: plusieurs producteurs, un seul consommateur.
+ *
+ * Chaque case porte un numéro de séquence (schéma de D. Vyukov): un producteur réserve
+ * une position par CAS sur tail, écrit le message puis publie la case en avançant sa
+ * séquence; le consommateur lit la séquence avant le message. File pleine: offer
+ * échoue immédiatement, l'appelant n'attend jamais.
+ */
+final class LogRing {
+
+    private final LogRecord[] slots;
+    private final AtomicLongArray sequences;
+    private final int mask;
+    private final AtomicLong tail = new AtomicLong();
+    /** Lue et écrite par le seul consommateur. */
+    private long head;
+
+    LogRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(2, capacity - 1)) << 1;
+        this.slots = new LogRecord[size];
+        this.sequences = new AtomicLongArray(size);
+        this.mask = size - 1;
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * @return false si la file est pleine (message perdu)
+     */
+    boolean offer(LogRecord record) {
+        long pos = tail.get();
+        while (true) {
+            int index = (int) pos & mask;
+            long diff = sequences.get(index) - pos;
+            if (diff == 0) {
+                if (tail.compareAndSet(pos, pos + 1)) {
+                    slots[index] = record;
+                    sequences.lazySet(index, pos + 1);
+                    return true;
+                }
+                pos = tail.get();
+            } else if (diff < 0) {
+                return false;
+            } else {
+                pos = tail.get();
+            }
+        }
+    }
+
+    /**
+     * @return le message suivant, ou null si la file est vide (consommateur uniquement)
+     */
+    LogRecord poll() {
+        int index = (int) head & mask;
+        if (sequences.get(index) != head + 1) {
+            return null;
+        }
+        LogRecord record = slots[index];
+        slots[index] = null;
+        sequences.lazySet(index, head + mask + 1);
+        head++;
+        return record;
+    }
+
+    boolean isEmpty() {
+        return sequences.get((int) head & mask) != head + 1;
+    }
+
+    int capacity() {
+        return slots.length;
+    }
+}
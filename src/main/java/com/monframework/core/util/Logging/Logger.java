@@ -0,0 +1,150 @@
+package com.monframework.core.util.Logging;
+
+import com.monframework.core.util.Config.FrameworkConfig;
+
+/**
+ * Journalisation interne du framework.
+ *
+ * Le test de niveau est une comparaison d'entiers avec un champ statique: quand un niveau
+ * est désactivé, l'appel ne coûte rien de plus et le JIT l'intègre au site d'appel.
+ * Les messages DEBUG coûteux à construire se protègent avec {@link #isDebugEnabled()}.
+ *
+ * Par défaut l'écriture est asynchrone (AsyncLogWriter): le thread de la requête dépose
+ * le message dans une file sans verrou et repart, même pendant une rafale d'erreurs.
+ *
+ * Options (init-param, context-param ou framework.properties):
+ *   framework.log.level       DEBUG, INFO (défaut), WARN, ERROR ou OFF
+ *   framework.log.async       false pour écrire sur le thread appelant (défaut true)
+ *   framework.log.bufferSize  messages en attente avant abandon (défaut 8192)
+ */
+public final class Logger {
+
+    public static final String LEVEL_PARAM = "framework.log.level";
+    public static final String ASYNC_PARAM = "framework.log.async";
+    public static final String BUFFER_SIZE_PARAM = "framework.log.bufferSize";
+
+    private static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    /** Ordinal du niveau minimal écrit. */
+    private static volatile int threshold = Level.INFO.ordinal();
+    private static volatile boolean async = true;
+    private static int bufferSize = DEFAULT_BUFFER_SIZE;
+    private static volatile AsyncLogWriter writer;
+
+    private final String name;
+
+    private Logger(String name) {
+        this.name = name;
+    }
+
+    public static Logger get(Class<?> type) {
+        return new Logger(type.getSimpleName());
+    }
+
+    /**
+     * Applique la configuration du contexte. Peut être appelé plusieurs fois
+     * (FrameworkInitializer puis FrontServlet): la dernière valeur l'emporte.
+     */
+    public static void configure(FrameworkConfig config) {
+        setLevel(Level.parse(config.get(LEVEL_PARAM), Level.INFO));
+        int size = config.getInt(BUFFER_SIZE_PARAM, DEFAULT_BUFFER_SIZE);
+        synchronized (Logger.class) {
+            bufferSize = size > 0 ? size : DEFAULT_BUFFER_SIZE;
+            async = config.getBoolean(ASYNC_PARAM, true);
+        }
+    }
+
+    public static void setLevel(Level level) {
+        threshold = level.ordinal();
+    }
+
+    public static Level getLevel() {
+        return Level.values()[threshold];
+    }
+
+    /**
+     * Écrit les messages en attente et arrête le thread d'écriture (destroy de FrontServlet).
+     * Les messages suivants sont écrits de façon synchrone jusqu'au prochain configure.
+     */
+    public static void shutdown() {
+        AsyncLogWriter current;
+        synchronized (Logger.class) {
+            async = false;
+            current = writer;
+            writer = null;
+        }
+        if (current != null) {
+            current.shutdown();
+        }
+    }
+
+    /**
+     * @return le nombre de messages abandonnés faute de place dans la file
+     */
+    public static long getDroppedCount() {
+        AsyncLogWriter current = writer;
+        return current != null ? current.getDroppedCount() : 0;
+    }
+
+    public boolean isDebugEnabled() {
+        return threshold <= Level.DEBUG.ordinal();
+    }
+
+    public boolean isInfoEnabled() {
+        return threshold <= Level.INFO.ordinal();
+    }
+
+    public void debug(String message) {
+        if (threshold <= Level.DEBUG.ordinal()) {
+            log(Level.DEBUG, message, null);
+        }
+    }
+
+    public void info(String message) {
+        if (threshold <= Level.INFO.ordinal()) {
+            log(Level.INFO, message, null);
+        }
+    }
+
+    public void warn(String message) {
+        if (threshold <= Level.WARN.ordinal()) {
+            log(Level.WARN, message, null);
+        }
+    }
+
+    public void warn(String message, Throwable error) {
+        if (threshold <= Level.WARN.ordinal()) {
+            log(Level.WARN, message, error);
+        }
+    }
+
+    public void error(String message, Throwable error) {
+        if (threshold <= Level.ERROR.ordinal()) {
+            log(Level.ERROR, message, error);
+        }
+    }
+
+    private void log(Level level, String message, Throwable error) {
+        LogRecord record = new LogRecord(level, name, message, error);
+        if (async) {
+            AsyncLogWriter current = writer();
+            if (current != null && current.submit(record)) {
+                return;
+            }
+        }
+        AsyncLogWriter.writeDirect(record);
+    }
+
+    private static AsyncLogWriter writer() {
+        AsyncLogWriter current = writer;
+        if (current == null) {
+            synchronized (Logger.class) {
+                if (writer == null && async) {
+                    writer = new AsyncLogWriter(bufferSize);
+                }
+                current = writer;
+            }
+        }
+        return current;
+    }
+}
@@ -0,0 +1,24 @@
+package com.monframework.core.util.Mapper;
+
+/**
+ * Dispatcher généré à la compilation par RouteIndexProcessor: instancie les contrôleurs
+ * et appelle leurs méthodes par des appels directs, sans réflexion.
+ */
+public interface GeneratedDispatcher {
+
+    /** Retourné par {@link #invoke} quand la méthode n'est pas prise en charge. */
+    Object NOT_HANDLED = new Object();
+
+    /**
+     * @return une nouvelle instance du contrôleur, ou null si la classe n'est pas prise en charge
+     */
+    Object newController(String className);
+
+    /**
+     * Appelle une méthode de contrôleur.
+     *
+     * @param signature {@code classe#méthode(type1,type2)} avec les noms de {@link Class#getName()}
+     * @return la valeur retournée (null pour void), ou {@link #NOT_HANDLED}
+     */
+    Object invoke(String signature, Object controller, Object[] args) throws Exception;
+}
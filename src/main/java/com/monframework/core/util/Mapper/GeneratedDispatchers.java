@@ -0,0 +1,46 @@
+package com.monframework.core.util.Mapper;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dispatchers générés enregistrés au chargement de l'index des routes, par classe de contrôleur.
+ * Sans dispatcher (pas d'index, méthode non publique...), l'appel retombe sur la réflexion.
+ */
+public final class GeneratedDispatchers {
+
+    private static volatile Map<String, GeneratedDispatcher> dispatchers = Collections.emptyMap();
+
+    private GeneratedDispatchers() {
+    }
+
+    static void register(Map<String, GeneratedDispatcher> byClass) {
+        dispatchers = Collections.unmodifiableMap(new HashMap<>(byClass));
+    }
+
+    /**
+     * @return le dispatcher généré pour cette classe de contrôleur, ou null (pas de dispatcher,
+     *         ou classe rechargée à chaud par un autre ClassLoader que celui du code généré)
+     */
+    static GeneratedDispatcher forClass(Class<?> controllerClass) {
+        GeneratedDispatcher dispatcher = dispatchers.get(controllerClass.getName());
+        return dispatcher != null && dispatcher.getClass().getClassLoader() == controllerClass.getClassLoader()
+                ? dispatcher : null;
+    }
+
+    /**
+     * Signature de la méthode au format de {@link GeneratedDispatcher#invoke}.
+     */
+    static String signature(Method method) {
+        StringBuilder sb = new StringBuilder(method.getDeclaringClass().getName())
+                .append('#').append(method.getName()).append('(');
+        Class<?>[] types = method.getParameterTypes();
+        for (int i = 0; i < types.length; i++) {
+            if (i > 0) sb.append(',');
+            sb.append(types[i].getName());
+        }
+        return sb.append(')').toString();
+    }
+}
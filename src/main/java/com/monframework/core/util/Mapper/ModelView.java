@@ -1,16 +1,43 @@
 package com.monframework.core.util.Mapper;
 
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
 import jakarta.servlet.RequestDispatcher;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.monframework.core.util.AsyncIO.NonBlockingResponseWriter;
+import com.monframework.core.util.AccessLog.AccessLogWriter;
+import com.monframework.core.util.Formatter.BinaryResponse;
+import com.monframework.core.util.Formatter.BinaryResponseWriter;
+import com.monframework.core.util.Metrics.FrameworkEvents;
+import com.monframework.core.util.Metrics.PhaseTimer;
+import com.monframework.core.util.Logging.Logger;
 
 /**
  * Modèle simple qui encapsule une route et permet de récupérer la vue
  * renvoyée par la méthode du contrôleur.
  */
 public class ModelView {
+
+    private static final Logger LOG = Logger.get(ModelView.class);
+
+    /**
+     * Attribut de requête posé lorsque la réponse sera terminée plus tard par un autre
+     * composant (future du contrôleur, WriteListener): la requête asynchrone ne doit
+     * alors pas être terminée par l'appelant.
+     */
+    public static final String ASYNC_PENDING_ATTRIBUTE = "framework.async.pending";
+
     private final RouteMapping route;
     private String view; // chemin de la vue, optionnel si route utilisé
     private final Map<String, Object> model = new HashMap<>();
@@ -74,7 +101,9 @@ public class ModelView {
 
     /**
      * Variante qui effectue directement le forward vers la vue retournée
-     * par la méthode du contrôleur, ou écrit une réponse JSON si applicable.
+     * par la méthode du contrôleur, ou écrit une réponse JSON ou binaire si applicable.
+     * Si le contrôleur retourne un CompletableFuture, la requête passe en mode
+     * asynchrone et la réponse est produite à la complétion du future.
      *
      * @throws Exception si l'invocation échoue, si la vue est vide,
      *                   ou si le forward échoue
@@ -87,25 +116,192 @@ public class ModelView {
             // appeler la méthode du contrôleur en passant request/response et Model si possible
             RouteMapping.InvokeResult res = this.route.callMethodWithModel(request, response, pathVars);
             
+            if (res.isAsync()) {
+                renderAsync(res, request, response);
+                return;
+            }
+            
+            // Fichier ou données binaires: Content-Length et Range gérés par l'écrivain
+            if (res.isBinaryResponse()) {
+                writeBinary(request, response, res.getBinaryResponse());
+                return;
+            }
+
             // Si c'est une réponse JSON, l'écrire directement dans la réponse
             if (res.isJsonResponse()) {
-                response.setContentType("application/json; charset=UTF-8");
-                response.setCharacterEncoding("UTF-8");
-                response.getWriter().write(res.getJsonContent());
+                writeJson(request, response, res.getJsonContent());
                 return;
             }
             
             viewPath = res.getView();
             this.view = viewPath;
             // injecter les attributs fournis par le contrôleur via Model
-            if (res.getModel() != null) {
-                for (Map.Entry<String, Object> e : res.getModel().asMap().entrySet()) {
-                    request.setAttribute(e.getKey(), e.getValue());
+            exposeModel(request, res.getModel());
+        } else {
+            viewPath = getView(); // fallback
+        }
+        forward(request, response, viewPath);
+    }
+
+    /**
+     * Passe la requête en mode asynchrone et termine la réponse lorsque le future
+     * retourné par le contrôleur est complété (ou à l'expiration du délai).
+     */
+    private void renderAsync(RouteMapping.InvokeResult res, HttpServletRequest request, HttpServletResponse response) {
+        final AsyncContext asyncContext = request.isAsyncStarted()
+                ? request.getAsyncContext()
+                : request.startAsync(request, response);
+        if (res.getAsyncTimeout() > 0) {
+            asyncContext.setTimeout(res.getAsyncTimeout());
+        }
+        request.setAttribute(ASYNC_PENDING_ATTRIBUTE, Boolean.TRUE);
+        // Garantit qu'une seule des deux issues (complétion ou expiration) écrit la réponse
+        final AtomicBoolean finished = new AtomicBoolean(false);
+        final CompletionStage<?> pending = res.getPending();
+
+        asyncContext.addListener(new AsyncListener() {
+            @Override
+            public void onTimeout(AsyncEvent event) throws IOException {
+                if (finished.compareAndSet(false, true)) {
+                    pending.toCompletableFuture().cancel(true);
+                    writeAsyncError(response, HttpServletResponse.SC_SERVICE_UNAVAILABLE,
+                            "Délai dépassé pour " + describeRoute(), null);
+                    asyncContext.complete();
+                }
+            }
+
+            @Override
+            public void onError(AsyncEvent event) {
+                finished.set(true);
+                pending.toCompletableFuture().cancel(true);
+            }
+
+            @Override
+            public void onComplete(AsyncEvent event) { }
+
+            @Override
+            public void onStartAsync(AsyncEvent event) { }
+        });
+
+        pending.whenComplete((value, error) -> {
+            if (!finished.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                if (error != null) {
+                    throw (error instanceof CompletionException && error.getCause() != null) ? error.getCause() : error;
+                }
+                RouteMapping.InvokeResult completed = res.complete(value);
+                if (completed.isBinaryResponse()) {
+                    writeBinary(request, response, completed.getBinaryResponse());
+                    return;
+                }
+                if (completed.isJsonResponse()) {
+                    writeJson(request, response, completed.getJsonContent());
+                    return;
                 }
+                this.view = completed.getView();
+                exposeModel(request, completed.getModel());
+                forward(request, response, completed.getView());
+            } catch (Throwable t) {
+                try {
+                    writeAsyncError(response, HttpServletResponse.SC_INTERNAL_SERVER_ERROR,
+                            "Erreur lors de la résolution de la vue asynchrone pour " + describeRoute(), t);
+                } catch (IOException ignored) {
+                    // la connexion est probablement fermée
+                }
+                asyncContext.complete();
             }
+        });
+    }
+
+    /**
+     * Écrit une réponse JSON et termine la requête si elle est asynchrone.
+     */
+    private void writeJson(HttpServletRequest request, HttpServletResponse response, String json) throws IOException {
+        PhaseTimer.sendHeader(request, response);
+        PhaseTimer timer = PhaseTimer.of(request);
+        long start = PhaseTimer.mark(timer);
+        Object event = FrameworkEvents.begin(FrameworkEvents.Kind.JSON_WRITE);
+        response.setContentType("application/json; charset=UTF-8");
+        response.setCharacterEncoding("UTF-8");
+        long bytes = 0;
+        if (request.isAsyncStarted()) {
+            byte[] body = json.getBytes(StandardCharsets.UTF_8);
+            bytes = body.length;
+            NonBlockingResponseWriter.write(request, response, body);
         } else {
-            viewPath = getView(); // fallback
+            if (event != null || AccessLogWriter.from(request.getServletContext()) != null) {
+                // taille encodée calculée seulement si elle est enregistrée (JFR, journal d'accès)
+                bytes = utf8Length(json);
+            }
+            response.getWriter().write(json);
+        }
+        if (bytes > 0) {
+            request.setAttribute(AccessLogWriter.BYTES_ATTRIBUTE, bytes);
+        }
+        PhaseTimer.record(timer, PhaseTimer.Phase.JSON, start);
+        FrameworkEvents.commit(event, route, "application/json", bytes);
+    }
+
+    /**
+     * Taille de la chaîne encodée en UTF-8, sans l'encoder.
+     */
+    private static long utf8Length(String s) {
+        long length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < s.length() && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Écrit une réponse binaire (fichier, tampon) en chronométrant l'écriture.
+     */
+    private static void writeBinary(HttpServletRequest request, HttpServletResponse response, BinaryResponse body) throws IOException {
+        PhaseTimer.sendHeader(request, response);
+        PhaseTimer timer = PhaseTimer.of(request);
+        long start = PhaseTimer.mark(timer);
+        BinaryResponseWriter.write(request, response, body);
+        PhaseTimer.record(timer, PhaseTimer.Phase.WRITE, start);
+    }
+
+    /**
+     * Termine la requête asynchrone si le traitement l'a laissée ouverte sans
+     * qu'aucun composant ne soit chargé de la terminer (pas de dispatch vers une vue,
+     * pas de future ni d'écriture en attente).
+     */
+    public static void completeAsyncIfIdle(HttpServletRequest request) {
+        if (request.isAsyncStarted() && request.getAttribute(ASYNC_PENDING_ATTRIBUTE) == null) {
+            request.getAsyncContext().complete();
         }
+    }
+
+    /**
+     * Injecte le modèle du contrôleur puis le modèle local dans les attributs de requête.
+     */
+    private void exposeModel(HttpServletRequest request, Model controllerModel) {
+        if (controllerModel != null) {
+            for (Map.Entry<String, Object> e : controllerModel.asMap().entrySet()) {
+                request.setAttribute(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Effectue le forward vers la vue (ou un dispatch si la requête est asynchrone).
+     */
+    private void forward(HttpServletRequest request, HttpServletResponse response, String viewPath) throws Exception {
         // injecter le modèle local
         for (Map.Entry<String, Object> e : model.entrySet()) {
             request.setAttribute(e.getKey(), e.getValue());
@@ -117,7 +313,41 @@ public class ModelView {
         if (!viewPath.startsWith("/")) {
             viewPath = "/" + viewPath;
         }
+        // Le forward valide la réponse: l'en-tête ne peut contenir que les étapes précédentes
+        PhaseTimer.sendHeader(request, response);
+        Object event = FrameworkEvents.begin(FrameworkEvents.Kind.VIEW_FORWARD);
+        if (request.isAsyncStarted()) {
+            request.getAsyncContext().dispatch(viewPath);
+            FrameworkEvents.commit(event, route, viewPath, 0);
+            return;
+        }
+        PhaseTimer timer = PhaseTimer.of(request);
+        long start = PhaseTimer.mark(timer);
         RequestDispatcher rd = request.getRequestDispatcher(viewPath);
         rd.forward(request, response);
+        PhaseTimer.record(timer, PhaseTimer.Phase.VIEW, start);
+        FrameworkEvents.commit(event, route, viewPath, 0);
+    }
+
+    private static void writeAsyncError(HttpServletResponse response, int status, String message, Throwable t) throws IOException {
+        if (response.isCommitted()) {
+            return;
+        }
+        response.reset();
+        response.setStatus(status);
+        response.setContentType("text/plain; charset=UTF-8");
+        PrintWriter out = response.getWriter();
+        out.println(message);
+        if (t != null) {
+            out.println();
+            out.println("Exception: " + t.getClass().getName());
+            out.println("Message: " + t.getMessage());
+            LOG.error(message, t);
+        }
+        out.flush();
+    }
+
+    private String describeRoute() {
+        return route == null ? String.valueOf(view) : route.getClassName() + "#" + route.getMethodName();
     }
 }
@@ -1,17 +1,37 @@
 package com.monframework.core.util.Mapper.ParmeterUtil;
 
+import com.monframework.core.util.Annotation.MultipartLimits;
 import com.monframework.core.util.Annotation.PathVariable;
 import com.monframework.core.util.Annotation.RequestParam;
+import com.monframework.core.util.Annotation.ResumableUpload;
 import com.monframework.core.util.Annotation.Session;
+import com.monframework.core.util.Annotation.UploadedFile;
+import com.monframework.core.util.Config.FrameworkConfig;
 import com.monframework.core.util.Mapper.Model;
 import com.monframework.core.util.Mapper.SessionMap;
 import com.monframework.core.util.FileUpload.FileUploadHandler;
+import com.monframework.core.util.FileUpload.MultipartStream;
+import com.monframework.core.util.FileUpload.ResumableUploadHandler;
+import com.monframework.core.util.FileUpload.ResumableUploadStore;
+import com.monframework.core.util.FileUpload.StoredBlob;
+import com.monframework.core.util.SessionStore.CookieSessionCodec;
+import com.monframework.core.util.SessionStore.CookieSessionStore;
+import com.monframework.core.util.SessionStore.SessionIdCookie;
+import com.monframework.core.util.SessionStore.SessionStore;
 
 import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.Part;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Parameter;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -21,10 +41,23 @@ import java.util.Map;
  */
 public class ParameterResolver {
     
+    private static final String MULTIPART_STREAM_ATTRIBUTE = "framework.multipartStream";
+    
     private final HttpServletRequest request;
     private final HttpServletResponse response;
     private final Model model;
     private final Map<String, String> pathVars;
+    private final List<SessionMap> snapshotSessions = new ArrayList<>();
+    private CookieSessionStore cookieSession;
+    
+    /**
+     * Valeur dont la production a des effets de bord (corps lu, fichier écrit, blob stocké):
+     * {@link #resolveParameter} la rend pendant la sélection de la surcharge, sans rien
+     * produire; {@link #materialize} la produit une fois la méthode cible choisie.
+     */
+    private interface Deferred {
+        Object get() throws IOException, ServletException, RequestRejectedException;
+    }
     
     public ParameterResolver(HttpServletRequest request, HttpServletResponse response, 
                             Model model, Map<String, String> pathVars) {
@@ -60,6 +93,24 @@ public class ParameterResolver {
             return response;
         }
         
+        // Cas 3b: @UploadedFile - fichier uploadé injecté en flux (Part, InputStream ou Path)
+        UploadedFile uploadedFile = param.getAnnotation(UploadedFile.class);
+        if (uploadedFile != null) {
+            String fieldName = uploadedFile.value().isEmpty() ? paramName : uploadedFile.value();
+            return resolveUploadedFile(fieldName, paramType, param);
+        }
+        
+        // Cas 3c: @ResumableUpload - fichier assemblé d'un upload reprenable terminé
+        ResumableUpload resumableUpload = param.getAnnotation(ResumableUpload.class);
+        if (resumableUpload != null) {
+            return resolveResumableUpload(resumableUpload.value(), paramType);
+        }
+        
+        // Cas 3d: MultipartStream - parsing multipart en flux par le framework
+        if (paramType.equals(MultipartStream.class)) {
+            return resolveMultipartStream(param.getDeclaringExecutable().getAnnotation(MultipartLimits.class));
+        }
+        
         // Cas 4: Map<String,Object> - Injection de tous les paramètres du formulaire ou session
         // Vérifier que le paramètre est bien Map<String,Object> (pas Map<Integer,Integer> ou raw Map)
         if (Map.class.isAssignableFrom(paramType)) {
@@ -67,7 +118,7 @@ public class ParameterResolver {
             Session sessionAnnotation = param.getAnnotation(Session.class);
             if (sessionAnnotation != null) {
                 // Injection de la Map de session
-                return resolveSessionMap();
+                return resolveSessionMap(sessionAnnotation.mode());
             }
             
             java.lang.reflect.Type ptype = param.getParameterizedType();
@@ -113,6 +164,21 @@ public class ParameterResolver {
         return resolveAnnotatedOrSimpleParameter(param, paramType, paramName);
     }
     
+    /**
+     * Remplace, dans les arguments de la méthode retenue, les valeurs différées par leur
+     * valeur réelle. À appeler une seule fois, après la sélection de la méthode cible.
+     *
+     * @return args, modifié sur place
+     */
+    public Object[] materialize(Object[] args) throws IOException, ServletException, RequestRejectedException {
+        for (int i = 0; i < args.length; i++) {
+            if (args[i] instanceof Deferred) {
+                args[i] = ((Deferred) args[i]).get();
+            }
+        }
+        return args;
+    }
+    
     /**
      * Crée une Map contenant tous les paramètres de la requête HTTP.
      * Supporte les checkboxes (valeurs multiples).
@@ -141,17 +207,87 @@ public class ParameterResolver {
     /**
      * Crée une Map wrapper pour la session HTTP.
      * Cette Map permet de manipuler les attributs de session de manière simplifiée.
+     * En mode SNAPSHOT, la Map est retenue pour être réécrite par {@link #flushSessions()}.
+     * Si un SessionStore est configuré, la session est lue depuis ce store (identifiant
+     * transporté par cookie) au lieu de la HttpSession du conteneur.
      */
-    private Map<String, Object> resolveSessionMap() {
-        if (request != null && request.getSession(false) != null) {
-            return new SessionMap(request.getSession());
-        } else if (request != null) {
+    private Map<String, Object> resolveSessionMap(Session.Mode mode) {
+        if (mode == Session.Mode.COOKIE && request != null) {
+            return resolveCookieSessionMap();
+        }
+        Object store = request != null ? request.getServletContext().getAttribute(SessionStore.CONTEXT_ATTRIBUTE) : null;
+        if (store instanceof SessionStore) {
+            String cookieName = FrameworkConfig.from(request.getServletContext())
+                    .get("framework.session.cookieName", SessionIdCookie.DEFAULT_NAME);
+            SessionMap sessionMap = new SessionMap((SessionStore) store, SessionIdCookie.resolve(request, response, cookieName));
+            snapshotSessions.add(sessionMap);
+            return sessionMap;
+        }
+        if (request != null) {
             // Créer une nouvelle session si elle n'existe pas
-            return new SessionMap(request.getSession(true));
+            SessionMap sessionMap = new SessionMap(request.getSession(true), mode);
+            if (sessionMap.isSnapshotMode()) {
+                snapshotSessions.add(sessionMap);
+            }
+            return sessionMap;
         }
         return new HashMap<>();
     }
     
+    /**
+     * Session stockée dans un cookie signé: un seul adaptateur par requête,
+     * partagé par tous les paramètres @Session(mode = COOKIE).
+     */
+    private Map<String, Object> resolveCookieSessionMap() {
+        Object codec = request.getServletContext().getAttribute(CookieSessionCodec.CONTEXT_ATTRIBUTE);
+        if (!(codec instanceof CookieSessionCodec)) {
+            throw new IllegalStateException("@Session(mode = COOKIE) nécessite framework.session.cookieKeys");
+        }
+        if (cookieSession == null) {
+            String cookieName = FrameworkConfig.from(request.getServletContext())
+                    .get("framework.session.cookieSessionName", "FWSESSION");
+            cookieSession = new CookieSessionStore((CookieSessionCodec) codec, request, response, cookieName);
+        }
+        SessionMap sessionMap = new SessionMap(cookieSession, cookieSession.requestScopedId());
+        snapshotSessions.add(sessionMap);
+        return sessionMap;
+    }
+    
+    /**
+     * Réécrit dans la HttpSession (ou le store) les modifications des Maps de session en mode
+     * SNAPSHOT injectées par ce résolveur, puis le cookie de session s'il a changé.
+     * Appelé après l'exécution réussie du contrôleur. Toutes les sessions sont tentées:
+     * la première erreur est relancée, les suivantes lui sont ajoutées en suppressed.
+     */
+    public void flushSessions() {
+        RuntimeException failure = null;
+        for (SessionMap sessionMap : snapshotSessions) {
+            try {
+                sessionMap.flush();
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (cookieSession != null) {
+            try {
+                cookieSession.writeCookie();
+            } catch (RuntimeException e) {
+                failure = addFailure(failure, e);
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static RuntimeException addFailure(RuntimeException first, RuntimeException next) {
+        if (first == null) {
+            return next;
+        }
+        first.addSuppressed(next);
+        return first;
+    }
+    
     /**
      * Crée une Map contenant tous les fichiers uploadés.
      * Clé: nom du fichier, Valeur: contenu du fichier en bytes
@@ -163,6 +299,99 @@ public class ParameterResolver {
         return new HashMap<>();
     }
     
+    /**
+     * Résout un paramètre @UploadedFile sans charger le fichier en mémoire. La lecture
+     * de la partie (et l'écriture d'un fichier temporaire ou d'un blob) est différée
+     * jusqu'au choix de la méthode: une surcharge écartée ne laisse rien derrière elle.
+     *
+     * @return la partie, son flux, un fichier temporaire ou un blob stocké (différés);
+     *         null si la requête n'est pas multipart
+     */
+    private Object resolveUploadedFile(String fieldName, Class<?> paramType, Parameter param) throws ParameterResolutionException {
+        if (!Part.class.equals(paramType) && !InputStream.class.equals(paramType) && !Path.class.equals(paramType)
+                && !StoredBlob.class.equals(paramType)) {
+            throw new ParameterResolutionException(
+                "@UploadedFile supporte Part, InputStream, Path et StoredBlob (reçu: " + paramType.getName() + ")"
+            );
+        }
+        if (request == null || !FileUploadHandler.isMultipart(request)) {
+            return null;
+        }
+        if (Arrays.asList(param.getDeclaringExecutable().getParameterTypes()).contains(MultipartStream.class)) {
+            throw new ParameterResolutionException(
+                "@UploadedFile '" + fieldName + "' incompatible avec un paramètre MultipartStream: le corps est lu en flux"
+            );
+        }
+        return (Deferred) () -> {
+            Part part = request.getPart(fieldName);
+            if (part == null || part.getSubmittedFileName() == null) {
+                return null;
+            }
+            if (Part.class.equals(paramType)) {
+                return part;
+            }
+            if (InputStream.class.equals(paramType)) {
+                return FileUploadHandler.openStream(request, part);
+            }
+            if (StoredBlob.class.equals(paramType)) {
+                return FileUploadHandler.storeContentAddressed(request, part);
+            }
+            return FileUploadHandler.toTempFile(request, part);
+        };
+    }
+    
+    /**
+     * Désigne l'upload reprenable de la requête. {@link ResumableUploadStore#finish} est
+     * destructif: il n'est appelé qu'à la matérialisation, pour la méthode retenue.
+     * Upload inconnu: 404; incomplet ou recevant encore un fragment: 409.
+     *
+     * @return le fichier assemblé (différé), ou null si aucun identifiant n'est fourni
+     */
+    private Object resolveResumableUpload(String idParam, Class<?> paramType) throws ParameterResolutionException {
+        if (!Path.class.equals(paramType)) {
+            throw new ParameterResolutionException("@ResumableUpload requiert un paramètre de type java.nio.file.Path");
+        }
+        String uploadId = findParameterValue(idParam, false);
+        if (uploadId == null || request == null) {
+            return null;
+        }
+        Object handler = request.getServletContext().getAttribute(ResumableUploadHandler.CONTEXT_ATTRIBUTE);
+        if (!(handler instanceof ResumableUploadHandler)) {
+            throw new ParameterResolutionException("Uploads reprenables non activés (framework.upload.resumable.path)");
+        }
+        ResumableUploadStore store = ((ResumableUploadHandler) handler).getStore();
+        return (Deferred) () -> {
+            if (store.info(uploadId) == null) {
+                throw new RequestRejectedException(HttpServletResponse.SC_NOT_FOUND, "Upload '" + uploadId + "' inconnu");
+            }
+            Path assembled = store.finish(uploadId);
+            if (assembled == null) {
+                throw new RequestRejectedException(HttpServletResponse.SC_CONFLICT, "Upload '" + uploadId + "' incomplet");
+            }
+            FileUploadHandler.registerRequestResource(request, assembled);
+            return assembled;
+        };
+    }
+    
+    /**
+     * Ouvre (une seule fois par requête) le parseur multipart en flux. L'ouverture est
+     * différée jusqu'au choix de la méthode: une surcharge écartée ne touche pas au corps.
+     */
+    private Object resolveMultipartStream(MultipartLimits limits) throws ParameterResolutionException {
+        if (request == null || !FileUploadHandler.isMultipart(request)) {
+            throw new ParameterResolutionException("MultipartStream requiert une requête multipart/form-data");
+        }
+        return (Deferred) () -> {
+            Object existing = request.getAttribute(MULTIPART_STREAM_ATTRIBUTE);
+            if (existing instanceof MultipartStream) {
+                return existing;
+            }
+            MultipartStream stream = MultipartStream.open(request, limits);
+            request.setAttribute(MULTIPART_STREAM_ATTRIBUTE, stream);
+            return stream;
+        };
+    }
+    
     /**
      * Résout un paramètre avec annotations (@PathVariable, @RequestParam) ou simple.
      */
@@ -261,4 +490,23 @@ public class ParameterResolver {
             super(message);
         }
     }
+    
+    /**
+     * Requête refusée après le choix de la méthode (erreur du client): FrontServlet
+     * répond avec le statut HTTP porté par l'exception.
+     */
+    public static class RequestRejectedException extends Exception {
+        private static final long serialVersionUID = 1L;
+        
+        private final int status;
+        
+        public RequestRejectedException(int status, String message) {
+            super(message);
+            this.status = status;
+        }
+        
+        public int getStatus() {
+            return status;
+        }
+    }
 }
@@ -0,0 +1,138 @@
+package com.monframework.core.util.Mapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import jakarta.servlet.ServletContext;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Lecture de l'index des routes généré à la compilation par RouteIndexProcessor
+ * ({@code META-INF/monframework/routes.idx}), qui évite le scan de WEB-INF/classes au démarrage.
+ * Les dispatchers générés référencés par l'index sont enregistrés dans {@link GeneratedDispatchers},
+ * chacun pour les classes qu'il a été généré pour appeler. Une classe de l'index qui n'existe
+ * plus (contrôleur supprimé depuis une compilation incrémentale) est ignorée.
+ *
+ * Seul l'index de {@code /WEB-INF/classes/} est lu: un index présent dans un jar de
+ * WEB-INF/lib ou ailleurs sur le classpath est ignoré (les jars restent scannés). Un index
+ * plus ancien que les classes compilées (compilation incrémentale sans le processeur)
+ * est également ignoré, et WEB-INF/classes est alors scanné.
+ */
+public final class RouteIndex {
+
+    private static final Logger LOG = Logger.get(RouteIndex.class);
+
+    public static final String RESOURCE = "META-INF/monframework/routes.idx";
+
+    /**
+     * javac écrit les .class après les fichiers produits par les processeurs: une classe
+     * n'est tenue pour plus récente que l'index qu'au-delà de ce délai.
+     */
+    private static final long STALE_TOLERANCE_MILLIS = 60_000;
+
+    private RouteIndex() {
+    }
+
+    /**
+     * @return les routes de l'index de WEB-INF/classes (triées comme le scan), ou null s'il
+     *         n'existe pas ou s'il est plus ancien que les classes
+     */
+    public static List<RouteMapping> load(ServletContext ctx, ClassLoader loader) throws IOException {
+        URL url = ctx.getResource("/WEB-INF/classes/" + RESOURCE);
+        if (url == null) {
+            return null;
+        }
+        if (isStale(ctx)) {
+            LOG.warn(RESOURCE + " est plus ancien que WEB-INF/classes: index ignoré, scan des classes");
+            return null;
+        }
+        List<RouteMapping> routes = new ArrayList<>();
+        Map<String, GeneratedDispatcher> byName = new HashMap<>();
+        Map<String, GeneratedDispatcher> byClass = new HashMap<>();
+        Map<String, Boolean> present = new HashMap<>();
+        try (BufferedReader in = new BufferedReader(new InputStreamReader(url.openStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] fields = line.split("\t", -1);
+                if (fields.length != 5 && fields.length != 6) {
+                    throw new IOException("Ligne d'index de routes invalide dans " + url + ": " + line);
+                }
+                String className = fields[0];
+                if (!present.computeIfAbsent(className,
+                        c -> loader.getResource(c.replace('.', '/') + ".class") != null)) {
+                    continue;
+                }
+                if (fields.length == 6 && !"-".equals(fields[5])) {
+                    // un dispatcher indisponible est mémorisé (null) pour n'être signalé qu'une fois
+                    if (!byName.containsKey(fields[5])) {
+                        byName.put(fields[5], instantiate(fields[5], loader));
+                    }
+                    GeneratedDispatcher dispatcher = byName.get(fields[5]);
+                    if (dispatcher != null) {
+                        byClass.put(className, dispatcher);
+                    }
+                }
+                routes.add(new RouteMapping(className, fields[1], fields[2], fields[3],
+                        "*".equals(fields[4]) ? null : fields[4]));
+            }
+        }
+        GeneratedDispatchers.register(byClass);
+        Collections.sort(routes, RouteMapping.ROUTE_ORDER);
+        return routes;
+    }
+
+    /**
+     * @return true si un .class de WEB-INF/classes est plus récent que l'index; false si la
+     *         comparaison est impossible (WAR non explosé: index et classes du même build)
+     */
+    private static boolean isStale(ServletContext ctx) throws IOException {
+        String classes = ctx.getRealPath("/WEB-INF/classes");
+        if (classes == null) {
+            return false;
+        }
+        Path index = Paths.get(classes).resolve(RESOURCE);
+        if (!Files.isRegularFile(index)) {
+            return false;
+        }
+        final long limit = Files.getLastModifiedTime(index).toMillis() + STALE_TOLERANCE_MILLIS;
+        final boolean[] stale = { false };
+        Files.walkFileTree(Paths.get(classes), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (attrs.lastModifiedTime().toMillis() > limit && file.getFileName().toString().endsWith(".class")) {
+                    stale[0] = true;
+                    return FileVisitResult.TERMINATE;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return stale[0];
+    }
+
+    private static GeneratedDispatcher instantiate(String className, ClassLoader loader) {
+        try {
+            return (GeneratedDispatcher) Class.forName(className, true, loader).getDeclaredConstructor().newInstance();
+        } catch (ReflectiveOperationException | ClassCastException | LinkageError e) {
+            LOG.warn("Dispatcher généré " + className + " indisponible, appel par réflexion: " + e);
+            return null;
+        }
+    }
+}
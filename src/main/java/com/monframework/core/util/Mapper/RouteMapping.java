@@ -1,11 +1,13 @@
 package com.monframework.core.util.Mapper;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
 import java.nio.file.Path;
-import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.List;
-import java.util.stream.Stream;
-import java.util.stream.Collectors;
 import java.io.IOException;
 import java.net.URL;
 import java.net.URLClassLoader;
@@ -13,32 +15,75 @@ import java.util.Map;
 import java.util.HashMap;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
 
+import com.monframework.core.util.Annotation.AsyncTimeout;
 import com.monframework.core.util.Annotation.ControleurAnnotation;
+import com.monframework.core.util.Annotation.CpuBound;
 import com.monframework.core.util.Annotation.HandleURL;
 import com.monframework.core.util.Annotation.GetRequest;
 import com.monframework.core.util.Annotation.PostRequest;
+import com.monframework.core.util.Finder.ClassFileInfo;
+import com.monframework.core.util.Finder.ClassFileScanner;
+import com.monframework.core.util.Finder.ScanConfig;
+import com.monframework.core.util.Finder.ScanReport;
+import com.monframework.core.util.Formatter.BinaryResponse;
 import com.monframework.core.util.Formatter.JsonResponseBuilder;
 import com.monframework.core.util.Formatter.JsonResponseWrapper;
 import com.monframework.core.util.Annotation.JsonResponse;
 import com.monframework.core.util.Mapper.ParmeterUtil.ParameterResolver;
+import com.monframework.core.util.Metrics.PhaseTimer;
+import com.monframework.core.util.Metrics.FrameworkEvents;
+import com.monframework.core.util.Logging.Logger;
 
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
 public class RouteMapping {
+
+    private static final Logger LOG = Logger.get(RouteMapping.class);
+
     private final String className;
     private final String controllerValue;
     private final String urlValue;
     private final String methodName;
     private final String httpMethod; // GET, POST, PUT, DELETE, ou null pour tous
+    private final ClassLoader classLoader; // null = ClassLoader du contexte (rechargement à chaud sinon)
+    private volatile String routeKey;
+    private volatile Boolean cpuBound;
+    private volatile Binding binding;
+
+    public static final String CONTROLLER_DESCRIPTOR = ClassFileScanner.descriptorOf(ControleurAnnotation.class);
 
     public RouteMapping(String className, String controllerValue, String urlValue, String methodName, String httpMethod) {
+        this(className, controllerValue, urlValue, methodName, httpMethod, null);
+    }
+
+    private RouteMapping(String className, String controllerValue, String urlValue, String methodName, String httpMethod,
+                         ClassLoader classLoader) {
         this.className = className;
         this.controllerValue = controllerValue;
         this.urlValue = urlValue;
         this.methodName = methodName;
         this.httpMethod = httpMethod;
+        this.classLoader = classLoader;
+    }
+
+    /**
+     * Copie de la route dont le contrôleur est chargé par le ClassLoader donné
+     * (classes rechargées à chaud) au lieu du ClassLoader du contexte.
+     */
+    public RouteMapping withClassLoader(ClassLoader loader) {
+        return new RouteMapping(className, controllerValue, urlValue, methodName, httpMethod, loader);
+    }
+
+    public ClassLoader getClassLoader() { return classLoader; }
+
+    private ClassLoader controllerLoader() {
+        return classLoader != null ? classLoader : Thread.currentThread().getContextClassLoader();
     }
 
     public String getClassName() { return className; }
@@ -65,6 +110,33 @@ public class RouteMapping {
         return controller + url;
     }
 
+    /**
+     * Clé stable de la route, {@code "METHODE /url"} ({@code *} pour toutes les méthodes):
+     * identique pour les versions successives d'une route rechargée à chaud.
+     */
+    public String getRouteKey() {
+        String key = routeKey;
+        if (key == null) {
+            key = (httpMethod == null || httpMethod.isEmpty() ? "*" : httpMethod) + " " + getFullUrl();
+            routeKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Indique si l'URL de la route est purement littérale (aucune variable {var}).
+     */
+    public boolean isLiteral() {
+        return getFullUrl().indexOf('{') < 0;
+    }
+
+    /**
+     * Indique si la route accepte la méthode HTTP donnée (null/vide = toutes).
+     */
+    public boolean acceptsMethod(String requestMethod) {
+        return httpMethod == null || httpMethod.isEmpty() || httpMethod.equalsIgnoreCase(requestMethod);
+    }
+
     /**
      * Tente de matcher le chemin demandé avec ce route mapping. Si match,
      * retourne une map nom->valeur des variables de chemin; sinon retourne null.
@@ -115,6 +187,112 @@ public class RouteMapping {
         return vars;
     }
 
+    /**
+     * Cherche une annotation sur la méthode du contrôleur (n'importe quelle surcharge
+     * portant le nom de la route), puis sur la classe du contrôleur.
+     *
+     * @return l'annotation trouvée, ou null
+     */
+    public <A extends Annotation> A findHandlerAnnotation(Class<A> annotationType) throws ClassNotFoundException {
+        ClassLoader loader = controllerLoader();
+        Class<?> clazz = Class.forName(className, false, loader);
+        for (Method m : clazz.getDeclaredMethods()) {
+            if (m.getName().equals(methodName) && m.isAnnotationPresent(annotationType)) {
+                return m.getAnnotation(annotationType);
+            }
+        }
+        return clazz.getAnnotation(annotationType);
+    }
+
+    /**
+     * Indique si le handler est annoté {@link CpuBound} (méthode ou classe). Calculé au premier
+     * appel et conservé sur la route: une route rechargée à chaud est une nouvelle instance.
+     */
+    public boolean isCpuBound() {
+        Boolean value = cpuBound;
+        if (value == null) {
+            try {
+                value = findHandlerAnnotation(CpuBound.class) != null;
+            } catch (ClassNotFoundException e) {
+                value = Boolean.TRUE; // laisser le chemin synchrone signaler l'erreur
+            }
+            cpuBound = value;
+        }
+        return value;
+    }
+
+    /**
+     * Classe du contrôleur, surcharges candidates et dispatcher généré, résolus au premier appel
+     * de la route plutôt qu'à chaque requête. Conservé sur la route: une route rechargée à chaud
+     * est une nouvelle instance, qui ne retient pas les classes de la version précédente.
+     */
+    private static final class Binding {
+        final Class<?> controllerClass;
+        final GeneratedDispatcher dispatcher; // null: instanciation et appel par réflexion
+        final Candidate[] candidates;
+
+        Binding(Class<?> controllerClass, GeneratedDispatcher dispatcher, Candidate[] candidates) {
+            this.controllerClass = controllerClass;
+            this.dispatcher = dispatcher;
+            this.candidates = candidates;
+        }
+
+        /** Instance unique du contrôleur: par le dispatcher généré s'il la prend en charge. */
+        Object newController() throws ReflectiveOperationException {
+            Object controller = dispatcher != null ? dispatcher.newController(controllerClass.getName()) : null;
+            return controller != null ? controller : controllerClass.getDeclaredConstructor().newInstance();
+        }
+    }
+
+    /** Surcharge de la méthode de la route, avec ses paramètres et sa signature pour le dispatcher. */
+    private static final class Candidate {
+        final Method method;
+        final Parameter[] params;
+        final String signature;
+
+        Candidate(Method method, boolean dispatched) {
+            this.method = method;
+            this.params = method.getParameters();
+            this.signature = dispatched ? GeneratedDispatchers.signature(method) : null;
+        }
+
+        /**
+         * Appel par le dispatcher généré s'il connaît la méthode, sinon par réflexion. Comme
+         * Method.invoke, une exception du contrôleur est enveloppée dans InvocationTargetException.
+         */
+        Object invoke(GeneratedDispatcher dispatcher, Object controller, Object[] args) throws Exception {
+            if (dispatcher != null) {
+                Object result;
+                try {
+                    result = dispatcher.invoke(signature, controller, args);
+                } catch (Throwable t) {
+                    throw new InvocationTargetException(t);
+                }
+                if (result != GeneratedDispatcher.NOT_HANDLED) {
+                    return result;
+                }
+            }
+            return method.invoke(controller, args);
+        }
+    }
+
+    private Binding binding() throws ClassNotFoundException {
+        Binding b = binding;
+        if (b == null) {
+            Class<?> clazz = Class.forName(className, true, controllerLoader());
+            GeneratedDispatcher dispatcher = GeneratedDispatchers.forClass(clazz);
+            List<Candidate> candidates = new ArrayList<>();
+            for (Method m : clazz.getDeclaredMethods()) {
+                if (m.getName().equals(methodName)) {
+                    candidates.add(new Candidate(m, dispatcher != null));
+                }
+            }
+            b = new Binding(clazz, dispatcher, candidates.toArray(new Candidate[0]));
+            binding = b;
+        }
+        return b;
+    }
+
     @Override
     public String toString() {
         return "RouteMapping{" +
@@ -135,7 +313,7 @@ public class RouteMapping {
      */
     public String callMethod() throws Exception {
         // Charger la classe du contrôleur
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ClassLoader loader = controllerLoader();
         Class<?> clazz = Class.forName(className, true, loader);
         
         // Créer une instance du contrôleur (constructeur par défaut)
@@ -164,7 +342,7 @@ public class RouteMapping {
      * (HttpServletRequest), (), et invoque la méthode trouvée.
      */
     public String callMethod(HttpServletRequest request, HttpServletResponse response) throws Exception {
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ClassLoader loader = controllerLoader();
         Class<?> clazz = Class.forName(className, true, loader);
         Object controllerInstance = clazz.getDeclaredConstructor().newInstance();
 
@@ -195,18 +373,29 @@ public class RouteMapping {
 
     /**
      * Résultat d'invocation contenant la vue et le modèle rempli par le contrôleur.
+     * Pour un contrôleur asynchrone, contient le future en attente et la conversion
+     * à appliquer à sa valeur une fois terminé. Pour un fichier ou des données binaires,
+     * contient la {@link BinaryResponse} à écrire.
      */
     public static class InvokeResult {
         private final String view;
         private final Model model;
         private final boolean isJsonResponse;
         private final String jsonContent;
+        private final CompletionStage<?> pending;
+        private final Function<Object, InvokeResult> completion;
+        private final long asyncTimeout;
+        private final BinaryResponse binaryResponse;
 
         public InvokeResult(String view, Model model) {
             this.view = view;
             this.model = model;
             this.isJsonResponse = false;
             this.jsonContent = null;
+            this.pending = null;
+            this.completion = null;
+            this.asyncTimeout = 0;
+            this.binaryResponse = null;
         }
 
         public InvokeResult(String jsonContent) {
@@ -214,12 +403,51 @@ public class RouteMapping {
             this.model = null;
             this.isJsonResponse = true;
             this.jsonContent = jsonContent;
+            this.pending = null;
+            this.completion = null;
+            this.asyncTimeout = 0;
+            this.binaryResponse = null;
+        }
+
+        public InvokeResult(CompletionStage<?> pending, Function<Object, InvokeResult> completion, long asyncTimeout) {
+            this.view = null;
+            this.model = null;
+            this.isJsonResponse = false;
+            this.jsonContent = null;
+            this.pending = pending;
+            this.completion = completion;
+            this.asyncTimeout = asyncTimeout;
+            this.binaryResponse = null;
+        }
+
+        public InvokeResult(BinaryResponse binaryResponse) {
+            this.view = null;
+            this.model = null;
+            this.isJsonResponse = false;
+            this.jsonContent = null;
+            this.pending = null;
+            this.completion = null;
+            this.asyncTimeout = 0;
+            this.binaryResponse = binaryResponse;
         }
 
         public String getView() { return view; }
         public Model getModel() { return model; }
         public boolean isJsonResponse() { return isJsonResponse; }
         public String getJsonContent() { return jsonContent; }
+        public boolean isAsync() { return pending != null; }
+        public boolean isBinaryResponse() { return binaryResponse != null; }
+        public BinaryResponse getBinaryResponse() { return binaryResponse; }
+        public CompletionStage<?> getPending() { return pending; }
+        /** Délai en millisecondes (0 = délai par défaut du conteneur). */
+        public long getAsyncTimeout() { return asyncTimeout; }
+
+        /**
+         * Convertit la valeur produite par le future en résultat final (vue, JSON ou binaire).
+         */
+        public InvokeResult complete(Object value) {
+            return completion.apply(value);
+        }
     }
 
     /**
@@ -228,9 +456,12 @@ public class RouteMapping {
      * Supporte aussi les méthodes retournant directement un ModelView.
      */
     public InvokeResult callMethodWithModel(HttpServletRequest request, HttpServletResponse response, Map<String,String> pathVars) throws Exception {
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        Class<?> clazz = Class.forName(className, true, loader);
-        Object controllerInstance = clazz.getDeclaredConstructor().newInstance();
+        final PhaseTimer timer = PhaseTimer.of(request);
+        long phaseStart = PhaseTimer.mark(timer);
+        Object event = FrameworkEvents.begin(FrameworkEvents.Kind.BINDING);
+        Binding binding = binding();
+        // Instanciation directe par le dispatcher généré à la compilation si disponible
+        Object controllerInstance = binding.newController();
 
         // Préparer un Model pour le contrôleur
         Model model = new Model();
@@ -240,13 +471,11 @@ public class RouteMapping {
 
         // Rechercher une méthode du contrôleur avec le bon nom et des paramètres que
         // nous pouvons satisfaire
-        Method target = null;
+        Candidate target = null;
         Object[] args = null;
 
-        for (Method m : clazz.getDeclaredMethods()) {
-            if (!m.getName().equals(methodName)) continue;
-            
-            java.lang.reflect.Parameter[] params = m.getParameters();
+        for (Candidate candidate : binding.candidates) {
+            Parameter[] params = candidate.params;
             Object[] candidateArgs = new Object[params.length];
             boolean ok = true;
             
@@ -262,7 +491,7 @@ public class RouteMapping {
             if (!ok) continue;
             
             // Méthode trouvée
-            target = m;
+            target = candidate;
             args = candidateArgs;
             break;
         }
@@ -270,24 +499,82 @@ public class RouteMapping {
         if (target == null) {
             throw new Exception("Méthode " + methodName + " non trouvée avec une signature supportée dans " + className);
         }
+        // fichiers, blobs et uploads: produits seulement pour la méthode retenue
+        resolver.materialize(args);
 
         // Vérifier si la méthode est annotée avec @JsonResponse
-        JsonResponse jsonResponseAnnotation = target.getAnnotation(JsonResponse.class);
+        JsonResponse jsonResponseAnnotation = target.method.getAnnotation(JsonResponse.class);
         boolean isJsonResponse = jsonResponseAnnotation != null;
 
         // Vérifier type de retour
-        Class<?> returnType = target.getReturnType();
+        Class<?> returnType = target.method.getReturnType();
+        boolean isAsync = CompletionStage.class.isAssignableFrom(returnType);
+        boolean isBinary = BinaryResponse.class.isAssignableFrom(returnType);
         
         // Si @JsonResponse est présent ou si le retour est JsonResponseWrapper, on accepte n'importe quel type
-        if (!isJsonResponse && !returnType.equals(JsonResponseWrapper.class)) {
+        if (!isJsonResponse && !isAsync && !isBinary && !returnType.equals(JsonResponseWrapper.class)) {
             if (!returnType.equals(String.class) && !returnType.equals(ModelView.class)) {
                 throw new Exception("La méthode " + methodName + " de la classe " + className +
-                        " ne retourne ni String, ni ModelView, ni JsonResponseWrapper (retourne: " + returnType.getName() + ")");
+                        " ne retourne ni String, ni ModelView, ni JsonResponseWrapper, ni FileResponse/ByteBufferResponse, ni CompletableFuture (retourne: " + returnType.getName() + ")");
             }
         }
 
-        Object result = target.invoke(controllerInstance, args == null ? new Object[]{} : args);
+        PhaseTimer.record(timer, PhaseTimer.Phase.BIND, phaseStart);
+        FrameworkEvents.commit(event, this, null, 0);
+        phaseStart = PhaseTimer.mark(timer);
+        event = FrameworkEvents.begin(FrameworkEvents.Kind.INVOCATION);
+
+        Object result;
+        try {
+            result = target.invoke(binding.dispatcher, controllerInstance, args);
+            // sessions en mode SNAPSHOT: réécriture des seules clés modifiées, avant la vue;
+            // pas en cas d'exception, qui ne doit pas être masquée par une erreur d'écriture
+            resolver.flushSessions();
+        } finally {
+            PhaseTimer.record(timer, PhaseTimer.Phase.INVOKE, phaseStart);
+            FrameworkEvents.commit(event, this, null, 0);
+        }
         
+        // Contrôleur asynchrone: la conversion est différée jusqu'à la complétion du future
+        if (isAsync) {
+            if (result == null) {
+                throw new Exception("La méthode " + methodName + " de la classe " + className + " a retourné un future null");
+            }
+            AsyncTimeout timeoutAnnotation = target.method.getAnnotation(AsyncTimeout.class);
+            long timeout = timeoutAnnotation != null ? timeoutAnnotation.value() : 0;
+            final JsonResponse jsonAnnotation = jsonResponseAnnotation;
+            return new InvokeResult((CompletionStage<?>) result, value -> {
+                // le future a pu modifier la session après le retour du contrôleur
+                resolver.flushSessions();
+                long jsonStart = PhaseTimer.mark(timer);
+                InvokeResult converted = toInvokeResult(value, jsonAnnotation, model, true);
+                if (converted.isJsonResponse()) {
+                    PhaseTimer.record(timer, PhaseTimer.Phase.JSON, jsonStart);
+                }
+                return converted;
+            }, timeout);
+        }
+        
+        phaseStart = PhaseTimer.mark(timer);
+        InvokeResult converted = toInvokeResult(result, jsonResponseAnnotation, model, false);
+        if (converted.isJsonResponse()) {
+            PhaseTimer.record(timer, PhaseTimer.Phase.JSON, phaseStart);
+        }
+        return converted;
+    }
+
+    /**
+     * Convertit la valeur retournée par le contrôleur en résultat (binaire, JSON ou vue).
+     *
+     * @param anyObjectAsJson true pour la valeur d'un future: tout objet qui n'est
+     *                        ni une vue ni un JsonResponseWrapper est sérialisé en JSON
+     */
+    private static InvokeResult toInvokeResult(Object result, JsonResponse jsonResponseAnnotation, Model model, boolean anyObjectAsJson) {
+        // Fichier ou données binaires: écrits tels quels
+        if (result instanceof BinaryResponse) {
+            return new InvokeResult((BinaryResponse) result);
+        }
+
         // Si le résultat est un JsonResponseWrapper, l'utiliser directement
         if (result instanceof JsonResponseWrapper) {
             JsonResponseWrapper wrapper = (JsonResponseWrapper) result;
@@ -301,18 +588,17 @@ public class RouteMapping {
         }
         
         // Si c'est une réponse JSON annotée
-        if (isJsonResponse) {
+        if (jsonResponseAnnotation != null) {
             String message = jsonResponseAnnotation.message();
             int code = jsonResponseAnnotation.code();
             String jsonContent = JsonResponseBuilder.buildJsonResponse(result, "success", message, code);
             return new InvokeResult(jsonContent);
         }
         
-        // Si le retour est une String et pas de ModelView, c'est aussi du JSON
-        if (returnType.equals(String.class) && !(result instanceof ModelView)) {
+        // Si le retour est une String déjà au format JSON (commence par { ou [)
+        if (result instanceof String) {
             String strResult = (String) result;
-            // Vérifier si c'est déjà du JSON (commence par { ou [)
-            if (strResult != null && (strResult.trim().startsWith("{") || strResult.trim().startsWith("["))) {
+            if (strResult.trim().startsWith("{") || strResult.trim().startsWith("[")) {
                 return new InvokeResult(strResult);
             }
         }
@@ -324,6 +610,9 @@ public class RouteMapping {
             model.addAllAttributes(mv.getModel());
             return new InvokeResult(view, model);
         }
+        if (anyObjectAsJson && result != null && !(result instanceof String)) {
+            return new InvokeResult(JsonResponseBuilder.success(result, "Success"));
+        }
         String view = (String) result;
         return new InvokeResult(view, model);
     }
@@ -335,7 +624,7 @@ public class RouteMapping {
      * @throws Exception si le type de retour n'est ni String ni ModelView
      */
     public ModelView callToModelView() throws Exception {
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+        ClassLoader loader = controllerLoader();
         Class<?> clazz = Class.forName(className, true, loader);
         Object controllerInstance = clazz.getDeclaredConstructor().newInstance();
         Method method = clazz.getDeclaredMethod(methodName);
@@ -357,11 +646,8 @@ public class RouteMapping {
     /**
      * Liste tous les fichiers .class dans un répertoire
      */
-    private static List<Path> listClassFiles(Path root) throws IOException {
-        try (Stream<Path> s = Files.walk(root)) {
-            return s.filter(p -> Files.isRegularFile(p) && p.toString().endsWith(".class"))
-                    .collect(Collectors.toList());
-        }
+    private static List<Path> listClassFiles(Path root, ScanConfig scanConfig) throws IOException {
+        return scanConfig.listClassFiles(root);
     }
     
     /**
@@ -391,12 +677,33 @@ public class RouteMapping {
 
     /**
      * Version avec ClassLoader explicite pour les environnements Servlet.
-     * Cette méthode scanne tous les fichiers .class, charge les classes avec les annotations
-     * @ControleurAnnotation et collecte les méthodes avec @HandleURL.
+     * Cette méthode lit tous les fichiers .class sans les charger (ClassFileScanner),
+     * charge uniquement les classes annotées @ControleurAnnotation et collecte
+     * les méthodes avec @HandleURL, @GetRequest ou @PostRequest.
      */
     public static List<RouteMapping> scanFromClassesRoot(Path classesRoot, ClassLoader contextClassLoader) throws Exception {
-        List<RouteMapping> result = new ArrayList<>();
-        
+        return scanFromClassesRoot(classesRoot, contextClassLoader, new ScanReport(), Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Scan parallèle: la lecture du bytecode, le chargement des contrôleurs et l'extraction
+     * des routes sont répartis sur un ForkJoinPool. Le résultat est trié (classe, méthode, URL)
+     * pour que l'ordre des routes ne dépende pas de l'ordonnancement des threads.
+     *
+     * @param report      reçoit la durée de chaque phase et les compteurs
+     * @param parallelism nombre de threads (1 = scan séquentiel dans le thread appelant)
+     */
+    public static List<RouteMapping> scanFromClassesRoot(Path classesRoot, ClassLoader contextClassLoader,
+                                                         ScanReport report, int parallelism) throws Exception {
+        return scanFromClassesRoot(classesRoot, contextClassLoader, report, parallelism, ScanConfig.ALL);
+    }
+
+    /**
+     * Variante limitée au périmètre de scanConfig (packages de base, globs, profondeur).
+     */
+    public static List<RouteMapping> scanFromClassesRoot(Path classesRoot, ClassLoader contextClassLoader,
+                                                         ScanReport report, int parallelism,
+                                                         ScanConfig scanConfig) throws Exception {
         // Utiliser le ClassLoader approprié
         ClassLoader loader = contextClassLoader;
         URLClassLoader urlLoader = null;
@@ -414,71 +721,37 @@ public class RouteMapping {
             shouldCloseLoader = true;
         }
         
+        ForkJoinPool pool = null;
         try {
-            // Lister tous les fichiers .class
-            List<Path> classFiles = listClassFiles(classesRoot);
-            System.out.println("[DEBUG RouteMapping] Found " + classFiles.size() + " class files");
-            
-            // Pour chaque fichier .class
-            for (Path p : classFiles) {
-                Path rel = classesRoot.relativize(p);
-                String className = toClassName(rel);
-                
-                System.out.println("[DEBUG RouteMapping] Checking class: '" + className + "'");
-                
-                try {
-                    // Charger la classe
-                    Class<?> clazz = Class.forName(className, false, loader);
-                    
-                    // Vérifier si elle a l'annotation @ControleurAnnotation
-                    if (clazz.isAnnotationPresent(ControleurAnnotation.class)) {
-                        ControleurAnnotation ctrl = clazz.getAnnotation(ControleurAnnotation.class);
-                        String controllerValue = ctrl.value();
-                        
-                        System.out.println("[DEBUG RouteMapping] Found controller: " + className + " with value: " + controllerValue);
-                        
-                        // Parcourir toutes les méthodes de la classe
-                        for (Method m : clazz.getDeclaredMethods()) {
-                            String urlValue = null;
-                            String httpMethod = null;
-                            
-                            // Vérifier @GetRequest
-                            GetRequest getAnn = m.getAnnotation(GetRequest.class);
-                            if (getAnn != null) {
-                                urlValue = getAnn.value();
-                                httpMethod = "GET";
-                            }
-                            
-                            // Vérifier @PostRequest
-                            PostRequest postAnn = m.getAnnotation(PostRequest.class);
-                            if (postAnn != null) {
-                                urlValue = postAnn.value();
-                                httpMethod = "POST";
-                            }
-                            
-                            // Vérifier @HandleURL (pour compatibilité)
-                            HandleURL urlAnn = m.getAnnotation(HandleURL.class);
-                            if (urlAnn != null) {
-                                urlValue = urlAnn.value();
-                                String methodAttr = urlAnn.method();
-                                if (methodAttr != null && !methodAttr.isEmpty()) {
-                                    httpMethod = methodAttr.toUpperCase();
-                                }
-                                // Sinon httpMethod reste null (accepte tous les types)
-                            }
-                            
-                            if (urlValue != null) {
-                                RouteMapping mapping = new RouteMapping(clazz.getName(), controllerValue, urlValue, m.getName(), httpMethod);
-                                result.add(mapping);
-                                System.out.println("[DEBUG RouteMapping] Added route: " + mapping);
-                            }
-                        }
-                    }
-                } catch (Throwable t) {
-                    System.err.println("Warning: unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
-                }
+            // Phase 1: lister tous les fichiers .class
+            long t0 = System.nanoTime();
+            List<Path> classFiles = listClassFiles(classesRoot, scanConfig);
+            report.phase("listage des fichiers", System.nanoTime() - t0);
+            report.count("fichiers .class", classFiles.size());
+
+            // Phase 2: lecture du bytecode, chargement des contrôleurs, extraction des routes
+            t0 = System.nanoTime();
+            ScanTask task = new ScanTask(classesRoot, classFiles, 0, classFiles.size(), loader, report);
+            List<RouteMapping> result;
+            if (parallelism > 1 && classFiles.size() > ScanTask.THRESHOLD) {
+                pool = new ForkJoinPool(parallelism);
+                result = pool.invoke(task);
+                report.setParallelism(parallelism);
+            } else {
+                result = task.compute();
             }
+            report.phase("analyse parallèle", System.nanoTime() - t0);
+
+            // Phase 3: fusion déterministe
+            t0 = System.nanoTime();
+            result.sort(ROUTE_ORDER);
+            report.phase("fusion", System.nanoTime() - t0);
+            report.count("routes", result.size());
+            return result;
         } finally {
+            if (pool != null) {
+                pool.shutdown();
+            }
             if (shouldCloseLoader && urlLoader != null) {
                 try {
                     urlLoader.close();
@@ -487,7 +760,175 @@ public class RouteMapping {
                 }
             }
         }
+    }
 
+    /**
+     * Charge les contrôleurs déjà identifiés par leur nom (scan des jars, WAR non explosé)
+     * et retourne leurs routes, triées comme pour {@link #scanFromClassesRoot}.
+     */
+    public static List<RouteMapping> scanClassNames(Collection<String> classNames, ClassLoader loader, ScanReport report) {
+        long t0 = System.nanoTime();
+        List<RouteMapping> result = new ArrayList<>();
+        int controllers = 0;
+        for (String className : classNames) {
+            try {
+                Class<?> clazz = Class.forName(className, false, loader);
+                if (clazz.isAnnotationPresent(ControleurAnnotation.class)) {
+                    controllers++;
+                    result.addAll(extractRoutes(clazz));
+                }
+            } catch (Throwable t) {
+                LOG.warn("Unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
+            }
+        }
+        result.sort(ROUTE_ORDER);
+        report.work("chargement et extraction des routes", System.nanoTime() - t0);
+        report.count("contrôleurs", controllers);
+        return result;
+    }
+
+    /**
+     * Ordre de priorité des routes, indépendant de l'ordre de découverte des classes:
+     * routes littérales d'abord, puis les routes à variables de la plus spécifique
+     * (préfixe littéral le plus long, puis le moins de variables) à la moins spécifique.
+     * À URL égale, une méthode HTTP explicite passe avant une route toutes méthodes;
+     * la classe et la méthode du contrôleur départagent le reste.
+     */
+    public static final Comparator<RouteMapping> ROUTE_ORDER = Comparator
+            .comparing((RouteMapping rm) -> !rm.isLiteral())
+            .thenComparing(Comparator.comparingInt(RouteMapping::literalPrefixLength).reversed())
+            .thenComparingInt(RouteMapping::variableCount)
+            .thenComparing(RouteMapping::getFullUrl)
+            .thenComparing(rm -> rm.getHttpMethod() == null || rm.getHttpMethod().isEmpty())
+            .thenComparing(rm -> rm.getHttpMethod() == null ? "" : rm.getHttpMethod())
+            .thenComparing(RouteMapping::getClassName)
+            .thenComparing(RouteMapping::getMethodName);
+
+    private static int literalPrefixLength(RouteMapping rm) {
+        String full = rm.getFullUrl();
+        int open = full.indexOf('{');
+        return open < 0 ? full.length() : open;
+    }
+
+    private static int variableCount(RouteMapping rm) {
+        String full = rm.getFullUrl();
+        int count = 0;
+        for (int i = full.indexOf('{'); i >= 0; i = full.indexOf('{', i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * Découpe la liste des fichiers en tranches traitées en parallèle.
+     */
+    private static class ScanTask extends RecursiveTask<List<RouteMapping>> {
+        private static final long serialVersionUID = 1L;
+        static final int THRESHOLD = 64;
+
+        private final Path classesRoot;
+        private final List<Path> files;
+        private final int from;
+        private final int to;
+        private final ClassLoader loader;
+        private final ScanReport report;
+
+        ScanTask(Path classesRoot, List<Path> files, int from, int to, ClassLoader loader, ScanReport report) {
+            this.classesRoot = classesRoot;
+            this.files = files;
+            this.from = from;
+            this.to = to;
+            this.loader = loader;
+            this.report = report;
+        }
+
+        @Override
+        protected List<RouteMapping> compute() {
+            if (to - from > THRESHOLD) {
+                int middle = (from + to) >>> 1;
+                ScanTask left = new ScanTask(classesRoot, files, from, middle, loader, report);
+                left.fork();
+                List<RouteMapping> right = new ScanTask(classesRoot, files, middle, to, loader, report).compute();
+                List<RouteMapping> merged = left.join();
+                merged.addAll(right);
+                return merged;
+            }
+            List<RouteMapping> routes = new ArrayList<>();
+            long parseNanos = 0;
+            long loadNanos = 0;
+            int controllers = 0;
+            for (int i = from; i < to; i++) {
+                Path p = files.get(i);
+                String className = toClassName(classesRoot.relativize(p));
+                try {
+                    // Lire l'en-tête du .class: seules les classes annotées sont chargées
+                    long t0 = System.nanoTime();
+                    ClassFileInfo info = ClassFileScanner.readIfAnnotated(p, CONTROLLER_DESCRIPTOR);
+                    long t1 = System.nanoTime();
+                    parseNanos += t1 - t0;
+                    if (info == null) {
+                        continue;
+                    }
+                    className = info.getClassName();
+                    Class<?> clazz = Class.forName(className, false, loader);
+                    if (clazz.isAnnotationPresent(ControleurAnnotation.class)) {
+                        controllers++;
+                        routes.addAll(extractRoutes(clazz));
+                    }
+                    loadNanos += System.nanoTime() - t1;
+                } catch (Throwable t) {
+                    LOG.warn("Unable to load " + className + " : " + t.getClass().getSimpleName() + " " + t.getMessage());
+                }
+            }
+            report.work("lecture du bytecode", parseNanos);
+            report.work("chargement et extraction des routes", loadNanos);
+            report.count("contrôleurs", controllers);
+            return routes;
+        }
+    }
+
+    /**
+     * Collecte les routes d'une classe annotée @ControleurAnnotation.
+     */
+    private static List<RouteMapping> extractRoutes(Class<?> clazz) {
+        List<RouteMapping> result = new ArrayList<>();
+        ControleurAnnotation ctrl = clazz.getAnnotation(ControleurAnnotation.class);
+        String controllerValue = ctrl.value();
+
+        // Parcourir toutes les méthodes de la classe
+        for (Method m : clazz.getDeclaredMethods()) {
+            String urlValue = null;
+            String httpMethod = null;
+            
+            // Vérifier @GetRequest
+            GetRequest getAnn = m.getAnnotation(GetRequest.class);
+            if (getAnn != null) {
+                urlValue = getAnn.value();
+                httpMethod = "GET";
+            }
+            
+            // Vérifier @PostRequest
+            PostRequest postAnn = m.getAnnotation(PostRequest.class);
+            if (postAnn != null) {
+                urlValue = postAnn.value();
+                httpMethod = "POST";
+            }
+            
+            // Vérifier @HandleURL (pour compatibilité)
+            HandleURL urlAnn = m.getAnnotation(HandleURL.class);
+            if (urlAnn != null) {
+                urlValue = urlAnn.value();
+                String methodAttr = urlAnn.method();
+                if (methodAttr != null && !methodAttr.isEmpty()) {
+                    httpMethod = methodAttr.toUpperCase();
+                }
+                // Sinon httpMethod reste null (accepte tous les types)
+            }
+            
+            if (urlValue != null) {
+                result.add(new RouteMapping(clazz.getName(), controllerValue, urlValue, m.getName(), httpMethod));
+            }
+        }
         return result;
     }
 }
\ No newline at end of file
@@ -0,0 +1,294 @@
+package com.monframework.core.util.Mapper;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import com.monframework.core.util.Finder.ClassFileInfo;
+import com.monframework.core.util.Finder.ClassFileScanner;
+import com.monframework.core.util.Finder.ScanConfig;
+import com.monframework.core.util.Finder.ScanReport;
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Rechargement à chaud des contrôleurs de WEB-INF/classes (context-param framework.hotReload=true).
+ *
+ * Un WatchService surveille l'arborescence des classes. Après une rafale de modifications
+ * (regroupées pendant framework.hotReload.debounceMs), seuls les fichiers .class modifiés
+ * sont relus: leurs routes sont recalculées dans un nouveau ClassLoader enfant, puis la
+ * table complète est republiée d'un bloc dans la {@link RouteTable}.
+ *
+ * Seuls les contrôleurs modifiés (et leurs classes imbriquées) sont rechargés; toute autre
+ * classe, même recompilée, reste celle du ClassLoader de l'application, pour qu'un objet
+ * partagé (service, DTO en session) garde un seul type. Prévu pour le développement.
+ *
+ * Mappings natifs (framework.nativeRouting): le conteneur n'accepte de nouvelles servlets
+ * qu'au démarrage. Une route littérale ajoutée par rechargement n'a donc pas de RouteServlet
+ * et est servie par FrontServlet; une RouteServlet existante relit ses routes dans la table.
+ */
+public class RouteReloader implements Closeable {
+
+    private static final Logger LOG = Logger.get(RouteReloader.class);
+
+    private final Path classesRoot;
+    private final ClassLoader parent;
+    private final RouteTable table;
+    private final ScanConfig scanConfig;
+    private final long debounceMillis;
+    private final WatchService watcher;
+    private final Map<WatchKey, Path> watchedDirs = new HashMap<>();
+    private final Thread thread;
+    private Map<String, List<RouteMapping>> routesByClass = new TreeMap<>();
+    private volatile boolean running = true;
+
+    private RouteReloader(Path classesRoot, ClassLoader parent, RouteTable table, ScanConfig scanConfig,
+                          long debounceMillis) throws IOException {
+        this.classesRoot = classesRoot;
+        this.parent = parent;
+        this.table = table;
+        this.scanConfig = scanConfig;
+        this.debounceMillis = debounceMillis;
+        this.watcher = FileSystems.getDefault().newWatchService();
+        for (RouteMapping rm : table.routes()) {
+            routesByClass.computeIfAbsent(rm.getClassName(), k -> new ArrayList<>()).add(rm);
+        }
+        registerAll(classesRoot, null);
+        this.thread = new Thread(this::watchLoop, "framework-hot-reload");
+        this.thread.setDaemon(true);
+    }
+
+    /**
+     * Démarre la surveillance de classesRoot.
+     *
+     * @param parent     ClassLoader de l'application, parent des ClassLoaders de rechargement
+     * @param scanConfig périmètre du scan: les classes hors périmètre sont ignorées
+     */
+    public static RouteReloader start(Path classesRoot, ClassLoader parent, RouteTable table, ScanConfig scanConfig,
+                                      long debounceMillis) throws IOException {
+        RouteReloader reloader = new RouteReloader(classesRoot, parent, table, scanConfig, debounceMillis);
+        reloader.thread.start();
+        LOG.info("Rechargement à chaud des routes actif sur " + classesRoot);
+        return reloader;
+    }
+
+    @Override
+    public void close() throws IOException {
+        running = false;
+        watcher.close();
+        thread.interrupt();
+    }
+
+    private void watchLoop() {
+        try {
+            while (running) {
+                WatchKey key = watcher.take();
+                Set<Path> changed = new TreeSet<>();
+                drain(key, changed);
+                // Regrouper la rafale (compilation de plusieurs classes)
+                while ((key = watcher.poll(debounceMillis, TimeUnit.MILLISECONDS)) != null) {
+                    drain(key, changed);
+                }
+                if (!changed.isEmpty()) {
+                    reload(changed);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // arrêt demandé
+        }
+    }
+
+    private void drain(WatchKey key, Set<Path> changed) {
+        Path dir = watchedDirs.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (dir == null) {
+                continue;
+            }
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                // Des événements ont été perdus: reconsidérer toute l'arborescence
+                collectClassFiles(classesRoot, changed);
+                changed.addAll(knownClassFiles());
+                continue;
+            }
+            Path path = dir.resolve((Path) event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    registerAll(path, changed);
+                } catch (IOException e) {
+                    LOG.warn("Impossible de surveiller " + path + ": " + e.getMessage());
+                }
+            } else if (path.toString().endsWith(".class")) {
+                changed.add(path);
+            }
+        }
+        if (!key.reset()) {
+            watchedDirs.remove(key);
+        }
+    }
+
+    /**
+     * Relit les fichiers modifiés et publie la nouvelle table.
+     */
+    private void reload(Set<Path> changed) {
+        long t0 = System.nanoTime();
+        Map<String, List<RouteMapping>> next = new TreeMap<>(routesByClass);
+        ScanReport report = new ScanReport();
+        Set<String> controllers = new TreeSet<>();
+        // Une classe imbriquée modifiée (Controleur$Interne.class, lambda, classe anonyme)
+        // recharge sa classe de premier niveau, seule porteuse des routes
+        Set<String> topLevel = new TreeSet<>();
+        for (Path file : changed) {
+            topLevel.add(topLevelName(toClassName(classesRoot.relativize(file))));
+        }
+        for (String className : topLevel) {
+            if (!scanConfig.accepts(className)) {
+                continue;
+            }
+            Path file = classesRoot.resolve(className.replace('.', '/') + ".class");
+            try {
+                ClassFileInfo info = Files.isRegularFile(file)
+                        ? ClassFileScanner.readIfAnnotated(file, RouteMapping.CONTROLLER_DESCRIPTOR)
+                        : null;
+                if (info == null) {
+                    // Classe supprimée ou qui n'est plus un contrôleur
+                    next.remove(className);
+                    continue;
+                }
+                controllers.add(info.getClassName());
+            } catch (IOException e) {
+                LOG.warn("Unable to read " + file + " : " + e.getMessage());
+            }
+        }
+        ClassLoader loader = new ReloadingClassLoader(classesRoot, parent, controllers);
+        int reloaded = 0;
+        for (String className : controllers) {
+            List<RouteMapping> routes = new ArrayList<>();
+            for (RouteMapping rm : RouteMapping.scanClassNames(Collections.singletonList(className), loader, report)) {
+                routes.add(rm.withClassLoader(loader));
+            }
+            next.put(className, routes);
+            reloaded++;
+        }
+        List<RouteMapping> all = new ArrayList<>();
+        for (List<RouteMapping> routes : next.values()) {
+            all.addAll(routes);
+        }
+        all.sort(RouteMapping.ROUTE_ORDER);
+        routesByClass = next;
+        table.publish(all);
+        LOG.info("Rechargement à chaud: " + changed.size() + " fichier(s), " + reloaded
+                + " contrôleur(s) rechargé(s), " + all.size() + " routes en "
+                + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0) + " ms");
+    }
+
+    private void registerAll(Path root, Set<Path> changed) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                String pkg = classesRoot.relativize(dir).toString().replace('\\', '.').replace('/', '.');
+                if (!scanConfig.visitPackage(pkg)) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                WatchKey key = dir.register(watcher, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                watchedDirs.put(key, dir);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                // Fichiers copiés avec un nouveau répertoire: aucun événement ne sera émis pour eux
+                if (changed != null && file.toString().endsWith(".class")) {
+                    changed.add(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    private void collectClassFiles(Path root, Set<Path> changed) {
+        try {
+            registerAll(root, changed);
+        } catch (IOException e) {
+            LOG.warn("Rescan de " + root + " impossible: " + e.getMessage());
+        }
+    }
+
+    private List<Path> knownClassFiles() {
+        List<Path> files = new ArrayList<>();
+        for (String className : routesByClass.keySet()) {
+            files.add(classesRoot.resolve(className.replace('.', '/') + ".class"));
+        }
+        return files;
+    }
+
+    private static String toClassName(Path relative) {
+        String name = relative.toString().replace('\\', '/');
+        return name.substring(0, name.length() - ".class".length()).replace('/', '.');
+    }
+
+    private static String topLevelName(String className) {
+        int nested = className.indexOf('$');
+        return nested < 0 ? className : className.substring(0, nested);
+    }
+
+    /**
+     * Charge en priorité la nouvelle version des contrôleurs rechargés et de leurs classes
+     * imbriquées ({@code Controleur$...}); délègue tout le reste au ClassLoader de l'application.
+     */
+    static final class ReloadingClassLoader extends ClassLoader {
+        private final Path classesRoot;
+        private final Set<String> reloaded;
+
+        ReloadingClassLoader(Path classesRoot, ClassLoader parent, Set<String> reloaded) {
+            super(parent);
+            this.classesRoot = classesRoot;
+            this.reloaded = reloaded;
+        }
+
+        private boolean isReloaded(String name) {
+            return reloaded.contains(topLevelName(name));
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> c = findLoadedClass(name);
+                if (c == null) {
+                    Path file = classesRoot.resolve(name.replace('.', '/') + ".class");
+                    if (!isReloaded(name) || !Files.isRegularFile(file)) {
+                        return super.loadClass(name, resolve);
+                    }
+                    try {
+                        byte[] bytes = Files.readAllBytes(file);
+                        c = defineClass(name, bytes, 0, bytes.length);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(c);
+                }
+                return c;
+            }
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.monframework.core.util.Mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import jakarta.servlet.ServletContext;
+
+/**
+ * Table des routes publiée par copie sur écriture.
+ *
+ * Chaque publication remplace la liste entière (immuable) dans une AtomicReference:
+ * la lecture ne prend aucun verrou et une requête en cours garde la liste qu'elle a lue,
+ * elle ne peut jamais observer une table à moitié construite.
+ */
+public final class RouteTable {
+
+    /** Attribut du ServletContext contenant la table. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.routeTable";
+
+    /** Ancien attribut (liste brute), tenu à jour pour le code qui le lit encore. */
+    public static final String LEGACY_ATTRIBUTE = "route.mappings";
+
+    private final AtomicReference<List<RouteMapping>> routes;
+    private final ServletContext ctx;
+
+    private RouteTable(ServletContext ctx, List<RouteMapping> initial) {
+        this.ctx = ctx;
+        this.routes = new AtomicReference<>(freeze(initial));
+    }
+
+    /**
+     * Publie la table initiale dans le ServletContext et la retourne.
+     */
+    public static RouteTable install(ServletContext ctx, List<RouteMapping> initial) {
+        RouteTable table = new RouteTable(ctx, initial);
+        ctx.setAttribute(CONTEXT_ATTRIBUTE, table);
+        ctx.setAttribute(LEGACY_ATTRIBUTE, table.routes());
+        return table;
+    }
+
+    /**
+     * @return la table du contexte, ou null si les routes n'ont pas encore été collectées
+     */
+    public static RouteTable from(ServletContext ctx) {
+        Object table = ctx.getAttribute(CONTEXT_ATTRIBUTE);
+        return table instanceof RouteTable ? (RouteTable) table : null;
+    }
+
+    /**
+     * Instantané courant (liste immuable).
+     */
+    public List<RouteMapping> routes() {
+        return routes.get();
+    }
+
+    /**
+     * Remplace atomiquement la table entière.
+     */
+    public void publish(List<RouteMapping> newRoutes) {
+        List<RouteMapping> frozen = freeze(newRoutes);
+        routes.set(frozen);
+        ctx.setAttribute(LEGACY_ATTRIBUTE, frozen);
+    }
+
+    private static List<RouteMapping> freeze(List<RouteMapping> list) {
+        return Collections.unmodifiableList(new ArrayList<>(list));
+    }
+}
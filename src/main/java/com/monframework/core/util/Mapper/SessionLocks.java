@@ -0,0 +1,32 @@
+package com.monframework.core.util.Mapper;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Table de verrous partagée par les sessions, indexée par le hash de l'identifiant
+ * de session. Deux requêtes d'une même session prennent le même verrou; deux sessions
+ * différentes ne se bloquent que si elles tombent sur la même case (1 chance sur 64),
+ * sans verrouiller l'objet HttpSession lui-même que le conteneur utilise aussi.
+ *
+ * Le verrou est local à la JVM: il ne protège pas une session partagée entre plusieurs nœuds.
+ */
+final class SessionLocks {
+
+    private static final int STRIPES = 64; // puissance de 2
+    private static final ReentrantLock[] LOCKS = new ReentrantLock[STRIPES];
+
+    static {
+        for (int i = 0; i < STRIPES; i++) {
+            LOCKS[i] = new ReentrantLock();
+        }
+    }
+
+    private SessionLocks() {
+    }
+
+    static ReentrantLock lockFor(String sessionId) {
+        int h = sessionId.hashCode();
+        h ^= (h >>> 16); // les identifiants ne diffèrent parfois que par les bits de poids fort
+        return LOCKS[h & (STRIPES - 1)];
+    }
+}
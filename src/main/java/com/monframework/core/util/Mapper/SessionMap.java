@@ -1,30 +1,354 @@
 package com.monframework.core.util.Mapper;
 
 import jakarta.servlet.http.HttpSession;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.Enumeration;
+import java.util.Objects;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+import com.monframework.core.util.Annotation.Session;
+import com.monframework.core.util.SessionStore.SessionStore;
+import com.monframework.core.util.Logging.Logger;
 
 /**
  * Wrapper pour manipuler la HttpSession comme une Map<String, Object>.
  * Cette classe permet d'ajouter, récupérer, modifier et supprimer des attributs de session
  * en utilisant l'interface Map standard.
+ *
+ * En mode {@link Session.Mode#SNAPSHOT}, les attributs sont copiés au premier accès
+ * et les écritures restent locales jusqu'à {@link #flush()}, qui ne réécrit que les clés
+ * modifiées ou supprimées. Un objet modifié en place (liste, panier...) doit être
+ * signalé par {@link #markDirty(String)} ou un nouveau put pour être réécrit.
+ *
+ * Les opérations atomiques (computeIfAbsent, computeIfPresent, compute, merge, putIfAbsent)
+ * s'exécutent sous le verrou de la session ({@link SessionLocks}) et écrivent directement
+ * dans la HttpSession, quel que soit le mode: deux requêtes concurrentes d'un même
+ * navigateur peuvent ainsi incrémenter un compteur ou remplir un panier sans perte.
+ * La fonction fournie est appelée sous verrou et doit rester courte.
+ *
+ * Adossée à un {@link SessionStore} (sessions hors conteneur), la Map fonctionne toujours
+ * en mode SNAPSHOT: chargement unique depuis le store, puis au flush relecture de l'état
+ * courant, application des seules clés modifiées et sauvegarde.
  */
 public class SessionMap implements Map<String, Object> {
+
+    private static final Logger LOG = Logger.get(SessionMap.class);
     
     private final HttpSession session;
+    private final SessionStore store;
+    private final String storeId;
+    private final boolean snapshotMode;
+    
+    // Mode SNAPSHOT: copie locale et clés à réécrire
+    private Map<String, Object> snapshot;
+    private final Set<String> dirty = new HashSet<>();
+    private final Set<String> removed = new HashSet<>();
     
     public SessionMap(HttpSession session) {
+        this(session, Session.Mode.DIRECT);
+    }
+    
+    public SessionMap(HttpSession session, Session.Mode mode) {
         if (session == null) {
             throw new IllegalArgumentException("HttpSession ne peut pas être null");
         }
         this.session = session;
+        this.store = null;
+        this.storeId = null;
+        this.snapshotMode = mode == Session.Mode.SNAPSHOT;
+    }
+    
+    /**
+     * Session hors conteneur, identifiée par sessionId dans le store.
+     */
+    public SessionMap(SessionStore store, String sessionId) {
+        if (store == null || sessionId == null) {
+            throw new IllegalArgumentException("Le store et l'identifiant de session sont obligatoires");
+        }
+        this.session = null;
+        this.store = store;
+        this.storeId = sessionId;
+        this.snapshotMode = true;
+    }
+    
+    public boolean isSnapshotMode() {
+        return snapshotMode;
+    }
+    
+    /**
+     * Copie locale des attributs, chargée une seule fois.
+     */
+    private Map<String, Object> snapshot() {
+        if (snapshot == null) {
+            snapshot = new LinkedHashMap<>();
+            if (store != null) {
+                snapshot.putAll(loadFromStore());
+                return snapshot;
+            }
+            Enumeration<String> names = session.getAttributeNames();
+            while (names.hasMoreElements()) {
+                String name = names.nextElement();
+                snapshot.put(name, session.getAttribute(name));
+            }
+        }
+        return snapshot;
+    }
+    
+    /**
+     * Signale qu'une valeur a été modifiée en place et doit être réécrite au flush.
+     */
+    public void markDirty(String key) {
+        if (snapshotMode && snapshot().containsKey(key)) {
+            dirty.add(key);
+        }
+    }
+    
+    /**
+     * @return true si des écritures locales n'ont pas encore été réécrites dans la session
+     */
+    public boolean isDirty() {
+        return !dirty.isEmpty() || !removed.isEmpty();
+    }
+    
+    /**
+     * Réécrit dans la HttpSession les seules clés modifiées ou supprimées (mode SNAPSHOT).
+     * Sans effet en mode DIRECT.
+     */
+    public void flush() {
+        if (!isDirty()) {
+            return;
+        }
+        if (store != null) {
+            flushToStore();
+            return;
+        }
+        try {
+            for (String key : removed) {
+                session.removeAttribute(key);
+            }
+            for (String key : dirty) {
+                session.setAttribute(key, snapshot.get(key));
+            }
+        } catch (IllegalStateException e) {
+            // session invalidée pendant la requête: plus rien à réécrire
+            LOG.warn("Session invalidée, modifications non enregistrées");
+        } finally {
+            dirty.clear();
+            removed.clear();
+        }
+    }
+    
+    @Override
+    public Object putIfAbsent(String key, Object value) {
+        Objects.requireNonNull(key, "La clé ne peut pas être null");
+        ReentrantLock lock = lock();
+        try {
+            Object current = readThrough(key);
+            if (current == null) {
+                writeThrough(key, value);
+            }
+            return current;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+        Objects.requireNonNull(key, "La clé ne peut pas être null");
+        Objects.requireNonNull(mappingFunction);
+        ReentrantLock lock = lock();
+        try {
+            Object current = readThrough(key);
+            if (current != null) {
+                return current;
+            }
+            Object value = mappingFunction.apply(key);
+            if (value != null) {
+                writeThrough(key, value);
+            }
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object computeIfPresent(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        Objects.requireNonNull(key, "La clé ne peut pas être null");
+        Objects.requireNonNull(remappingFunction);
+        ReentrantLock lock = lock();
+        try {
+            Object current = readThrough(key);
+            if (current == null) {
+                return null;
+            }
+            Object value = remappingFunction.apply(key, current);
+            writeThrough(key, value);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+        Objects.requireNonNull(key, "La clé ne peut pas être null");
+        Objects.requireNonNull(remappingFunction);
+        ReentrantLock lock = lock();
+        try {
+            Object value = remappingFunction.apply(key, readThrough(key));
+            writeThrough(key, value);
+            return value;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    @Override
+    public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+        Objects.requireNonNull(key, "La clé ne peut pas être null");
+        Objects.requireNonNull(value);
+        Objects.requireNonNull(remappingFunction);
+        ReentrantLock lock = lock();
+        try {
+            Object current = readThrough(key);
+            Object merged = current == null ? value : remappingFunction.apply(current, value);
+            writeThrough(key, merged);
+            return merged;
+        } finally {
+            lock.unlock();
+        }
+    }
+    
+    /**
+     * Supprime la session (du store, ou invalide la HttpSession).
+     */
+    public void invalidate() {
+        dirty.clear();
+        removed.clear();
+        snapshot = snapshotMode ? new LinkedHashMap<>() : null;
+        if (store == null) {
+            session.invalidate();
+            return;
+        }
+        try {
+            store.delete(storeId);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Suppression de la session " + storeId + " impossible", e);
+        }
+    }
+    
+    private Map<String, Object> loadFromStore() {
+        try {
+            Map<String, Object> attributes = store.load(storeId);
+            return attributes != null ? attributes : new HashMap<>();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture de la session " + storeId + " impossible", e);
+        }
+    }
+    
+    private void saveToStore(Map<String, Object> attributes) {
+        try {
+            store.save(storeId, attributes);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Écriture de la session " + storeId + " impossible", e);
+        }
+    }
+    
+    /**
+     * Relit l'état courant du store pour ne pas écraser les clés modifiées
+     * entre-temps par une autre requête, puis applique les seules clés modifiées.
+     */
+    private void flushToStore() {
+        ReentrantLock lock = lock();
+        try {
+            Map<String, Object> current = new HashMap<>(loadFromStore());
+            for (String key : removed) {
+                current.remove(key);
+            }
+            for (String key : dirty) {
+                current.put(key, snapshot.get(key));
+            }
+            saveToStore(current);
+        } finally {
+            dirty.clear();
+            removed.clear();
+            lock.unlock();
+        }
+    }
+    
+    private ReentrantLock lock() {
+        ReentrantLock lock = SessionLocks.lockFor(store != null ? storeId : session.getId());
+        lock.lock();
+        return lock;
+    }
+    
+    /**
+     * Valeur courante pour une opération atomique: écriture locale non encore réécrite
+     * si elle existe, sinon valeur fraîche de la session (et non de la copie, qu'une
+     * requête concurrente a pu rendre obsolète).
+     */
+    private Object readThrough(String key) {
+        if (snapshotMode) {
+            if (dirty.contains(key)) {
+                return snapshot.get(key);
+            }
+            if (removed.contains(key)) {
+                return null;
+            }
+        }
+        if (store != null) {
+            return loadFromStore().get(key);
+        }
+        return session.getAttribute(key);
+    }
+    
+    /**
+     * Écrit immédiatement dans la session (null = suppression) et aligne la copie locale.
+     */
+    private void writeThrough(String key, Object value) {
+        if (store != null) {
+            Map<String, Object> current = new HashMap<>(loadFromStore());
+            if (value == null) {
+                current.remove(key);
+            } else {
+                current.put(key, value);
+            }
+            saveToStore(current);
+        } else if (value == null) {
+            session.removeAttribute(key);
+        } else {
+            session.setAttribute(key, value);
+        }
+        if (snapshotMode) {
+            dirty.remove(key);
+            removed.remove(key);
+            if (snapshot != null) {
+                if (value == null) {
+                    snapshot.remove(key);
+                } else {
+                    snapshot.put(key, value);
+                }
+            }
+        }
     }
     
     @Override
     public int size() {
+        if (snapshotMode) {
+            return snapshot().size();
+        }
         int count = 0;
         Enumeration<String> names = session.getAttributeNames();
         while (names.hasMoreElements()) {
@@ -36,6 +360,9 @@ public class SessionMap implements Map<String, Object> {
     
     @Override
     public boolean isEmpty() {
+        if (snapshotMode) {
+            return snapshot().isEmpty();
+        }
         return !session.getAttributeNames().hasMoreElements();
     }
     
@@ -44,11 +371,17 @@ public class SessionMap implements Map<String, Object> {
         if (key == null || !(key instanceof String)) {
             return false;
         }
+        if (snapshotMode) {
+            return snapshot().get(key) != null;
+        }
         return session.getAttribute((String) key) != null;
     }
     
     @Override
     public boolean containsValue(Object value) {
+        if (snapshotMode) {
+            return snapshot().containsValue(value);
+        }
         Enumeration<String> names = session.getAttributeNames();
         while (names.hasMoreElements()) {
             Object attrValue = session.getAttribute(names.nextElement());
@@ -64,6 +397,9 @@ public class SessionMap implements Map<String, Object> {
         if (key == null || !(key instanceof String)) {
             return null;
         }
+        if (snapshotMode) {
+            return snapshot().get(key);
+        }
         return session.getAttribute((String) key);
     }
     
@@ -72,6 +408,15 @@ public class SessionMap implements Map<String, Object> {
         if (key == null) {
             throw new NullPointerException("La clé ne peut pas être null");
         }
+        if (snapshotMode) {
+            if (value == null) {
+                // comme setAttribute(key, null): équivaut à une suppression
+                return remove(key);
+            }
+            removed.remove(key);
+            dirty.add(key);
+            return snapshot().put(key, value);
+        }
         Object oldValue = session.getAttribute(key);
         session.setAttribute(key, value);
         return oldValue;
@@ -82,6 +427,14 @@ public class SessionMap implements Map<String, Object> {
         if (key == null || !(key instanceof String)) {
             return null;
         }
+        if (snapshotMode) {
+            if (!snapshot().containsKey(key)) {
+                return null;
+            }
+            dirty.remove(key);
+            removed.add((String) key);
+            return snapshot.remove(key);
+        }
         Object oldValue = session.getAttribute((String) key);
         session.removeAttribute((String) key);
         return oldValue;
@@ -93,12 +446,22 @@ public class SessionMap implements Map<String, Object> {
             throw new NullPointerException("La map ne peut pas être null");
         }
         for (Entry<? extends String, ? extends Object> entry : m.entrySet()) {
+            if (snapshotMode) {
+                put(entry.getKey(), entry.getValue());
+                continue;
+            }
             session.setAttribute(entry.getKey(), entry.getValue());
         }
     }
     
     @Override
     public void clear() {
+        if (snapshotMode) {
+            removed.addAll(snapshot().keySet());
+            dirty.clear();
+            snapshot.clear();
+            return;
+        }
         Enumeration<String> names = session.getAttributeNames();
         java.util.List<String> namesList = new java.util.ArrayList<>();
         while (names.hasMoreElements()) {
@@ -111,6 +474,9 @@ public class SessionMap implements Map<String, Object> {
     
     @Override
     public Set<String> keySet() {
+        if (snapshotMode) {
+            return Collections.unmodifiableSet(snapshot().keySet());
+        }
         Set<String> keys = new java.util.HashSet<>();
         Enumeration<String> names = session.getAttributeNames();
         while (names.hasMoreElements()) {
@@ -121,6 +487,9 @@ public class SessionMap implements Map<String, Object> {
     
     @Override
     public Collection<Object> values() {
+        if (snapshotMode) {
+            return Collections.unmodifiableCollection(snapshot().values());
+        }
         Collection<Object> values = new java.util.ArrayList<>();
         Enumeration<String> names = session.getAttributeNames();
         while (names.hasMoreElements()) {
@@ -131,6 +500,9 @@ public class SessionMap implements Map<String, Object> {
     
     @Override
     public Set<Entry<String, Object>> entrySet() {
+        if (snapshotMode) {
+            return Collections.unmodifiableMap(snapshot()).entrySet();
+        }
         Set<Entry<String, Object>> entries = new java.util.HashSet<>();
         Enumeration<String> names = session.getAttributeNames();
         while (names.hasMoreElements()) {
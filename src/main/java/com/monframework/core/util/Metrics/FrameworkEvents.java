@@ -0,0 +1,71 @@
+package com.monframework.core.util.Metrics;
+
+import com.monframework.core.util.Mapper.RouteMapping;
+
+/**
+ * Événements JDK Flight Recorder du framework (catégorie "MonFramework").
+ *
+ * <ul>
+ *   <li>com.monframework.RouteMatch: recherche de la route (seuil par défaut 1 ms)</li>
+ *   <li>com.monframework.Binding: liaison des paramètres (1 ms)</li>
+ *   <li>com.monframework.Invocation: appel du contrôleur (10 ms)</li>
+ *   <li>com.monframework.JsonWrite: sérialisation et écriture JSON, avec le nombre d'octets (1 ms)</li>
+ *   <li>com.monframework.ViewForward: forward vers la vue (10 ms)</li>
+ * </ul>
+ * Activation et seuils se règlent comme pour tout événement JFR (fichier .jfc, jfr configure,
+ * JDK Mission Control). Sans enregistrement actif, begin() retourne null après un test
+ * de isEnabled() et commit(null, ...) ne fait rien.
+ *
+ * Les événements et JfrSupport, seuls à référencer jdk.jfr, sont dans src/main/java21 et
+ * ne sont compilés que par le profil java21 (jdk.jfr n'existe pas pour --release 8).
+ * JfrSupport est chargé par réflexion: dans le build Java 8, ou sur une JVM sans JFR,
+ * ces méthodes restent sans effet.
+ */
+public final class FrameworkEvents {
+
+    public enum Kind { ROUTE_MATCH, BINDING, INVOCATION, JSON_WRITE, VIEW_FORWARD }
+
+    /** Implémenté par JfrSupport (profil java21). */
+    interface Sink {
+        Object begin(Kind kind);
+
+        void commit(Object event, RouteMapping route, String detail, long bytes);
+    }
+
+    private static final Sink SINK = detect();
+
+    private FrameworkEvents() {
+    }
+
+    /**
+     * Début d'un événement.
+     *
+     * @return le jeton à passer à {@link #commit}, ou null si l'événement n'est pas enregistré
+     */
+    public static Object begin(Kind kind) {
+        return SINK != null ? SINK.begin(kind) : null;
+    }
+
+    /**
+     * Fin de l'événement: il est écrit s'il dépasse le seuil configuré.
+     *
+     * @param route  route concernée (null si aucune route ne correspond)
+     * @param detail chemin demandé, vue ou type de contenu
+     * @param bytes  volume écrit, 0 si non applicable
+     */
+    public static void commit(Object event, RouteMapping route, String detail, long bytes) {
+        if (event != null) {
+            SINK.commit(event, route, detail, bytes);
+        }
+    }
+
+    private static Sink detect() {
+        try {
+            Class.forName("jdk.jfr.Event", false, FrameworkEvents.class.getClassLoader());
+            return (Sink) Class.forName("com.monframework.core.util.Metrics.JfrSupport", true,
+                    FrameworkEvents.class.getClassLoader()).getDeclaredConstructor().newInstance();
+        } catch (Throwable t) {
+            return null; // build Java 8 ou JVM sans JFR
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.monframework.core.util.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Histogramme log-linéaire de durées (nanosecondes), sans verrou.
+ *
+ * Chaque puissance de deux entre 2^14 ns (~16 µs) et 2^35 ns (~34 s) est découpée en
+ * 4 sous-intervalles égaux (erreur relative &lt; 25 %). L'indice du bucket se calcule avec
+ * quelques décalages de bits; chaque bucket est un LongAdder, l'enregistrement ne
+ * provoque donc pas de contention entre threads.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int MIN_EXPONENT = 14;
+    private static final int MAX_EXPONENT = 35;
+
+    /** Bucket 0: &lt; 2^MIN_EXPONENT; dernier bucket: au-delà de 2^MAX_EXPONENT. */
+    public static final int BUCKETS = 2 + (MAX_EXPONENT - MIN_EXPONENT) * SUB_BUCKETS;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder sumNanos = new LongAdder();
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        buckets[bucketIndex(nanos)].increment();
+        sumNanos.add(nanos);
+    }
+
+    static int bucketIndex(long nanos) {
+        if (nanos < (1L << MIN_EXPONENT)) {
+            return 0;
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        if (exponent >= MAX_EXPONENT) {
+            return BUCKETS - 1;
+        }
+        int sub = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return 1 + (exponent - MIN_EXPONENT) * SUB_BUCKETS + sub;
+    }
+
+    /**
+     * Borne supérieure (exclue) du bucket en nanosecondes, Long.MAX_VALUE pour le dernier.
+     */
+    public static long upperBoundNanos(int index) {
+        if (index == 0) {
+            return 1L << MIN_EXPONENT;
+        }
+        if (index >= BUCKETS - 1) {
+            return Long.MAX_VALUE;
+        }
+        int exponent = MIN_EXPONENT + (index - 1) / SUB_BUCKETS;
+        int sub = (index - 1) % SUB_BUCKETS;
+        return (1L << exponent) + (sub + 1) * (1L << (exponent - SUB_BUCKET_BITS));
+    }
+
+    /**
+     * Copie des compteurs (non cumulés). Les buckets sont lus un à un: la copie n'est pas
+     * atomique mais chaque valeur est exacte au moment de sa lecture.
+     */
+    public long[] snapshot() {
+        long[] counts = new long[BUCKETS];
+        for (int i = 0; i < BUCKETS; i++) {
+            counts[i] = buckets[i].sum();
+        }
+        return counts;
+    }
+
+    public long getCount() {
+        long count = 0;
+        for (LongAdder bucket : buckets) {
+            count += bucket.sum();
+        }
+        return count;
+    }
+
+    public long getSumNanos() {
+        return sumNanos.sum();
+    }
+}
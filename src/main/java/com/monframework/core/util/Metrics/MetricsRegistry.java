@@ -0,0 +1,159 @@
+package com.monframework.core.util.Metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import com.monframework.core.util.AccessLog.AccessLogWriter;
+import com.monframework.core.util.Dispatch.VirtualThreadDispatcher;
+import com.monframework.core.util.FileUpload.UploadLimiter;
+import com.monframework.core.util.Mapper.RouteMapping;
+
+/**
+ * Métriques par route (context-param framework.metrics, actif par défaut).
+ *
+ * Les compteurs sont indexés par méthode HTTP et URL ({@link RouteMapping#getRouteKey()},
+ * calculée une fois par route): le chemin de dispatch ne coûte qu'une recherche dans une
+ * ConcurrentHashMap, deux lectures de System.nanoTime et quelques LongAdder. Le registre
+ * ne retient aucun RouteMapping: les routes rechargées à chaud retrouvent les compteurs
+ * de la route de même méthode et même URL, et les anciennes versions (avec leur
+ * ClassLoader) restent libérables.
+ *
+ * Exposition HTTP au format Prometheus sur demande: framework.metrics.path (désactivée par défaut).
+ */
+public final class MetricsRegistry {
+
+    /** Attribut du ServletContext contenant le registre. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.metrics";
+
+    /** Attribut de requête posé quand le traitement a échoué sans statut 5xx (page d'erreur du framework). */
+    public static final String ERROR_ATTRIBUTE = "framework.metrics.error";
+
+    private final ConcurrentHashMap<String, RouteMetrics> byKey = new ConcurrentHashMap<>();
+
+    /**
+     * @return le registre du contexte, ou null si les métriques sont désactivées
+     */
+    public static MetricsRegistry from(ServletContext ctx) {
+        Object registry = ctx.getAttribute(CONTEXT_ATTRIBUTE);
+        return registry instanceof MetricsRegistry ? (MetricsRegistry) registry : null;
+    }
+
+    public RouteMetrics forRoute(RouteMapping route) {
+        String key = route.getRouteKey();
+        RouteMetrics metrics = byKey.get(key);
+        if (metrics == null) {
+            String method = route.getHttpMethod() == null || route.getHttpMethod().isEmpty() ? "*" : route.getHttpMethod();
+            metrics = byKey.computeIfAbsent(key,
+                    k -> new RouteMetrics(method, route.getFullUrl(), route.getClassName() + "#" + route.getMethodName()));
+        }
+        return metrics;
+    }
+
+    public static void markError(HttpServletRequest request) {
+        request.setAttribute(ERROR_ATTRIBUTE, Boolean.TRUE);
+    }
+
+    public static boolean isError(HttpServletRequest request, HttpServletResponse response) {
+        return request.getAttribute(ERROR_ATTRIBUTE) != null || response.getStatus() >= 500;
+    }
+
+    public List<RouteMetrics> getRouteMetrics() {
+        List<RouteMetrics> list = new ArrayList<>(byKey.values());
+        list.sort((a, b) -> {
+            int c = a.getRoute().compareTo(b.getRoute());
+            return c != 0 ? c : a.getMethod().compareTo(b.getMethod());
+        });
+        return list;
+    }
+
+    /**
+     * Texte d'exposition Prometheus: routes (et leurs étapes si le chronométrage est actif),
+     * puis dispatcher, limiteur d'uploads et journal d'accès s'ils sont actifs.
+     */
+    public String toPrometheus(VirtualThreadDispatcher dispatcher, UploadLimiter uploadLimiter,
+                               AccessLogWriter accessLog, boolean phasesEnabled) {
+        PrometheusWriter out = new PrometheusWriter();
+        List<RouteMetrics> routes = getRouteMetrics();
+
+        out.family("framework_route_requests_total", "counter", "Requêtes traitées par route.");
+        for (RouteMetrics m : routes) {
+            out.sample("framework_route_requests_total", m.getRequests(), labels(m));
+        }
+        out.family("framework_route_errors_total", "counter", "Requêtes en erreur (exception ou statut 5xx) par route.");
+        for (RouteMetrics m : routes) {
+            out.sample("framework_route_errors_total", m.getErrors(), labels(m));
+        }
+        out.family("framework_route_in_flight", "gauge", "Requêtes en cours par route.");
+        for (RouteMetrics m : routes) {
+            out.sample("framework_route_in_flight", m.getInFlight(), labels(m));
+        }
+        out.family("framework_route_duration_seconds", "histogram", "Durée des requêtes par route.");
+        for (RouteMetrics m : routes) {
+            long[] counts = m.getLatency().snapshot();
+            long cumulative = 0;
+            for (int i = 0; i < counts.length; i++) {
+                cumulative += counts[i];
+                long upper = LatencyHistogram.upperBoundNanos(i);
+                String le = upper == Long.MAX_VALUE ? "+Inf" : PrometheusWriter.format(upper / 1e9);
+                out.sample("framework_route_duration_seconds_bucket", cumulative,
+                        "method", m.getMethod(), "route", m.getRoute(), "handler", m.getHandler(), "le", le);
+            }
+            out.sample("framework_route_duration_seconds_sum", m.getLatency().getSumNanos() / 1e9, labels(m));
+            out.sample("framework_route_duration_seconds_count", cumulative, labels(m));
+        }
+
+        if (phasesEnabled) {
+            out.family("framework_route_phase_requests_total", "counter", "Requêtes chronométrées par étape (Server-Timing).");
+            for (RouteMetrics m : routes) {
+                out.sample("framework_route_phase_requests_total", m.getTimedRequests(), labels(m));
+            }
+            out.family("framework_route_phase_seconds_total", "counter", "Durée cumulée de chaque étape par route.");
+            for (RouteMetrics m : routes) {
+                for (PhaseTimer.Phase phase : PhaseTimer.Phase.values()) {
+                    out.sample("framework_route_phase_seconds_total", m.getPhaseNanos(phase) / 1e9,
+                            "method", m.getMethod(), "route", m.getRoute(), "handler", m.getHandler(),
+                            "phase", phase.getMetricName());
+                }
+            }
+        }
+
+        if (dispatcher != null) {
+            out.family("framework_dispatcher_dispatched_total", "counter", "Invocations confiées aux threads virtuels.")
+               .sample("framework_dispatcher_dispatched_total", dispatcher.getDispatchedCount());
+            out.family("framework_dispatcher_rejected_total", "counter", "Invocations refusées par l'exécuteur.")
+               .sample("framework_dispatcher_rejected_total", dispatcher.getRejectedCount());
+            out.family("framework_dispatcher_active", "gauge", "Invocations en cours sur threads virtuels.")
+               .sample("framework_dispatcher_active", dispatcher.getActiveCount());
+            if (dispatcher.getPinnedCount() >= 0) {
+                out.family("framework_dispatcher_pinned_total", "counter", "Épinglages de threads virtuels observés (JFR).")
+                   .sample("framework_dispatcher_pinned_total", dispatcher.getPinnedCount());
+                out.family("framework_dispatcher_pinned_seconds_total", "counter", "Durée cumulée des épinglages.")
+                   .sample("framework_dispatcher_pinned_seconds_total",
+                           dispatcher.getPinnedNanos() / (double) TimeUnit.SECONDS.toNanos(1));
+            }
+        }
+        if (uploadLimiter != null) {
+            out.family("framework_upload_in_flight_bytes", "gauge", "Octets d'upload réservés en cours.")
+               .sample("framework_upload_in_flight_bytes", uploadLimiter.getInFlightBytes());
+            out.family("framework_upload_max_in_flight_bytes", "gauge", "Plafond des octets d'upload en cours.")
+               .sample("framework_upload_max_in_flight_bytes", uploadLimiter.getMaxInFlightBytes());
+        }
+        if (accessLog != null) {
+            out.family("framework_access_log_written_total", "counter", "Enregistrements écrits dans le journal d'accès.")
+               .sample("framework_access_log_written_total", accessLog.getWrittenCount());
+            out.family("framework_access_log_dropped_total", "counter", "Enregistrements abandonnés (anneau plein).")
+               .sample("framework_access_log_dropped_total", accessLog.getDroppedCount());
+        }
+        return out.toString();
+    }
+
+    private static String[] labels(RouteMetrics m) {
+        return new String[] { "method", m.getMethod(), "route", m.getRoute(), "handler", m.getHandler() };
+    }
+}
@@ -0,0 +1,131 @@
+package com.monframework.core.util.Metrics;
+
+import java.util.Locale;
+
+import jakarta.servlet.ServletContext;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+/**
+ * Durée des étapes d'une requête (context-param framework.serverTiming=true).
+ *
+ * Le chronomètre est un attribut de requête: FrontServlet, RouteMapping et ModelView y
+ * ajoutent la durée de chaque étape (System.nanoTime). Juste avant l'écriture du corps,
+ * les étapes déjà terminées sont émises dans l'en-tête Server-Timing; à la fin de la
+ * requête, toutes (y compris le forward vers la vue, postérieur à l'en-tête) sont
+ * cumulées dans les métriques de la route.
+ *
+ * Les étapes se succèdent sans se chevaucher, éventuellement sur des threads différents
+ * (thread virtuel, complétion d'un future): le passage de relais assure la visibilité.
+ */
+public final class PhaseTimer {
+
+    /** Attribut du ServletContext (Boolean) activant le chronométrage. */
+    public static final String ENABLED_ATTRIBUTE = "framework.serverTiming";
+
+    /** Attribut de requête contenant le chronomètre. */
+    public static final String ATTRIBUTE = "framework.phaseTimer";
+
+    public enum Phase {
+        /** Recherche de la route */
+        ROUTE("route"),
+        /** Liaison des paramètres (ParameterResolver, BeanMapper) */
+        BIND("bind"),
+        /** Appel du contrôleur */
+        INVOKE("invoke"),
+        /** Sérialisation et écriture JSON */
+        JSON("json"),
+        /** Écriture d'une réponse binaire */
+        WRITE("write"),
+        /** Forward vers la vue */
+        VIEW("view");
+
+        private final String metricName;
+
+        Phase(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+    }
+
+    private final long[] nanos = new long[Phase.values().length];
+    private boolean headerSent;
+
+    /**
+     * Chronomètre de la requête, créé s'il est activé dans le contexte.
+     *
+     * @return le chronomètre, ou null si le chronométrage est désactivé
+     */
+    public static PhaseTimer startIfEnabled(ServletContext ctx, HttpServletRequest request) {
+        PhaseTimer timer = of(request);
+        if (timer == null && Boolean.TRUE.equals(ctx.getAttribute(ENABLED_ATTRIBUTE))) {
+            timer = new PhaseTimer();
+            request.setAttribute(ATTRIBUTE, timer);
+        }
+        return timer;
+    }
+
+    /**
+     * @return le chronomètre de la requête, ou null
+     */
+    public static PhaseTimer of(HttpServletRequest request) {
+        Object timer = request.getAttribute(ATTRIBUTE);
+        return timer instanceof PhaseTimer ? (PhaseTimer) timer : null;
+    }
+
+    /**
+     * Ajoute la durée écoulée depuis startNanos à l'étape (sans effet si timer est null).
+     */
+    public static void record(PhaseTimer timer, Phase phase, long startNanos) {
+        if (timer != null) {
+            timer.nanos[phase.ordinal()] += System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Horodatage de début d'étape (0 sans chronomètre, pour éviter l'appel à nanoTime).
+     */
+    public static long mark(PhaseTimer timer) {
+        return timer != null ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Émet l'en-tête Server-Timing avec les étapes terminées, si la réponse n'est pas encore validée.
+     */
+    public static void sendHeader(HttpServletRequest request, HttpServletResponse response) {
+        PhaseTimer timer = of(request);
+        if (timer == null || timer.headerSent || response.isCommitted()) {
+            return;
+        }
+        timer.headerSent = true;
+        String header = timer.toServerTiming();
+        if (!header.isEmpty()) {
+            response.setHeader("Server-Timing", header);
+        }
+    }
+
+    public long getNanos(Phase phase) {
+        return nanos[phase.ordinal()];
+    }
+
+    /**
+     * Valeur de l'en-tête, ex: route;dur=0.012, bind;dur=0.140, invoke;dur=3.402
+     */
+    public String toServerTiming() {
+        StringBuilder sb = new StringBuilder();
+        for (Phase phase : Phase.values()) {
+            long value = nanos[phase.ordinal()];
+            if (value == 0) {
+                continue;
+            }
+            if (sb.length() > 0) {
+                sb.append(", ");
+            }
+            sb.append(phase.getMetricName()).append(";dur=").append(String.format(Locale.ROOT, "%.3f", value / 1e6));
+        }
+        return sb.toString();
+    }
+}
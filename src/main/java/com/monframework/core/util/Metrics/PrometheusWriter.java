@@ -0,0 +1,77 @@
+package com.monframework.core.util.Metrics;
+
+/**
+ * Écriture au format texte d'exposition Prometheus (version 0.0.4).
+ */
+public final class PrometheusWriter {
+
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final StringBuilder out = new StringBuilder(4096);
+
+    /**
+     * Lignes # HELP et # TYPE d'une famille de métriques.
+     */
+    public PrometheusWriter family(String name, String type, String help) {
+        out.append("# HELP ").append(name).append(' ').append(help).append('\n');
+        out.append("# TYPE ").append(name).append(' ').append(type).append('\n');
+        return this;
+    }
+
+    /**
+     * Un échantillon; labels = paires nom, valeur.
+     */
+    public PrometheusWriter sample(String name, long value, String... labels) {
+        appendName(name, labels);
+        out.append(value).append('\n');
+        return this;
+    }
+
+    public PrometheusWriter sample(String name, double value, String... labels) {
+        appendName(name, labels);
+        out.append(format(value)).append('\n');
+        return this;
+    }
+
+    private void appendName(String name, String[] labels) {
+        out.append(name);
+        if (labels.length > 0) {
+            out.append('{');
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(labels[i]).append("=\"");
+                escape(labels[i + 1]);
+                out.append('"');
+            }
+            out.append('}');
+        }
+        out.append(' ');
+    }
+
+    private void escape(String value) {
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' || c == '"') {
+                out.append('\\').append(c);
+            } else if (c == '\n') {
+                out.append("\\n");
+            } else {
+                out.append(c);
+            }
+        }
+    }
+
+    static String format(double value) {
+        if (value == Double.POSITIVE_INFINITY) {
+            return "+Inf";
+        }
+        return Double.toString(value);
+    }
+
+    @Override
+    public String toString() {
+        return out.toString();
+    }
+}
@@ -0,0 +1,73 @@
+package com.monframework.core.util.Metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compteurs d'une route: requêtes, erreurs, requêtes en cours et histogramme des durées.
+ *
+ * Pour limiter le coût par requête, le nombre de requêtes terminées est le total de
+ * l'histogramme et les requêtes en cours la différence avec les requêtes commencées:
+ * trois LongAdder par requête (début, bucket, somme des durées).
+ */
+public final class RouteMetrics {
+
+    private final String method;
+    private final String route;
+    private final String handler;
+    private final LongAdder started = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final LongAdder timedRequests = new LongAdder();
+    private final LongAdder[] phaseNanos = new LongAdder[PhaseTimer.Phase.values().length];
+
+    RouteMetrics(String method, String route, String handler) {
+        this.method = method;
+        this.route = route;
+        this.handler = handler;
+        for (int i = 0; i < phaseNanos.length; i++) {
+            phaseNanos[i] = new LongAdder();
+        }
+    }
+
+    /**
+     * Début d'une requête.
+     *
+     * @return l'horodatage à repasser à {@link #end}
+     */
+    public long begin() {
+        started.increment();
+        return System.nanoTime();
+    }
+
+    public void end(long startNanos, boolean error) {
+        latency.record(System.nanoTime() - startNanos);
+        if (error) {
+            errors.increment();
+        }
+    }
+
+    /**
+     * Cumule les étapes d'une requête chronométrée (framework.serverTiming).
+     */
+    public void recordPhases(PhaseTimer timer) {
+        timedRequests.increment();
+        for (PhaseTimer.Phase phase : PhaseTimer.Phase.values()) {
+            long nanos = timer.getNanos(phase);
+            if (nanos != 0) {
+                phaseNanos[phase.ordinal()].add(nanos);
+            }
+        }
+    }
+
+    public String getMethod() { return method; }
+    public String getRoute() { return route; }
+    public String getHandler() { return handler; }
+    public long getRequests() { return latency.getCount(); }
+    public long getErrors() { return errors.sum(); }
+
+    /** Approximation (lectures non atomiques entre elles), jamais négative. */
+    public long getInFlight() { return Math.max(0, started.sum() - latency.getCount()); }
+    public LatencyHistogram getLatency() { return latency; }
+    public long getTimedRequests() { return timedRequests.sum(); }
+    public long getPhaseNanos(PhaseTimer.Phase phase) { return phaseNanos[phase.ordinal()].sum(); }
+}
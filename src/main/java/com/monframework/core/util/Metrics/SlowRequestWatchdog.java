@@ -0,0 +1,251 @@
+package com.monframework.core.util.Metrics;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import jakarta.servlet.ServletContext;
+
+import com.monframework.core.util.Logging.Logger;
+import com.monframework.core.util.Mapper.RouteMapping;
+
+/**
+ * Détection des requêtes lentes (context-param framework.slowRequest.thresholdMs &gt; 0).
+ *
+ * FrontServlet inscrit chaque exécution de contrôleur (thread, route, début) et la retire
+ * à la fin. Un thread d'échantillonnage parcourt les requêtes en cours: au-delà du seuil,
+ * il capture la pile du thread à chaque période et la cumule, par route, au format
+ * « folded » (frames de la racine à la feuille séparées par ';', puis le nombre
+ * d'échantillons), directement exploitable par flamegraph.pl ou speedscope.
+ *
+ * Contrôleur asynchrone (CompletableFuture): la requête reste inscrite jusqu'à la fin de
+ * la réponse, mais le thread du conteneur est libéré; au-delà du seuil elle est comptée
+ * comme lente et ses échantillons regroupés sous « [attente asynchrone] ».
+ *
+ * Les piles exposent le code de l'application: l'exposition HTTP est désactivée par défaut
+ * et s'active avec framework.slowRequest.path (ex: /__slow).
+ *
+ * Coût hors requêtes lentes: une allocation et un ajout/retrait dans un ensemble
+ * concurrent par requête. Les piles sont coupées au-dessus de FrontServlet.showMatchedRoute
+ * (frames du conteneur) et limitées en nombre de piles distinctes par route.
+ */
+public final class SlowRequestWatchdog implements Closeable {
+
+    private static final Logger LOG = Logger.get(SlowRequestWatchdog.class);
+
+    /** Attribut du ServletContext contenant le détecteur. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.slowRequests";
+
+    private static final String ENTRY_CLASS = "com.monframework.core.FrontServlet";
+    private static final String ENTRY_METHOD = "showMatchedRoute";
+    private static final String OTHER_STACKS = "[autres piles]";
+    private static final String ASYNC_WAIT = "[attente asynchrone]";
+    private static final long LOG_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final long thresholdNanos;
+    private final long sampleNanos;
+    private final int maxStacksPerRoute;
+    private final Set<InFlight> inFlight = ConcurrentHashMap.newKeySet();
+    private final ConcurrentHashMap<String, RouteStacks> byRoute = new ConcurrentHashMap<>();
+    private final Thread sampler;
+    private volatile boolean running = true;
+
+    /**
+     * Requête en cours d'exécution, rendue par {@link #begin} et à repasser à {@link #end}.
+     */
+    public static final class InFlight {
+        /** Thread échantillonné, null une fois la requête passée en asynchrone. */
+        volatile Thread thread;
+        final RouteMapping route;
+        final long startNanos;
+        volatile boolean done;
+        boolean reported;
+
+        InFlight(Thread thread, RouteMapping route) {
+            this.thread = thread;
+            this.route = route;
+            this.startNanos = System.nanoTime();
+        }
+    }
+
+    /** Piles cumulées d'une route (écrites par le seul thread d'échantillonnage). */
+    private static final class RouteStacks {
+        final AtomicLong slowRequests = new AtomicLong();
+        final AtomicLong samples = new AtomicLong();
+        final ConcurrentHashMap<String, AtomicLong> stacks = new ConcurrentHashMap<>();
+        long lastLogNanos;
+    }
+
+    /**
+     * @param thresholdMillis   durée au-delà de laquelle une requête est échantillonnée
+     * @param sampleMillis      période d'échantillonnage
+     * @param maxStacksPerRoute piles distinctes conservées par route (les suivantes sont regroupées)
+     */
+    public static SlowRequestWatchdog start(long thresholdMillis, long sampleMillis, int maxStacksPerRoute) {
+        SlowRequestWatchdog watchdog = new SlowRequestWatchdog(thresholdMillis, sampleMillis, maxStacksPerRoute);
+        watchdog.sampler.start();
+        return watchdog;
+    }
+
+    private SlowRequestWatchdog(long thresholdMillis, long sampleMillis, int maxStacksPerRoute) {
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.sampleNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, sampleMillis));
+        this.maxStacksPerRoute = Math.max(1, maxStacksPerRoute);
+        this.sampler = new Thread(this::sampleLoop, "framework-slow-requests");
+        sampler.setDaemon(true);
+    }
+
+    /**
+     * @return le détecteur du contexte, ou null s'il est désactivé
+     */
+    public static SlowRequestWatchdog from(ServletContext ctx) {
+        Object watchdog = ctx.getAttribute(CONTEXT_ATTRIBUTE);
+        return watchdog instanceof SlowRequestWatchdog ? (SlowRequestWatchdog) watchdog : null;
+    }
+
+    /**
+     * Inscrit l'exécution de la route sur le thread courant.
+     */
+    public InFlight begin(RouteMapping route) {
+        InFlight request = new InFlight(Thread.currentThread(), route);
+        inFlight.add(request);
+        return request;
+    }
+
+    /**
+     * Le contrôleur a rendu la main sur un future: le thread n'est plus échantillonné,
+     * la requête reste en cours jusqu'à {@link #end}.
+     */
+    public void detach(InFlight request) {
+        request.thread = null;
+    }
+
+    public void end(InFlight request) {
+        request.done = true;
+        inFlight.remove(request);
+    }
+
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(sampler);
+        try {
+            sampler.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void sampleLoop() {
+        while (running) {
+            LockSupport.parkNanos(this, sampleNanos);
+            long now = System.nanoTime();
+            for (InFlight request : inFlight) {
+                if (now - request.startNanos >= thresholdNanos) {
+                    try {
+                        sample(request, now);
+                    } catch (RuntimeException e) {
+                        LOG.warn("Échantillonnage de " + threadName(request) + " impossible: " + e);
+                    }
+                }
+            }
+        }
+    }
+
+    private void sample(InFlight request, long now) {
+        Thread thread = request.thread;
+        StackTraceElement[] frames = thread != null ? thread.getStackTrace() : null;
+        if (request.done || (frames != null && frames.length == 0)) {
+            // terminée pendant la capture: la pile peut appartenir à la requête suivante
+            return;
+        }
+        String key = routeKey(request.route);
+        RouteStacks route = byRoute.computeIfAbsent(key, k -> new RouteStacks());
+        if (!request.reported) {
+            request.reported = true;
+            route.slowRequests.incrementAndGet();
+            if (now - route.lastLogNanos >= LOG_INTERVAL_NANOS) {
+                route.lastLogNanos = now;
+                LOG.warn("Requête lente: " + key + " (" + request.route.getClassName() + "#" + request.route.getMethodName()
+                        + ") dépasse " + TimeUnit.NANOSECONDS.toMillis(thresholdNanos) + " ms sur " + threadName(request));
+            }
+        }
+        route.samples.incrementAndGet();
+        String folded = frames != null ? fold(frames) : ASYNC_WAIT;
+        AtomicLong count = route.stacks.get(folded);
+        if (count == null) {
+            if (route.stacks.size() >= maxStacksPerRoute) {
+                folded = OTHER_STACKS;
+            }
+            count = route.stacks.computeIfAbsent(folded, k -> new AtomicLong());
+        }
+        count.incrementAndGet();
+    }
+
+    /**
+     * Frames de la racine (showMatchedRoute si présente) à la feuille, séparées par ';'.
+     */
+    static String fold(StackTraceElement[] frames) {
+        int root = frames.length - 1;
+        for (int i = 0; i < frames.length; i++) {
+            if (ENTRY_METHOD.equals(frames[i].getMethodName()) && ENTRY_CLASS.equals(frames[i].getClassName())) {
+                root = i;
+                break;
+            }
+        }
+        StringBuilder sb = new StringBuilder(64 * (root + 1));
+        for (int i = root; i >= 0; i--) {
+            if (i != root) {
+                sb.append(';');
+            }
+            sb.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+        }
+        return sb.toString();
+    }
+
+    private static String threadName(InFlight request) {
+        Thread thread = request.thread;
+        return thread != null ? thread.getName() : "un future (asynchrone)";
+    }
+
+    private static String routeKey(RouteMapping route) {
+        String method = route.getHttpMethod() == null || route.getHttpMethod().isEmpty() ? "*" : route.getHttpMethod();
+        return method + " " + route.getFullUrl();
+    }
+
+    /**
+     * Piles cumulées au format folded, la route en première frame (un flame graph par route):
+     * <pre>
+     * GET /users/{id};com.monframework.core.FrontServlet.showMatchedRoute;...;app.UserDao.find 42
+     * </pre>
+     * Les lignes commençant par # résument chaque route (requêtes lentes, échantillons).
+     */
+    public String toFolded() {
+        StringBuilder out = new StringBuilder(4096);
+        Map<String, RouteStacks> routes = new TreeMap<>(byRoute);
+        for (Map.Entry<String, RouteStacks> route : routes.entrySet()) {
+            RouteStacks stacks = route.getValue();
+            out.append("# ").append(route.getKey())
+               .append(" slow=").append(stacks.slowRequests.get())
+               .append(" samples=").append(stacks.samples.get()).append('\n');
+            List<Map.Entry<String, AtomicLong>> entries = new ArrayList<>(stacks.stacks.entrySet());
+            entries.sort((a, b) -> Long.compare(b.getValue().get(), a.getValue().get()));
+            for (Map.Entry<String, AtomicLong> stack : entries) {
+                out.append(route.getKey()).append(';').append(stack.getKey())
+                   .append(' ').append(stack.getValue().get()).append('\n');
+            }
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,387 @@
+package com.monframework.core.util.SessionStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Encodage d'une session dans un cookie signé (HMAC-SHA256), éventuellement chiffré (AES-GCM).
+ *
+ * Format du cookie: {@code <clé>.<p|e>.<contenu base64url>.<signature base64url>}.
+ * Le contenu est un binaire compact (pas de sérialisation Java): seuls String, nombres,
+ * Boolean, Character et byte[] sont acceptés. La première clé de la configuration signe
+ * les nouveaux cookies; les suivantes ne servent qu'à vérifier les cookies existants,
+ * ce qui permet une rotation sans déconnecter les utilisateurs.
+ *
+ * Configuration: {@code framework.session.cookieKeys=k2:<secret base64>,k1:<ancien secret>}.
+ */
+public class CookieSessionCodec {
+
+    /** Attribut du ServletContext contenant le codec actif. */
+    public static final String CONTEXT_ATTRIBUTE = "framework.sessionCookieCodec";
+
+    private static final byte FORMAT_VERSION = 1;
+    private static final int MAX_ENTRIES = 256;
+    private static final int GCM_IV_LENGTH = 12;
+    private static final int GCM_TAG_BITS = 128;
+
+    private static final byte T_STRING = 1;
+    private static final byte T_INTEGER = 2;
+    private static final byte T_LONG = 3;
+    private static final byte T_BOOLEAN = 4;
+    private static final byte T_DOUBLE = 5;
+    private static final byte T_FLOAT = 6;
+    private static final byte T_SHORT = 7;
+    private static final byte T_BYTE = 8;
+    private static final byte T_CHARACTER = 9;
+    private static final byte T_BYTES = 10;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final Base64.Encoder B64 = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder B64D = Base64.getUrlDecoder();
+
+    private final Map<String, byte[]> macKeys = new LinkedHashMap<>();
+    private final Map<String, byte[]> encryptionKeys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final boolean encrypt;
+    private final int maxCookieBytes;
+    private final long maxAgeMillis;
+
+    /**
+     * @param secrets        secrets par identifiant de clé; le premier signe les nouveaux cookies
+     * @param encrypt        true pour chiffrer le contenu (sinon il est seulement signé)
+     * @param maxCookieBytes taille maximale de la valeur du cookie
+     * @param maxAgeMillis   durée de validité d'un cookie depuis sa dernière écriture
+     */
+    public CookieSessionCodec(Map<String, byte[]> secrets, boolean encrypt, int maxCookieBytes, long maxAgeMillis) {
+        if (secrets.isEmpty()) {
+            throw new IllegalArgumentException("Au moins une clé est nécessaire pour les sessions cookie");
+        }
+        for (Map.Entry<String, byte[]> e : secrets.entrySet()) {
+            if (!e.getKey().matches("^[A-Za-z0-9_-]{1,16}$")) {
+                throw new IllegalArgumentException("Identifiant de clé invalide: " + e.getKey());
+            }
+            if (e.getValue().length < 32) {
+                throw new IllegalArgumentException("La clé " + e.getKey() + " doit faire au moins 32 octets");
+            }
+            // clés dérivées: une pour la signature, une pour le chiffrement
+            macKeys.put(e.getKey(), hmac(e.getValue(), "mac".getBytes(StandardCharsets.US_ASCII)));
+            byte[] aes = new byte[16];
+            System.arraycopy(hmac(e.getValue(), "enc".getBytes(StandardCharsets.US_ASCII)), 0, aes, 0, aes.length);
+            encryptionKeys.put(e.getKey(), aes);
+        }
+        this.activeKeyId = secrets.keySet().iterator().next();
+        this.encrypt = encrypt;
+        this.maxCookieBytes = maxCookieBytes;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Construit le codec depuis la forme {@code id:secretBase64,id2:secretBase64}.
+     */
+    public static CookieSessionCodec fromConfig(String keys, boolean encrypt, int maxCookieBytes, long maxAgeMillis) {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        for (String spec : keys.split(",")) {
+            spec = spec.trim();
+            int colon = spec.indexOf(':');
+            if (colon <= 0) {
+                throw new IllegalArgumentException("Clé de session cookie mal formée (attendu id:secret): " + spec);
+            }
+            secrets.put(spec.substring(0, colon), Base64.getDecoder().decode(spec.substring(colon + 1).trim()));
+        }
+        return new CookieSessionCodec(secrets, encrypt, maxCookieBytes, maxAgeMillis);
+    }
+
+    /**
+     * @return la valeur du cookie
+     * @throws IllegalArgumentException si un attribut a un type non supporté
+     * @throws IllegalStateException    si le cookie dépasse la taille maximale
+     */
+    public String encode(Map<String, Object> attributes) {
+        byte[] payload = writePayload(attributes);
+        String flag = "p";
+        if (encrypt) {
+            payload = encrypt(encryptionKeys.get(activeKeyId), payload);
+            flag = "e";
+        }
+        String signed = activeKeyId + "." + flag + "." + B64.encodeToString(payload);
+        String value = signed + "." + B64.encodeToString(hmac(macKeys.get(activeKeyId), signed.getBytes(StandardCharsets.US_ASCII)));
+        if (value.length() > maxCookieBytes) {
+            throw new IllegalStateException("Session trop grande pour le mode COOKIE (" + value.length()
+                    + " octets, maximum " + maxCookieBytes + ")");
+        }
+        return value;
+    }
+
+    /**
+     * @return les attributs, ou null si le cookie est invalide, falsifié, signé par une clé
+     *         inconnue ou expiré
+     */
+    public Map<String, Object> decode(String value) {
+        Decoded decoded = decodeWithTimestamp(value);
+        return decoded == null ? null : decoded.getAttributes();
+    }
+
+    /**
+     * Comme {@link #decode}, avec la date d'écriture du cookie.
+     *
+     * @return la session décodée, ou null si le cookie est invalide, falsifié ou expiré
+     */
+    public Decoded decodeWithTimestamp(String value) {
+        if (value == null || value.length() > maxCookieBytes) {
+            return null;
+        }
+        String[] parts = value.split("\\.");
+        if (parts.length != 4) {
+            return null;
+        }
+        byte[] macKey = macKeys.get(parts[0]);
+        if (macKey == null) {
+            return null;
+        }
+        try {
+            String signed = parts[0] + "." + parts[1] + "." + parts[2];
+            byte[] expected = hmac(macKey, signed.getBytes(StandardCharsets.US_ASCII));
+            if (!MessageDigest.isEqual(expected, B64D.decode(parts[3]))) {
+                return null;
+            }
+            byte[] payload = B64D.decode(parts[2]);
+            if ("e".equals(parts[1])) {
+                payload = decrypt(encryptionKeys.get(parts[0]), payload);
+            } else if (!"p".equals(parts[1])) {
+                return null;
+            }
+            return readPayload(payload);
+        } catch (IllegalArgumentException | IOException | GeneralSecurityException e) {
+            return null;
+        }
+    }
+
+    // --- binaire compact ---------------------------------------------------------
+
+    private static byte[] writePayload(Map<String, Object> attributes) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(128);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(FORMAT_VERSION);
+            out.writeLong(System.currentTimeMillis());
+            writeVarLong(out, attributes.size());
+            for (Map.Entry<String, Object> e : attributes.entrySet()) {
+                out.writeUTF(e.getKey());
+                writeValue(out, e.getKey(), e.getValue());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // impossible en mémoire
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeValue(DataOutputStream out, String key, Object value) throws IOException {
+        if (value instanceof String) {
+            byte[] utf8 = ((String) value).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(T_STRING);
+            writeVarLong(out, utf8.length);
+            out.write(utf8);
+        } else if (value instanceof Integer) {
+            out.writeByte(T_INTEGER);
+            writeVarLong(out, zigZag((Integer) value));
+        } else if (value instanceof Long) {
+            out.writeByte(T_LONG);
+            writeVarLong(out, zigZag((Long) value));
+        } else if (value instanceof Boolean) {
+            out.writeByte(T_BOOLEAN);
+            out.writeBoolean((Boolean) value);
+        } else if (value instanceof Double) {
+            out.writeByte(T_DOUBLE);
+            out.writeDouble((Double) value);
+        } else if (value instanceof Float) {
+            out.writeByte(T_FLOAT);
+            out.writeFloat((Float) value);
+        } else if (value instanceof Short) {
+            out.writeByte(T_SHORT);
+            out.writeShort((Short) value);
+        } else if (value instanceof Byte) {
+            out.writeByte(T_BYTE);
+            out.writeByte((Byte) value);
+        } else if (value instanceof Character) {
+            out.writeByte(T_CHARACTER);
+            out.writeChar((Character) value);
+        } else if (value instanceof byte[]) {
+            byte[] data = (byte[]) value;
+            out.writeByte(T_BYTES);
+            writeVarLong(out, data.length);
+            out.write(data);
+        } else {
+            throw new IllegalArgumentException("Mode COOKIE: type non supporté pour l'attribut '" + key + "': "
+                    + (value == null ? "null" : value.getClass().getName()));
+        }
+    }
+
+    /**
+     * @return true si le cookie écrit à writtenAt a consommé plus de la moitié de sa durée
+     *         de validité et doit être réémis, même sans modification
+     */
+    public boolean needsRenewal(long writtenAt) {
+        return System.currentTimeMillis() - writtenAt > maxAgeMillis / 2;
+    }
+
+    private Decoded readPayload(byte[] payload) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(payload));
+        if (in.readByte() != FORMAT_VERSION) {
+            return null;
+        }
+        long writtenAt = in.readLong();
+        if (System.currentTimeMillis() - writtenAt > maxAgeMillis) {
+            return null;
+        }
+        long count = readVarLong(in);
+        if (count < 0 || count > MAX_ENTRIES) {
+            return null;
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            String key = in.readUTF();
+            byte type = in.readByte();
+            switch (type) {
+                case T_STRING:
+                    attributes.put(key, new String(readBytes(in, payload.length), StandardCharsets.UTF_8));
+                    break;
+                case T_INTEGER:
+                    attributes.put(key, (int) unZigZag(readVarLong(in)));
+                    break;
+                case T_LONG:
+                    attributes.put(key, unZigZag(readVarLong(in)));
+                    break;
+                case T_BOOLEAN:
+                    attributes.put(key, in.readBoolean());
+                    break;
+                case T_DOUBLE:
+                    attributes.put(key, in.readDouble());
+                    break;
+                case T_FLOAT:
+                    attributes.put(key, in.readFloat());
+                    break;
+                case T_SHORT:
+                    attributes.put(key, in.readShort());
+                    break;
+                case T_BYTE:
+                    attributes.put(key, in.readByte());
+                    break;
+                case T_CHARACTER:
+                    attributes.put(key, in.readChar());
+                    break;
+                case T_BYTES:
+                    attributes.put(key, readBytes(in, payload.length));
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return new Decoded(attributes, writtenAt);
+    }
+
+    private static byte[] readBytes(DataInputStream in, int limit) throws IOException {
+        long length = readVarLong(in);
+        if (length < 0 || length > limit) {
+            throw new IOException("Longueur invalide");
+        }
+        byte[] data = new byte[(int) length];
+        in.readFully(data);
+        return data;
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Entier variable trop long");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // --- cryptographie -------------------------------------------------------------
+
+    private static byte[] hmac(byte[] key, byte[] data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 indisponible", e);
+        }
+    }
+
+    private static byte[] encrypt(byte[] key, byte[] plain) {
+        try {
+            byte[] iv = new byte[GCM_IV_LENGTH];
+            RANDOM.nextBytes(iv);
+            Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+            cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"), new GCMParameterSpec(GCM_TAG_BITS, iv));
+            byte[] sealed = cipher.doFinal(plain);
+            byte[] out = new byte[iv.length + sealed.length];
+            System.arraycopy(iv, 0, out, 0, iv.length);
+            System.arraycopy(sealed, 0, out, iv.length, sealed.length);
+            return out;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Chiffrement AES-GCM indisponible", e);
+        }
+    }
+
+    private static byte[] decrypt(byte[] key, byte[] sealed) throws GeneralSecurityException {
+        if (sealed.length < GCM_IV_LENGTH) {
+            throw new GeneralSecurityException("Contenu chiffré trop court");
+        }
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, new SecretKeySpec(key, "AES"),
+                new GCMParameterSpec(GCM_TAG_BITS, sealed, 0, GCM_IV_LENGTH));
+        return cipher.doFinal(sealed, GCM_IV_LENGTH, sealed.length - GCM_IV_LENGTH);
+    }
+
+    /**
+     * Session décodée et date d'écriture (epoch ms) du cookie.
+     */
+    public static final class Decoded {
+        private final Map<String, Object> attributes;
+        private final long writtenAt;
+
+        Decoded(Map<String, Object> attributes, long writtenAt) {
+            this.attributes = attributes;
+            this.writtenAt = writtenAt;
+        }
+
+        public Map<String, Object> getAttributes() { return attributes; }
+        public long getWrittenAt() { return writtenAt; }
+    }
+}
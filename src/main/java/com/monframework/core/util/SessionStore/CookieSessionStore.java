@@ -0,0 +1,114 @@
+package com.monframework.core.util.SessionStore;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Adaptateur {@link SessionStore} d'une seule requête pour le mode {@code @Session(mode = COOKIE)}:
+ * la session est lue depuis le cookie de la requête et réécrite dans la réponse.
+ * Rien n'est conservé côté serveur au-delà de la requête.
+ *
+ * Les sauvegardes sont seulement mémorisées; {@link #writeCookie()} émet le cookie une fois,
+ * après l'exécution du contrôleur, si la session a changé ou si le cookie reçu a dépassé
+ * la moitié de sa durée de validité (expiration glissante).
+ */
+public class CookieSessionStore implements SessionStore {
+
+    private static final Logger LOG = Logger.get(CookieSessionStore.class);
+
+    private final CookieSessionCodec codec;
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final String cookieName;
+
+    private Map<String, Object> current;
+    private boolean pending;
+    private boolean renewal;
+    private boolean deleted;
+
+    public CookieSessionStore(CookieSessionCodec codec, HttpServletRequest request, HttpServletResponse response, String cookieName) {
+        this.codec = codec;
+        this.request = request;
+        this.response = response;
+        this.cookieName = cookieName;
+    }
+
+    /**
+     * Identifiant utilisé pour le verrou de la SessionMap: la session n'est partagée
+     * avec aucune autre requête, seule l'unicité par requête compte.
+     */
+    public String requestScopedId() {
+        return "cookie-" + Integer.toHexString(System.identityHashCode(this));
+    }
+
+    @Override
+    public Map<String, Object> load(String sessionId) {
+        if (current == null) {
+            CookieSessionCodec.Decoded decoded = null;
+            Cookie[] cookies = request.getCookies();
+            if (cookies != null) {
+                for (Cookie cookie : cookies) {
+                    if (cookieName.equals(cookie.getName())) {
+                        decoded = codec.decodeWithTimestamp(cookie.getValue());
+                        break;
+                    }
+                }
+            }
+            current = decoded != null ? decoded.getAttributes() : new HashMap<>();
+            renewal = decoded != null && !current.isEmpty() && codec.needsRenewal(decoded.getWrittenAt());
+        }
+        return current;
+    }
+
+    @Override
+    public void save(String sessionId, Map<String, Object> attributes) {
+        // encodage immédiat: un type non supporté ou une taille excessive échoue dans le contrôleur
+        codec.encode(attributes);
+        current = new HashMap<>(attributes);
+        pending = true;
+        deleted = false;
+    }
+
+    @Override
+    public void delete(String sessionId) {
+        current = new HashMap<>();
+        pending = true;
+        deleted = true;
+    }
+
+    /**
+     * Émet le cookie si la session a été modifiée depuis la dernière écriture, ou s'il
+     * doit être renouvelé avant d'expirer.
+     */
+    public void writeCookie() {
+        if (!pending && !renewal) {
+            return;
+        }
+        pending = false;
+        renewal = false;
+        if (response.isCommitted()) {
+            LOG.warn("Réponse déjà envoyée, cookie de session '" + cookieName + "' non mis à jour");
+            return;
+        }
+        boolean empty = deleted || current.isEmpty();
+        Cookie cookie = new Cookie(cookieName, empty ? "" : codec.encode(current));
+        String contextPath = request.getContextPath();
+        cookie.setPath(contextPath == null || contextPath.isEmpty() ? "/" : contextPath);
+        cookie.setHttpOnly(true);
+        cookie.setSecure(request.isSecure());
+        if (empty) {
+            cookie.setMaxAge(0);
+        }
+        response.addCookie(cookie);
+    }
+
+    @Override
+    public void close() {
+        // rien à libérer: l'état vit dans le cookie
+    }
+}
@@ -0,0 +1,438 @@
+package com.monframework.core.util.SessionStore;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32;
+
+import com.monframework.core.util.Logging.Logger;
+
+/**
+ * Store de sessions dans un journal en ajout seul, mappé en mémoire.
+ *
+ * Chaque sauvegarde ajoute un enregistrement (session sérialisée) en fin de fichier;
+ * une suppression ajoute une pierre tombale. Un index en mémoire associe chaque
+ * identifiant à son dernier enregistrement. Un compacteur en arrière-plan réécrit les
+ * seuls enregistrements vivants quand plus de la moitié du journal est obsolète.
+ *
+ * Plusieurs JVM d'un même hôte peuvent partager le fichier: les lectures se font sous
+ * verrou partagé, les écritures et la compaction sous verrou exclusif ({@code <fichier>.lock}),
+ * et chaque JVM rattrape son index en relisant le journal depuis sa dernière position connue.
+ * Après une compaction, l'ancien fichier est marqué obsolète et les autres JVM rouvrent
+ * le nouveau. Les écritures ne sont pas forcées sur disque à chaque requête: un arrêt
+ * brutal de la machine peut perdre les dernières sauvegardes.
+ *
+ * En-tête (64 octets): magic, version, fin du journal, génération, drapeau obsolète.
+ * Enregistrement: longueur totale, CRC32, date, longueur id, longueur données (-1 = suppression), id, données.
+ */
+public class MappedLogSessionStore implements SessionStore {
+
+    private static final Logger LOG = Logger.get(MappedLogSessionStore.class);
+
+    private static final int MAGIC = 0x46575353; // "FWSS"
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 64;
+    private static final int H_MAGIC = 0;
+    private static final int H_VERSION = 4;
+    private static final int H_END = 8;
+    private static final int H_GENERATION = 16;
+    private static final int H_OBSOLETE = 24;
+    private static final int RECORD_HEADER = 4 + 4 + 8 + 2 + 4;
+
+    private static final long INITIAL_CAPACITY = 1024 * 1024;
+    private static final long MIN_COMPACT_SIZE = 4 * 1024 * 1024;
+
+    private final Path file;
+    private final long maxInactiveMillis;
+    private final FileChannel lockChannel;
+    private final ScheduledExecutorService compactor;
+
+    private FileChannel channel;
+    private MappedByteBuffer map;
+    private long indexedEnd;
+    private final Map<String, Long> index = new HashMap<>();
+
+    /**
+     * @param file              fichier journal (créé si absent)
+     * @param maxInactiveMillis durée d'inactivité après laquelle une session expire
+     * @param compactEverySeconds période de vérification du compacteur (0 = pas de compaction automatique)
+     */
+    public MappedLogSessionStore(Path file, long maxInactiveMillis, long compactEverySeconds) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.maxInactiveMillis = maxInactiveMillis;
+        Files.createDirectories(this.file.getParent());
+        this.lockChannel = FileChannel.open(this.file.resolveSibling(this.file.getFileName() + ".lock"),
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        synchronized (this) {
+            FileLock lock = lockChannel.lock();
+            try {
+                open(true);
+            } finally {
+                lock.release();
+            }
+        }
+        if (compactEverySeconds > 0) {
+            compactor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "session-log-compactor");
+                t.setDaemon(true);
+                return t;
+            });
+            compactor.scheduleWithFixedDelay(() -> {
+                try {
+                    compactIfNeeded();
+                } catch (Exception e) {
+                    LOG.warn("Compaction du journal de sessions échouée: " + e.getMessage());
+                }
+            }, compactEverySeconds, compactEverySeconds, TimeUnit.SECONDS);
+        } else {
+            compactor = null;
+        }
+    }
+
+    @Override
+    public synchronized Map<String, Object> load(String sessionId) throws IOException {
+        byte[] data;
+        long age;
+        long generation;
+        long offset;
+        FileLock lock = lockChannel.lock(0, Long.MAX_VALUE, true);
+        try {
+            refresh(false);
+            Long indexed = index.get(sessionId);
+            if (indexed == null) {
+                return null;
+            }
+            offset = indexed;
+            generation = map.getLong(H_GENERATION);
+            int pos = (int) offset;
+            age = System.currentTimeMillis() - map.getLong(pos + 8);
+            if (age > maxInactiveMillis) {
+                return null;
+            }
+            int idLength = map.getShort(pos + 16) & 0xFFFF;
+            data = new byte[map.getInt(pos + 18)];
+            ByteBuffer view = map.duplicate();
+            view.position(pos + RECORD_HEADER + idLength);
+            view.get(data);
+        } finally {
+            lock.release();
+        }
+        Map<String, Object> attributes = deserialize(data);
+        // expiration glissante: une session seulement lue est réécrite de temps en temps
+        if (age > maxInactiveMillis / 4) {
+            touch(sessionId, generation, offset, data);
+        }
+        return attributes;
+    }
+
+    @Override
+    public synchronized void save(String sessionId, Map<String, Object> attributes) throws IOException {
+        append(sessionId, serialize(attributes));
+    }
+
+    @Override
+    public synchronized void delete(String sessionId) throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            refresh(true);
+            if (index.containsKey(sessionId)) {
+                appendLocked(sessionId, null);
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (compactor != null) {
+            compactor.shutdownNow();
+        }
+        synchronized (this) {
+            map.force();
+            channel.close();
+            lockChannel.close();
+        }
+    }
+
+    /**
+     * Réécrit le journal sans les enregistrements obsolètes ni les sessions expirées,
+     * si au moins la moitié du fichier est récupérable.
+     */
+    public synchronized void compactIfNeeded() throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            refresh(true);
+            long end = map.getLong(H_END);
+            if (end < MIN_COMPACT_SIZE || end - HEADER_SIZE - liveBytes() < end / 2) {
+                return;
+            }
+            compact();
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Taille des enregistrements vivants; les sessions expirées sont retirées de l'index
+     * (elles ne comptent plus et ne sont pas recopiées par la compaction).
+     */
+    private long liveBytes() {
+        long now = System.currentTimeMillis();
+        long live = 0;
+        for (Iterator<Long> it = index.values().iterator(); it.hasNext(); ) {
+            int pos = (int) (long) it.next();
+            if (now - map.getLong(pos + 8) > maxInactiveMillis) {
+                it.remove();
+            } else {
+                live += map.getInt(pos);
+            }
+        }
+        return live;
+    }
+
+    // --- journal ---------------------------------------------------------------
+
+    /**
+     * Ouvre (ou crée) le journal et reconstruit l'index. Appelé sous verrou de fichier:
+     * seul le verrou exclusif permet de créer l'en-tête ou d'agrandir le fichier.
+     */
+    private void open(boolean exclusive) throws IOException {
+        channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean fresh = channel.size() < HEADER_SIZE;
+        if (fresh && !exclusive) {
+            channel.close();
+            throw new IOException("Journal de sessions sans en-tête: " + file);
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                exclusive ? Math.max(INITIAL_CAPACITY, channel.size()) : channel.size());
+        if (fresh) {
+            map.putInt(H_MAGIC, MAGIC);
+            map.putInt(H_VERSION, VERSION);
+            map.putLong(H_END, HEADER_SIZE);
+            map.putLong(H_GENERATION, 1);
+            map.putInt(H_OBSOLETE, 0);
+        } else if (map.getInt(H_MAGIC) != MAGIC || map.getInt(H_VERSION) != VERSION) {
+            throw new IOException("Fichier de sessions invalide: " + file);
+        }
+        index.clear();
+        indexedEnd = HEADER_SIZE;
+        refresh(exclusive);
+    }
+
+    /**
+     * Rattrape les enregistrements ajoutés par les autres JVM; rouvre le fichier
+     * s'il a été remplacé par une compaction. Appelé sous verrou de fichier.
+     *
+     * @param exclusive true si le verrou tenu est exclusif
+     */
+    private void refresh(boolean exclusive) throws IOException {
+        if (map.getInt(H_OBSOLETE) != 0) {
+            channel.close();
+            open(exclusive);
+            return;
+        }
+        long end = map.getLong(H_END);
+        if (end > map.capacity()) {
+            map = channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size());
+        }
+        while (indexedEnd < end) {
+            int pos = (int) indexedEnd;
+            int length = map.getInt(pos);
+            if (length < RECORD_HEADER || pos + (long) length > end || map.getInt(pos + 4) != checksum(pos, length)) {
+                LOG.warn("Enregistrement de session corrompu à l'offset " + pos + ", fin du journal ignorée");
+                indexedEnd = end;
+                return;
+            }
+            int idLength = map.getShort(pos + 16) & 0xFFFF;
+            int dataLength = map.getInt(pos + 18);
+            byte[] idBytes = new byte[idLength];
+            ByteBuffer view = map.duplicate();
+            view.position(pos + RECORD_HEADER);
+            view.get(idBytes);
+            String id = new String(idBytes, StandardCharsets.UTF_8);
+            if (dataLength < 0) {
+                index.remove(id);
+            } else {
+                index.put(id, (long) pos);
+            }
+            indexedEnd += length;
+        }
+    }
+
+    /**
+     * Ajoute un enregistrement (data null = suppression) sous verrou de fichier exclusif.
+     */
+    private void append(String sessionId, byte[] data) throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            refresh(true);
+            appendLocked(sessionId, data);
+        } finally {
+            lock.release();
+        }
+    }
+
+    /**
+     * Réécrit une session seulement lue pour repousser son expiration, sous verrou exclusif
+     * et seulement si personne ne l'a modifiée depuis la lecture: réécrire data après une
+     * sauvegarde d'une autre JVM écraserait celle-ci.
+     */
+    private void touch(String sessionId, long generation, long offset, byte[] data) throws IOException {
+        FileLock lock = lockChannel.lock();
+        try {
+            refresh(true);
+            Long current = index.get(sessionId);
+            if (current != null && current == offset && map.getLong(H_GENERATION) == generation) {
+                appendLocked(sessionId, data);
+            }
+        } finally {
+            lock.release();
+        }
+    }
+
+    private void appendLocked(String sessionId, byte[] data) throws IOException {
+        byte[] idBytes = sessionId.getBytes(StandardCharsets.UTF_8);
+        int length = RECORD_HEADER + idBytes.length + (data == null ? 0 : data.length);
+        long end = map.getLong(H_END);
+        ensureCapacity(end + length);
+        int pos = (int) end;
+        map.putInt(pos, length);
+        map.putLong(pos + 8, System.currentTimeMillis());
+        map.putShort(pos + 16, (short) idBytes.length);
+        map.putInt(pos + 18, data == null ? -1 : data.length);
+        ByteBuffer view = map.duplicate();
+        view.position(pos + RECORD_HEADER);
+        view.put(idBytes);
+        if (data != null) {
+            view.put(data);
+        }
+        map.putInt(pos + 4, checksum(pos, length));
+        // la fin du journal n'avance qu'une fois l'enregistrement complet
+        map.putLong(H_END, end + length);
+        refresh(true);
+    }
+
+    private void ensureCapacity(long needed) throws IOException {
+        if (needed <= map.capacity()) {
+            return;
+        }
+        long capacity = map.capacity();
+        while (capacity < needed) {
+            capacity *= 2;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IOException("Journal de sessions plein (2 Go): compaction nécessaire");
+        }
+        map = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+    }
+
+    /**
+     * Copie les enregistrements vivants dans un nouveau fichier qui remplace le journal.
+     * Appelé sous verrou de fichier.
+     */
+    private void compact() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".compact");
+        long now = System.currentTimeMillis();
+        long generation = map.getLong(H_GENERATION) + 1;
+        try (FileChannel out = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            header.putInt(H_MAGIC, MAGIC);
+            header.putInt(H_VERSION, VERSION);
+            header.putLong(H_GENERATION, generation);
+            long position = HEADER_SIZE;
+            for (Long offset : index.values()) {
+                int pos = (int) (long) offset;
+                if (now - map.getLong(pos + 8) > maxInactiveMillis) {
+                    continue; // session expirée
+                }
+                int length = map.getInt(pos);
+                ByteBuffer record = map.duplicate();
+                record.position(pos);
+                record.limit(pos + length);
+                while (record.hasRemaining()) {
+                    position += out.write(record, position);
+                }
+            }
+            header.putLong(H_END, position);
+            header.clear();
+            out.write(header, 0);
+            out.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        // les autres JVM voient ce drapeau sur l'ancien fichier et rouvrent le nouveau
+        map.putInt(H_OBSOLETE, 1);
+        channel.close();
+        open(true);
+    }
+
+    private int checksum(int pos, int length) {
+        CRC32 crc = new CRC32();
+        ByteBuffer view = map.duplicate();
+        view.position(pos + 8);
+        view.limit(pos + length);
+        crc.update(view);
+        return (int) crc.getValue();
+    }
+
+    // --- sérialisation ---------------------------------------------------------
+
+    private static byte[] serialize(Map<String, Object> attributes) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new HashMap<>(attributes));
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> deserialize(byte[] data) throws IOException {
+        try (ObjectInputStream in = new ContextObjectInputStream(new ByteArrayInputStream(data))) {
+            return (Map<String, Object>) in.readObject();
+        } catch (ClassNotFoundException e) {
+            throw new IOException("Classe introuvable pour un attribut de session", e);
+        }
+    }
+
+    /**
+     * Résout les classes des attributs avec le ClassLoader de l'application web.
+     */
+    private static class ContextObjectInputStream extends ObjectInputStream {
+        ContextObjectInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            ClassLoader loader = Thread.currentThread().getContextClassLoader();
+            if (loader != null) {
+                try {
+                    return Class.forName(desc.getName(), false, loader);
+                } catch (ClassNotFoundException e) {
+                    // classe du JDK ou du framework: résolution standard
+                }
+            }
+            return super.resolveClass(desc);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.monframework.core.util.SessionStore;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.security.SecureRandom;
+
+/**
+ * Identifiant de session transporté par cookie, utilisé avec un {@link SessionStore}.
+ * L'identifiant est résolu une seule fois par requête; un identifiant absent ou mal
+ * formé est remplacé par un nouvel identifiant aléatoire de 128 bits.
+ */
+public final class SessionIdCookie {
+
+    public static final String DEFAULT_NAME = "FWSESSIONID";
+
+    private static final String REQUEST_ATTRIBUTE = "framework.session.id";
+    private static final SecureRandom RANDOM = new SecureRandom();
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private SessionIdCookie() {
+    }
+
+    public static String resolve(HttpServletRequest request, HttpServletResponse response, String cookieName) {
+        Object cached = request.getAttribute(REQUEST_ATTRIBUTE);
+        if (cached instanceof String) {
+            return (String) cached;
+        }
+        String id = null;
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (cookieName.equals(cookie.getName()) && isValid(cookie.getValue())) {
+                    id = cookie.getValue();
+                    break;
+                }
+            }
+        }
+        if (id == null) {
+            id = newId();
+            Cookie cookie = new Cookie(cookieName, id);
+            String contextPath = request.getContextPath();
+            cookie.setPath(contextPath == null || contextPath.isEmpty() ? "/" : contextPath);
+            cookie.setHttpOnly(true);
+            cookie.setSecure(request.isSecure());
+            response.addCookie(cookie);
+        }
+        request.setAttribute(REQUEST_ATTRIBUTE, id);
+        return id;
+    }
+
+    static boolean isValid(String id) {
+        if (id == null || id.length() != 32) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if (!(c >= '0' && c <= '9') && !(c >= 'a' && c <= 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String newId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        char[] out = new char[32];
+        for (int i = 0; i < bytes.length; i++) {
+            out[i * 2] = HEX[(bytes[i] >> 4) & 0xF];
+            out[i * 2 + 1] = HEX[bytes[i] & 0xF];
+        }
+        return new String(out);
+    }
+}
@@ -0,0 +1,35 @@
+package com.monframework.core.util.SessionStore;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Stockage des sessions hors du conteneur (SPI).
+ *
+ * Quand un store est enregistré dans le ServletContext, les paramètres {@code @Session}
+ * sont servis par ce store au lieu de la HttpSession: l'identifiant de session voyage dans
+ * un cookie du framework et n'importe quelle instance peut servir la requête, sans
+ * sessions collantes ni réplication Tomcat.
+ *
+ * Une implémentation distante (Redis, base de données...) n'a qu'à implémenter cette
+ * interface et posséder un constructeur sans argument, puis être déclarée par
+ * {@code framework.session.store=com.exemple.MonStore}.
+ */
+public interface SessionStore extends Closeable {
+
+    /** Attribut du ServletContext contenant le store actif. */
+    String CONTEXT_ATTRIBUTE = "framework.sessionStore";
+
+    /**
+     * @return les attributs de la session, ou null si elle n'existe pas ou a expiré
+     */
+    Map<String, Object> load(String sessionId) throws IOException;
+
+    /**
+     * Remplace les attributs de la session et repousse son expiration.
+     */
+    void save(String sessionId, Map<String, Object> attributes) throws IOException;
+
+    void delete(String sessionId) throws IOException;
+}
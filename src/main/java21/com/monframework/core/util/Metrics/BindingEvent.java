@@ -0,0 +1,13 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.monframework.Binding")
+@Label("Liaison des paramètres")
+@Description("Résolution des arguments de l'action (ParameterResolver, BeanMapper)")
+@Threshold("1 ms")
+class BindingEvent extends FrameworkEvent {
+}
@@ -0,0 +1,37 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.StackTrace;
+
+/**
+ * Base des événements JFR du framework: route, contrôleur et volume de données.
+ * Ne pas référencer hors de {@link JfrSupport} (absente des JVM sans JFR).
+ */
+@Category("MonFramework")
+@StackTrace(false)
+abstract class FrameworkEvent extends jdk.jfr.Event {
+
+    @Label("Route")
+    @Description("Motif d'URL de la route (ex: /produits/{id})")
+    String route;
+
+    @Label("Méthode HTTP")
+    String httpMethod;
+
+    @Label("Contrôleur")
+    String controller;
+
+    @Label("Action")
+    String action;
+
+    @Label("Détail")
+    @Description("Chemin demandé, vue ou type de contenu selon l'événement")
+    String detail;
+
+    @Label("Octets")
+    @DataAmount
+    long bytes;
+}
@@ -0,0 +1,13 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.monframework.Invocation")
+@Label("Appel du contrôleur")
+@Description("Exécution de la méthode du contrôleur")
+@Threshold("10 ms")
+class InvocationEvent extends FrameworkEvent {
+}
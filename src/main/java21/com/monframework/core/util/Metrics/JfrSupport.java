@@ -0,0 +1,48 @@
+package com.monframework.core.util.Metrics;
+
+import com.monframework.core.util.Mapper.RouteMapping;
+
+/**
+ * Création et validation des événements JFR. Instanciée par réflexion par {@link FrameworkEvents}
+ * lorsque jdk.jfr est présent (profil java21 uniquement).
+ */
+final class JfrSupport implements FrameworkEvents.Sink {
+
+    JfrSupport() {
+    }
+
+    @Override
+    public Object begin(FrameworkEvents.Kind kind) {
+        FrameworkEvent event;
+        switch (kind) {
+            case ROUTE_MATCH: event = new RouteMatchEvent(); break;
+            case BINDING: event = new BindingEvent(); break;
+            case INVOCATION: event = new InvocationEvent(); break;
+            case JSON_WRITE: event = new JsonWriteEvent(); break;
+            default: event = new ViewForwardEvent(); break;
+        }
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    @Override
+    public void commit(Object token, RouteMapping route, String detail, long bytes) {
+        FrameworkEvent event = (FrameworkEvent) token;
+        event.end();
+        if (!event.shouldCommit()) {
+            return;
+        }
+        if (route != null) {
+            event.route = route.getFullUrl();
+            event.httpMethod = route.getHttpMethod();
+            event.controller = route.getClassName();
+            event.action = route.getMethodName();
+        }
+        event.detail = detail;
+        event.bytes = bytes;
+        event.commit();
+    }
+}
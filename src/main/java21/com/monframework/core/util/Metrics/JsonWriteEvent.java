@@ -0,0 +1,13 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.monframework.JsonWrite")
+@Label("Écriture JSON")
+@Description("Sérialisation et écriture d'une réponse JSON")
+@Threshold("1 ms")
+class JsonWriteEvent extends FrameworkEvent {
+}
@@ -0,0 +1,13 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.monframework.RouteMatch")
+@Label("Recherche de route")
+@Description("Sélection de la route correspondant au chemin demandé")
+@Threshold("1 ms")
+class RouteMatchEvent extends FrameworkEvent {
+}
@@ -0,0 +1,13 @@
+package com.monframework.core.util.Metrics;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Threshold;
+
+@Name("com.monframework.ViewForward")
+@Label("Forward vers la vue")
+@Description("Forward de la requête vers la JSP")
+@Threshold("10 ms")
+class ViewForwardEvent extends FrameworkEvent {
+}
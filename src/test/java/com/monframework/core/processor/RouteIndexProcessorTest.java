@@ -0,0 +1,96 @@
+package com.monframework.core.processor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class RouteIndexProcessorTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void incrementalCompileKeepsRoutesOfOtherControllers() throws IOException {
+        Path a = source("A", "@GetRequest(\"/a\") public String a() { return \"a\"; }");
+        Path b = source("B", "@GetRequest(\"/b\") public String b() { return \"b\"; }");
+        compile(a, b);
+        List<String> full = index();
+        assertEquals(2, full.size());
+        String fullDispatcher = dispatcher(full.get(1));
+
+        // seul A est recompilé, avec une route de plus
+        a = source("A", "@GetRequest(\"/a\") public String a() { return \"a\"; }\n"
+                + "    @GetRequest(\"/a2\") public String a2() { return \"a2\"; }");
+        compile(a);
+        List<String> merged = index();
+        assertEquals(3, merged.size());
+        assertTrue(merged.get(0).startsWith("app.A\t\t/a\ta\tGET\t"));
+        assertTrue(merged.get(1).startsWith("app.A\t\t/a2\ta2\tGET\t"));
+        assertEquals("app.B\t\t/b\tb\tGET\t" + fullDispatcher, merged.get(2));
+        // A est appelé par le dispatcher de sa dernière compilation, B par celui du build complet
+        assertNotEquals(fullDispatcher, dispatcher(merged.get(0)));
+    }
+
+    @Test
+    void controllerNoLongerAnnotatedIsDropped() throws IOException {
+        compile(source("A", "@GetRequest(\"/a\") public String a() { return \"a\"; }"),
+                source("B", "@GetRequest(\"/b\") public String b() { return \"b\"; }"));
+        Path plain = dir.resolve("src/app/B.java");
+        Files.write(plain, "package app;\npublic class B { public String b() { return \"b\"; } }\n"
+                .getBytes(StandardCharsets.UTF_8));
+        compile(plain);
+        List<String> index = index();
+        assertEquals(1, index.size());
+        assertTrue(index.get(0).startsWith("app.A\t"));
+    }
+
+    private Path source(String name, String body) throws IOException {
+        Path file = dir.resolve("src/app/" + name + ".java");
+        Files.createDirectories(file.getParent());
+        String code = "package app;\n"
+                + "import com.monframework.core.util.Annotation.ControleurAnnotation;\n"
+                + "import com.monframework.core.util.Annotation.GetRequest;\n"
+                + "@ControleurAnnotation\n"
+                + "public class " + name + " {\n    " + body + "\n}\n";
+        Files.write(file, code.getBytes(StandardCharsets.UTF_8));
+        return file;
+    }
+
+    /** Compile les sources données avec le processeur, la sortie des compilations précédentes sur le classpath. */
+    private void compile(Path... sources) throws IOException {
+        Path out = Files.createDirectories(dir.resolve("classes"));
+        JavaCompiler javac = ToolProvider.getSystemJavaCompiler();
+        List<String> args = new ArrayList<>(Arrays.asList(
+                "-d", out.toString(),
+                "-classpath", out + System.getProperty("path.separator") + System.getProperty("java.class.path"),
+                "-processor", RouteIndexProcessor.class.getName(),
+                "-encoding", "UTF-8"));
+        for (Path source : sources) {
+            args.add(source.toString());
+        }
+        assertEquals(0, javac.run(null, null, null, args.toArray(new String[0])));
+    }
+
+    private List<String> index() throws IOException {
+        return Files.readAllLines(dir.resolve("classes").resolve(RouteIndexProcessor.INDEX_RESOURCE),
+                StandardCharsets.UTF_8);
+    }
+
+    private static String dispatcher(String line) {
+        return line.substring(line.lastIndexOf('\t') + 1);
+    }
+}
@@ -0,0 +1,143 @@
+package com.monframework.core.util.AccessLog;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AccessLogRoundTripTest {
+
+    private static final Pattern LINE = Pattern.compile("(\\S+Z) (\\S+) (.+) (\\d+) (\\d+\\.\\d{3})ms (\\d+|-)");
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recordsWrittenByThreadsAreReadBack() throws Exception {
+        AccessLogWriter writer = AccessLogWriter.start(dir, 1024 * 1024, 3, 1024, 5);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 3; t++) {
+            int id = t;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 200; i++) {
+                    writer.log("GET", "/t" + id + "/{id}", 200, 1_500_000, i);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        writer.log("DELETE", "/café/{nom}", 404, 250_000, -1);
+        writer.close();
+
+        assertEquals(601, writer.getWrittenCount());
+        assertEquals(0, writer.getDroppedCount());
+        List<String> lines = readAll();
+        assertEquals(601, lines.size());
+
+        int[] perThread = new int[3];
+        for (String line : lines) {
+            Matcher m = LINE.matcher(line);
+            assertTrue(m.matches(), line);
+            if (m.group(2).equals("DELETE")) {
+                assertEquals("/café/{nom}", m.group(3));
+                assertEquals("404", m.group(4));
+                assertEquals("0.250", m.group(5));
+                assertEquals("-", m.group(6));
+            } else {
+                int id = m.group(3).charAt(2) - '0';
+                assertEquals("/t" + id + "/{id}", m.group(3));
+                assertEquals("1.500", m.group(5));
+                // un anneau par thread: l'ordre d'un même thread est conservé
+                assertEquals(Integer.toString(perThread[id]++), m.group(6));
+            }
+        }
+        assertEquals(Arrays.asList(200, 200, 200), Arrays.asList(perThread[0], perThread[1], perThread[2]));
+    }
+
+    @Test
+    void longRoutesAreTruncatedOnCharacterBoundary() throws IOException {
+        StringBuilder route = new StringBuilder("/");
+        for (int i = 0; i < 60; i++) {
+            route.append("é");
+        }
+        AccessLogWriter writer = AccessLogWriter.start(dir, 1024 * 1024, 3, 64, 5);
+        writer.log("PROPFIND", route.toString(), 207, 0, 0);
+        writer.close();
+
+        Matcher m = LINE.matcher(readAll().get(0));
+        assertTrue(m.matches());
+        assertEquals("PROPFIN", m.group(2));
+        String read = m.group(3);
+        assertTrue(route.toString().startsWith(read), read);
+        assertTrue(read.length() > 40);
+    }
+
+    @Test
+    void rotationKeepsNewestFilesInOrder() throws IOException {
+        // 10 enregistrements par fichier, 3 fichiers conservés
+        long fileBytes = AccessLogFormat.HEADER_SIZE + 10L * AccessLogFormat.RECORD_SIZE;
+        AccessLogWriter writer = AccessLogWriter.start(dir, fileBytes, 3, 64, 5);
+        for (int i = 0; i < 35; i++) {
+            writer.log("GET", "/r", 200, 0, i);
+        }
+        writer.close();
+
+        assertEquals(3, AccessLogWriter.listFiles(dir).size());
+        List<String> lines = readAll();
+        assertEquals(25, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertTrue(lines.get(i).endsWith(" " + (i + 10)), lines.get(i));
+        }
+    }
+
+    @Test
+    void filesCreatedInSameMillisecondSortByCollisionNumber() throws IOException {
+        for (String name : new String[] {"access-20261018-101500-123-10.bin", "access-20261018-101500-123-2.bin",
+                "access-20261018-101500-124.bin", "access-20261018-101500-123.bin"}) {
+            Files.createFile(dir.resolve(name));
+        }
+        List<String> names = new ArrayList<>();
+        for (Path file : AccessLogWriter.listFiles(dir)) {
+            names.add(file.getFileName().toString());
+        }
+        assertEquals(Arrays.asList("access-20261018-101500-123.bin", "access-20261018-101500-123-2.bin",
+                "access-20261018-101500-123-10.bin", "access-20261018-101500-124.bin"), names);
+    }
+
+    @Test
+    void readerRejectsOtherFiles() throws IOException {
+        Path file = Files.write(dir.resolve("autre.bin"), new byte[128]);
+        assertThrows(IOException.class, () -> AccessLogReader.write(file, new StringWriter()));
+    }
+
+    private List<String> readAll() throws IOException {
+        StringWriter out = new StringWriter();
+        long count = 0;
+        for (Path file : AccessLogWriter.listFiles(dir)) {
+            count += AccessLogReader.write(file, out);
+        }
+        List<String> lines = new ArrayList<>();
+        for (String line : out.toString().split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        assertEquals(count, lines.size());
+        return lines;
+    }
+}
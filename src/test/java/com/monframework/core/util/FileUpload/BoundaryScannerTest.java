@@ -0,0 +1,33 @@
+package com.monframework.core.util.FileUpload;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+class BoundaryScannerTest {
+
+    @Test
+    void scannerFindsPatternAtEveryPosition() {
+        byte[] pattern = "\r\n--ab".getBytes(StandardCharsets.ISO_8859_1);
+        BoundaryScanner scanner = new BoundaryScanner(pattern);
+        for (int pos = 0; pos <= 20; pos++) {
+            byte[] data = new byte[20 + pattern.length];
+            Arrays.fill(data, (byte) '-');
+            System.arraycopy(pattern, 0, data, pos, pattern.length);
+            assertEquals(pos, scanner.indexOf(data, 0, data.length));
+            // délimiteur coupé par la fin de la fenêtre: pas encore trouvé
+            assertEquals(-1, scanner.indexOf(data, 0, pos + pattern.length - 1));
+        }
+    }
+
+    @Test
+    void scannerIgnoresPartialMatches() {
+        BoundaryScanner scanner = new BoundaryScanner("\r\n--ab".getBytes(StandardCharsets.ISO_8859_1));
+        byte[] data = "\r\n--a\r\n-\r\n--ab".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals(8, scanner.indexOf(data, 0, data.length));
+        assertEquals(-1, scanner.indexOf(data, 0, data.length - 1));
+    }
+}
@@ -0,0 +1,140 @@
+package com.monframework.core.util.FileUpload;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.monframework.core.util.AsyncIO.BufferPool;
+
+class MultipartStreamTest {
+
+    private static final String BOUNDARY = "----fwBoundary42";
+
+    @Test
+    void partsSurviveBoundariesSplitAcrossReads() throws IOException {
+        byte[] file = new byte[5000];
+        new Random(7).nextBytes(file);
+        byte[] body = body(file);
+        // lectures de 1 à 13 octets et petit tampon: chaque délimiteur est coupé quelque part
+        for (int chunk = 1; chunk <= 13; chunk++) {
+            try (MultipartStream stream = open(new ChunkedInputStream(body, chunk))) {
+                MultipartStream.StreamingPart field = stream.next();
+                assertEquals("title", field.getName());
+                assertEquals("Rapport été", field.getString());
+
+                MultipartStream.StreamingPart upload = stream.next();
+                assertEquals("doc", upload.getName());
+                assertEquals("rapport.bin", upload.getSubmittedFileName());
+                assertEquals("application/octet-stream", upload.getContentType());
+                assertArrayEquals(file, readAll(upload.getInputStream()), "lectures de " + chunk + " octets");
+
+                assertNull(stream.next());
+            }
+        }
+    }
+
+    @Test
+    void singleByteReadsMatchBulkReads() throws IOException {
+        byte[] file = "ligne 1\r\n--presque un délimiteur\r\n".getBytes(StandardCharsets.UTF_8);
+        try (MultipartStream stream = open(new ByteArrayInputStream(body(file)))) {
+            stream.next();
+            InputStream in = stream.next().getInputStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int b;
+            while ((b = in.read()) != -1) {
+                out.write(b);
+            }
+            assertArrayEquals(file, out.toByteArray());
+        }
+    }
+
+    @Test
+    void nextSkipsUnreadRemainder() throws IOException {
+        byte[] file = new byte[2000];
+        try (MultipartStream stream = open(new ChunkedInputStream(body(file), 7))) {
+            stream.next();
+            MultipartStream.StreamingPart upload = stream.next();
+            upload.getInputStream().read(new byte[10]);
+            assertNull(stream.next());
+        }
+    }
+
+    @Test
+    void truncatedBodyIsRejected() throws IOException {
+        byte[] full = body(new byte[300]);
+        byte[] truncated = Arrays.copyOf(full, full.length - 40);
+        try (MultipartStream stream = open(new ByteArrayInputStream(truncated))) {
+            stream.next();
+            InputStream in = stream.next().getInputStream();
+            assertThrows(MultipartException.class, () -> readAll(in));
+        }
+    }
+
+    @Test
+    void partSizeLimitIsEnforced() throws IOException {
+        MultipartStream stream = new MultipartStream(new ByteArrayInputStream(body(new byte[1000])), BOUNDARY,
+                new BufferPool(256, 4), 500, -1, -1, 8 * 1024);
+        try {
+            stream.next();
+            InputStream in = stream.next().getInputStream();
+            MultipartException e = assertThrows(MultipartException.class, () -> readAll(in));
+            assertTrue(e.getMessage().contains("500"));
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static MultipartStream open(InputStream in) throws IOException {
+        return new MultipartStream(in, BOUNDARY, new BufferPool(256, 4), -1, -1, -1, 8 * 1024);
+    }
+
+    private static byte[] body(byte[] file) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(("--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"title\"\r\n\r\n"
+                + "Rapport été\r\n"
+                + "--" + BOUNDARY + "\r\n"
+                + "Content-Disposition: form-data; name=\"doc\"; filename=\"rapport.bin\"\r\n"
+                + "Content-Type: application/octet-stream\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+        out.write(file);
+        out.write(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+        return out.toByteArray();
+    }
+
+    private static byte[] readAll(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[333];
+        int n;
+        while ((n = in.read(chunk)) != -1) {
+            out.write(chunk, 0, n);
+        }
+        return out.toByteArray();
+    }
+
+    /** Flux qui ne rend jamais plus de chunk octets par lecture. */
+    private static final class ChunkedInputStream extends ByteArrayInputStream {
+        private final int chunk;
+
+        ChunkedInputStream(byte[] data, int chunk) {
+            super(data);
+            this.chunk = chunk;
+        }
+
+        @Override
+        public synchronized int read(byte[] b, int off, int len) {
+            return super.read(b, off, Math.min(len, chunk));
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.monframework.core.util.Logging;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LogRingTest {
+
+    @Test
+    void capacityIsRoundedToPowerOfTwo() {
+        assertEquals(4, new LogRing(3).capacity());
+        assertEquals(4, new LogRing(4).capacity());
+        assertEquals(8, new LogRing(5).capacity());
+        assertEquals(1024, new LogRing(1000).capacity());
+        assertEquals(1024, new LogRing(1024).capacity());
+    }
+
+    @Test
+    void fullRingRejectsOffers() {
+        LogRing ring = new LogRing(4);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(ring.offer(record("m" + i)));
+        }
+        assertFalse(ring.offer(record("perdu")));
+        assertEquals("m0", ring.poll().message);
+        assertTrue(ring.offer(record("m4")));
+        assertFalse(ring.offer(record("perdu")));
+    }
+
+    @Test
+    void wrapsAroundInOrder() {
+        LogRing ring = new LogRing(4);
+        assertTrue(ring.isEmpty());
+        assertNull(ring.poll());
+        int next = 0;
+        int expected = 0;
+        // 3 ajouts pour 3 retraits: les positions font plusieurs fois le tour de l'anneau
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 3; i++) {
+                LogRecord record = record("m" + next++);
+                assertTrue(ring.offer(record));
+                assertFalse(ring.isEmpty());
+            }
+            for (int i = 0; i < 3; i++) {
+                assertEquals("m" + expected++, ring.poll().message);
+            }
+            assertTrue(ring.isEmpty());
+            assertNull(ring.poll());
+        }
+    }
+
+    @Test
+    void concurrentProducersLoseNothingWhenDrained() throws InterruptedException {
+        LogRing ring = new LogRing(64);
+        int producers = 4;
+        int perProducer = 20_000;
+        List<Thread> threads = new ArrayList<>();
+        for (int p = 0; p < producers; p++) {
+            int id = p;
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    LogRecord record = record(id + ":" + i);
+                    while (!ring.offer(record)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        int[] nextByProducer = new int[producers];
+        int received = 0;
+        while (received < producers * perProducer) {
+            LogRecord record = ring.poll();
+            if (record == null) {
+                Thread.yield();
+                continue;
+            }
+            String[] parts = record.message.split(":");
+            int producer = Integer.parseInt(parts[0]);
+            // ordre conservé pour chaque producteur
+            assertEquals(nextByProducer[producer]++, Integer.parseInt(parts[1]));
+            received++;
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertTrue(ring.isEmpty());
+        for (int count : nextByProducer) {
+            assertEquals(perProducer, count);
+        }
+    }
+
+    @Test
+    void pollReturnsSameInstance() {
+        LogRing ring = new LogRing(2);
+        LogRecord record = record("m");
+        ring.offer(record);
+        assertSame(record, ring.poll());
+    }
+
+    private static LogRecord record(String message) {
+        return new LogRecord(Level.INFO, "test", message, null);
+    }
+}
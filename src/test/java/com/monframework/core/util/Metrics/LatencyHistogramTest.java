@@ -0,0 +1,68 @@
+package com.monframework.core.util.Metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+    @Test
+    void firstBucketEndsAtMinimumResolution() {
+        assertEquals(1L << 14, LatencyHistogram.upperBoundNanos(0));
+        assertEquals(0, LatencyHistogram.bucketIndex(0));
+        assertEquals(0, LatencyHistogram.bucketIndex(-5));
+        assertEquals(0, LatencyHistogram.bucketIndex((1L << 14) - 1));
+        assertEquals(1, LatencyHistogram.bucketIndex(1L << 14));
+    }
+
+    @Test
+    void upperBoundsMatchBucketIndex() {
+        for (int i = 0; i < LatencyHistogram.BUCKETS - 1; i++) {
+            long upper = LatencyHistogram.upperBoundNanos(i);
+            assertEquals(i, LatencyHistogram.bucketIndex(upper - 1), "bucket " + i);
+            assertEquals(i + 1, LatencyHistogram.bucketIndex(upper), "bucket " + i);
+        }
+        assertEquals(1L << 35, LatencyHistogram.upperBoundNanos(LatencyHistogram.BUCKETS - 2));
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.upperBoundNanos(LatencyHistogram.BUCKETS - 1));
+        assertEquals(LatencyHistogram.BUCKETS - 1, LatencyHistogram.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    void relativeErrorBelowQuarter() {
+        for (int i = 1; i < LatencyHistogram.BUCKETS - 1; i++) {
+            long lower = LatencyHistogram.upperBoundNanos(i - 1);
+            long upper = LatencyHistogram.upperBoundNanos(i);
+            assertTrue(upper > lower);
+            assertTrue(upper - lower <= lower / 4, "bucket " + i + ": [" + lower + ", " + upper + ")");
+        }
+    }
+
+    @Test
+    void countsAndSumAcrossThreads() throws InterruptedException {
+        LatencyHistogram histogram = new LatencyHistogram();
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histogram.record(1_000_000); // 1 ms
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        histogram.record(5);
+
+        long[] counts = histogram.snapshot();
+        assertEquals(40_001, histogram.getCount());
+        assertEquals(40_000L * 1_000_000 + 5, histogram.getSumNanos());
+        assertEquals(1, counts[0]);
+        assertEquals(40_000, counts[LatencyHistogram.bucketIndex(1_000_000)]);
+    }
+}
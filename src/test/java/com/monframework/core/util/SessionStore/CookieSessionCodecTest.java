@@ -0,0 +1,150 @@
+package com.monframework.core.util.SessionStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class CookieSessionCodecTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @Test
+    void signedRoundTrip() {
+        CookieSessionCodec codec = codec(false, ONE_HOUR, "k1");
+        Map<String, Object> decoded = codec.decode(codec.encode(attributes()));
+        assertEquals("alice", decoded.get("user"));
+        assertEquals(42, decoded.get("count"));
+        assertEquals(-7L, decoded.get("big"));
+        assertEquals(Boolean.TRUE, decoded.get("admin"));
+        assertEquals('x', decoded.get("letter"));
+        assertArrayEquals(new byte[] {1, 2, 3}, (byte[]) decoded.get("raw"));
+    }
+
+    @Test
+    void encryptedRoundTripHidesContent() {
+        CookieSessionCodec codec = codec(true, ONE_HOUR, "k1");
+        String value = codec.encode(attributes());
+        assertTrue(value.startsWith("k1.e."));
+        byte[] payload = Base64.getUrlDecoder().decode(value.split("\\.")[2]);
+        assertFalse(new String(payload, StandardCharsets.ISO_8859_1).contains("alice"));
+        assertEquals("alice", codec.decode(value).get("user"));
+    }
+
+    @Test
+    void tamperedCookieIsRejected() {
+        for (boolean encrypt : new boolean[] {false, true}) {
+            CookieSessionCodec codec = codec(encrypt, ONE_HOUR, "k1");
+            String[] parts = codec.encode(attributes()).split("\\.");
+
+            String payload = flip(parts[2], parts[2].length() / 2);
+            assertNull(codec.decode(parts[0] + "." + parts[1] + "." + payload + "." + parts[3]));
+
+            String signature = flip(parts[3], 0);
+            assertNull(codec.decode(parts[0] + "." + parts[1] + "." + parts[2] + "." + signature));
+
+            String flag = encrypt ? "p" : "e";
+            assertNull(codec.decode(parts[0] + "." + flag + "." + parts[2] + "." + parts[3]));
+
+            assertNull(codec.decode(parts[0] + "." + parts[1] + "." + parts[2]));
+            assertNull(codec.decode("n'importe quoi"));
+            assertNull(codec.decode(null));
+        }
+    }
+
+    @Test
+    void unknownKeyIsRejected() {
+        String value = codec(false, ONE_HOUR, "other").encode(attributes());
+        assertNull(codec(false, ONE_HOUR, "k1").decode(value));
+    }
+
+    @Test
+    void sameKeyIdWithDifferentSecretIsRejected() {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        secrets.put("k1", secret((byte) 99));
+        String value = new CookieSessionCodec(secrets, false, 4096, ONE_HOUR).encode(attributes());
+        assertNull(codec(false, ONE_HOUR, "k1").decode(value));
+    }
+
+    @Test
+    void expiredCookieIsRejected() throws InterruptedException {
+        CookieSessionCodec codec = codec(false, 20, "k1");
+        String value = codec.encode(attributes());
+        Thread.sleep(50);
+        assertNull(codec.decode(value));
+    }
+
+    @Test
+    void renewalAfterHalfOfMaxAge() {
+        CookieSessionCodec codec = codec(false, ONE_HOUR, "k1");
+        CookieSessionCodec.Decoded decoded = codec.decodeWithTimestamp(codec.encode(attributes()));
+        assertNotNull(decoded);
+        assertFalse(codec.needsRenewal(decoded.getWrittenAt()));
+        assertTrue(codec.needsRenewal(System.currentTimeMillis() - ONE_HOUR / 2 - 1000));
+    }
+
+    @Test
+    void rotationKeepsOldCookiesValid() {
+        String old = codec(true, ONE_HOUR, "k1").encode(attributes());
+        CookieSessionCodec rotated = codec(true, ONE_HOUR, "k2", "k1");
+        assertEquals("alice", rotated.decode(old).get("user"));
+        assertTrue(rotated.encode(attributes()).startsWith("k2."));
+    }
+
+    @Test
+    void unsupportedTypeAndOversizedSessionAreRefused() {
+        CookieSessionCodec codec = codec(false, ONE_HOUR, "k1");
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("list", Arrays.asList("a", "b"));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(attributes));
+
+        attributes.clear();
+        attributes.put("raw", new byte[8192]);
+        assertThrows(IllegalStateException.class, () -> codec.encode(attributes));
+    }
+
+    private static CookieSessionCodec codec(boolean encrypt, long maxAgeMillis, String... keyIds) {
+        Map<String, byte[]> secrets = new LinkedHashMap<>();
+        for (String id : keyIds) {
+            secrets.put(id, secret((byte) id.hashCode()));
+        }
+        return new CookieSessionCodec(secrets, encrypt, 4096, maxAgeMillis);
+    }
+
+    private static byte[] secret(byte seed) {
+        byte[] secret = new byte[32];
+        for (int i = 0; i < secret.length; i++) {
+            secret[i] = (byte) (seed + i);
+        }
+        return secret;
+    }
+
+    private static Map<String, Object> attributes() {
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        attributes.put("user", "alice");
+        attributes.put("count", 42);
+        attributes.put("big", -7L);
+        attributes.put("admin", true);
+        attributes.put("letter", 'x');
+        attributes.put("raw", new byte[] {1, 2, 3});
+        return attributes;
+    }
+
+    /** Remplace un caractère base64url par un autre caractère valide. */
+    private static String flip(String value, int index) {
+        char replacement = value.charAt(index) == 'A' ? 'B' : 'A';
+        return value.substring(0, index) + replacement + value.substring(index + 1);
+    }
+}
@@ -0,0 +1,178 @@
+package com.monframework.core.util.SessionStore;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class MappedLogSessionStoreTest {
+
+    private static final long ONE_HOUR = TimeUnit.HOURS.toMillis(1);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void sessionsSurviveReopen() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        MappedLogSessionStore store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        store.save("a", session("user", "alice"));
+        store.save("b", session("user", "bob"));
+        store.save("a", session("user", "alice2"));
+        store.delete("b");
+        store.close();
+
+        store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        try {
+            assertEquals("alice2", store.load("a").get("user"));
+            assertNull(store.load("b"));
+            assertNull(store.load("inconnue"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void corruptedTailIsIgnored() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        MappedLogSessionStore store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        store.save("a", session("user", "alice"));
+        store.save("b", session("user", "bob"));
+        store.close();
+
+        // dernier octet de l'enregistrement de b modifié: le CRC ne correspond plus
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(16);
+            channel.read(header, 0);
+            long end = header.getLong(8);
+            ByteBuffer last = ByteBuffer.allocate(1);
+            channel.read(last, end - 1);
+            last.put(0, (byte) ~last.get(0));
+            last.flip();
+            channel.write(last, end - 1);
+        }
+
+        store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        try {
+            assertEquals("alice", store.load("a").get("user"));
+            assertNull(store.load("b"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void expiredSessionIsNotReturned() throws Exception {
+        MappedLogSessionStore store = new MappedLogSessionStore(dir.resolve("sessions.log"), 20, 0);
+        try {
+            store.save("a", session("user", "alice"));
+            Thread.sleep(50);
+            assertNull(store.load("a"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveSessions() throws IOException {
+        Path file = dir.resolve("sessions.log");
+        byte[] payload = new byte[64 * 1024];
+        MappedLogSessionStore store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        try {
+            store.save("keep", session("user", "alice"));
+            store.save("gone", session("user", "bob"));
+            store.delete("gone");
+            // plus de 4 Mo réécrits sur la même session: presque tout le journal est obsolète
+            for (int i = 0; i < 80; i++) {
+                payload[0] = (byte) i;
+                Map<String, Object> big = new HashMap<>();
+                big.put("data", payload.clone());
+                store.save("big", big);
+            }
+            long before = Files.size(file);
+            assertTrue(before > 4 * 1024 * 1024);
+
+            store.compactIfNeeded();
+
+            assertTrue(Files.size(file) < before / 2, "taille après compaction: " + Files.size(file));
+            assertEquals("alice", store.load("keep").get("user"));
+            assertNull(store.load("gone"));
+            assertEquals(79, ((byte[]) store.load("big").get("data"))[0]);
+            store.save("after", session("user", "carol"));
+        } finally {
+            store.close();
+        }
+
+        store = new MappedLogSessionStore(file, ONE_HOUR, 0);
+        try {
+            assertEquals("alice", store.load("keep").get("user"));
+            assertEquals("carol", store.load("after").get("user"));
+            assertNull(store.load("gone"));
+            byte[] data = (byte[]) store.load("big").get("data");
+            assertNotNull(data);
+            payload[0] = 79;
+            assertArrayEquals(payload, data);
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void readSessionIsKeptAliveBySlidingExpiration() throws Exception {
+        MappedLogSessionStore store = new MappedLogSessionStore(dir.resolve("sessions.log"), 1000, 0);
+        try {
+            store.save("a", session("user", "alice"));
+            Thread.sleep(300);
+            assertEquals("alice", store.load("a").get("user"));
+            Thread.sleep(800);
+            // 1,1 s après la sauvegarde, mais la lecture a repoussé l'expiration
+            assertEquals("alice", store.load("a").get("user"));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void compactionReclaimsExpiredSessions() throws Exception {
+        Path file = dir.resolve("sessions.log");
+        MappedLogSessionStore store = new MappedLogSessionStore(file, 200, 0);
+        try {
+            for (int i = 0; i < 80; i++) {
+                Map<String, Object> big = new HashMap<>();
+                big.put("data", new byte[64 * 1024]);
+                store.save("s" + i, big);
+            }
+            long before = Files.size(file);
+            assertTrue(before > 4 * 1024 * 1024);
+            Thread.sleep(300);
+
+            // aucune session supprimée: seule l'expiration rend le journal récupérable
+            store.compactIfNeeded();
+
+            assertTrue(Files.size(file) < before / 2, "taille après compaction: " + Files.size(file));
+            assertNull(store.load("s79"));
+        } finally {
+            store.close();
+        }
+    }
+
+    private static Map<String, Object> session(String key, Object value) {
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(key, value);
+        return attributes;
+    }
+}